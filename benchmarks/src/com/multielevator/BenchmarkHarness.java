@@ -0,0 +1,91 @@
+package com.multielevator;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Минимальный измеритель в духе JMH: прогрев, несколько замеров фиксированной длительности,
+ * время на операцию и выделенная память на операцию (по счётчику аллокаций текущего потока).
+ */
+final class BenchmarkHarness {
+
+    /** Одна операция бенчмарка; результат «съедается», чтобы JIT не выбросил работу. */
+    @FunctionalInterface
+    interface Op {
+        long run();
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+
+    BenchmarkHarness(int warmupIterations, int measureIterations, long iterationMs) {
+        this.warmupIterations = Math.max(0, warmupIterations);
+        this.measureIterations = Math.max(1, measureIterations);
+        this.iterationNanos = Math.max(1, iterationMs) * 1_000_000L;
+    }
+
+    static String header() {
+        return String.format(Locale.US, "%-28s %-24s %12s %12s %12s %10s",
+                "benchmark", "params", "ns/op", "p50 ns/op", "max ns/op", "B/op");
+    }
+
+    /** Замеряет op и печатает строку результата; возвращает среднее ns/op. */
+    double run(String name, String params, Op op) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(op);
+        }
+
+        double[] nsPerOp = new double[measureIterations];
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < measureIterations; i++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long[] r = iteration(op);
+            totalBytes += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            totalOps += r[0];
+            totalNanos += r[1];
+            nsPerOp[i] = (double) r[1] / r[0];
+        }
+        Arrays.sort(nsPerOp);
+
+        System.out.printf(Locale.US, "%-28s %-24s %12.1f %12.1f %12.1f %10.1f%n",
+                name, params,
+                (double) totalNanos / totalOps,
+                nsPerOp[nsPerOp.length / 2],
+                nsPerOp[nsPerOp.length - 1],
+                (double) totalBytes / totalOps);
+        return (double) totalNanos / totalOps;
+    }
+
+    private long[] iteration(Op op) {
+        long ops = 0;
+        long acc = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            // пачками, чтобы не мерить System.nanoTime()
+            for (int i = 0; i < 64; i++) {
+                acc += op.run();
+            }
+            ops += 64;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        sink += acc;
+        return new long[] { ops, elapsed };
+    }
+
+    static int[] parseList(String v) {
+        String[] parts = v.split(",");
+        int[] out = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) out[i] = Integer.parseInt(parts[i].trim());
+        return out;
+    }
+}
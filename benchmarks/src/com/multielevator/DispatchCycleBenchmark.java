@@ -0,0 +1,113 @@
+package com.multielevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Время одного цикла dispatchPendingCalls в зависимости от числа ожидающих вызовов.
+ * При O(1) счётчиках назначений время на один вызов (ns/call) не должно расти
+ * вместе с очередью. elevatorUpdate — инкрементальный проход после обновления
+ * одного лифта; он должен зависеть от числа затронутых вызовов, а не от длины очереди.
+ *
+ * assignCycle — раздача всех вызовов с нуля (назначения сняты): для {@link AssignmentMode#BATCH}
+ * это построение матрицы стоимостей и задача о назначениях. Её время сверяется с бюджетом
+ * {@code --budget-ms} (по умолчанию 1% от {@link Config#DISPATCHER_FULL_SWEEP_MS}: полный проход
+ * не должен заметно отнимать время у разбора событий лифтов).
+ *
+ * <pre>
+ * java -cp out com.multielevator.DispatchCycleBenchmark --elevators 16 --floors 100 --pending 10,50,100,190
+ * java -cp out com.multielevator.DispatchCycleBenchmark --elevators 32 --floors 100 --pending 100 --assign greedy,batch
+ * </pre>
+ */
+public final class DispatchCycleBenchmark {
+
+    public static void main(String[] args) {
+        int elevators = 16;
+        int floors = 100;
+        int[] pending = { 10, 50, 100, 190 };
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMs = 200;
+        AssignmentMode[] modes = { AssignmentMode.GREEDY, AssignmentMode.BATCH };
+        double budgetMs = Config.DISPATCHER_FULL_SWEEP_MS / 100.0;
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (a) {
+                case "--elevators" -> { elevators = Integer.parseInt(v); i++; }
+                case "--floors" -> { floors = Integer.parseInt(v); i++; }
+                case "--pending" -> { pending = BenchmarkHarness.parseList(v); i++; }
+                case "--warmup" -> { warmup = Integer.parseInt(v); i++; }
+                case "--iterations" -> { iterations = Integer.parseInt(v); i++; }
+                case "--time-ms" -> { iterationMs = Long.parseLong(v); i++; }
+                case "--assign" -> { modes = parseModes(v); i++; }
+                case "--budget-ms" -> { budgetMs = Double.parseDouble(v); i++; }
+                default -> throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, iterationMs);
+        System.out.println(BenchmarkHarness.header());
+
+        List<String> verdicts = new ArrayList<>();
+        for (AssignmentMode mode : modes) {
+            for (int n : pending) {
+                FleetFixture f = new FleetFixture(floors, elevators, 42L, mode);
+                f.addPendingCalls(n, 7L);
+                int calls = f.dispatcher.getPendingCallCount();
+                String params = "pending=" + calls + "," + mode.name().toLowerCase();
+                harness.run("dispatchPendingCalls", params, () -> {
+                    f.dispatcher.dispatchPendingCalls();
+                    return 1;
+                });
+                harness.run("dispatchPendingCalls/call", params, new PerCall(f.dispatcher, calls));
+                int[] next = { 0 };
+                harness.run("elevatorUpdate", params, () -> {
+                    Elevator e = f.elevators.get(next[0]++ % f.elevators.size());
+                    f.dispatcher.markDirtyFor(e);
+                    f.dispatcher.dispatchDirtyCalls();
+                    return e.getId();
+                });
+                double ns = harness.run("assignCycle", params, () -> {
+                    f.dispatcher.releaseAssignments();
+                    f.dispatcher.dispatchPendingCalls();
+                    return f.dispatcher.getPendingCallCount();
+                });
+                verdicts.add(String.format(Locale.US, "assignCycle %s, elevators=%d: %.3f ms (budget %.1f ms) %s",
+                        params, elevators, ns / 1e6, budgetMs, (ns / 1e6 <= budgetMs) ? "OK" : "OVER BUDGET"));
+            }
+        }
+        System.out.println();
+        verdicts.forEach(System.out::println);
+    }
+
+    private static AssignmentMode[] parseModes(String v) {
+        String[] parts = v.split(",");
+        AssignmentMode[] out = new AssignmentMode[parts.length];
+        for (int i = 0; i < parts.length; i++) out[i] = AssignmentMode.parse(parts[i]);
+        return out;
+    }
+
+    /** Тот же цикл, но одна «операция» — один вызов в очереди (ns/op = ns на вызов). */
+    private static final class PerCall implements BenchmarkHarness.Op {
+        private final Dispatcher dispatcher;
+        private final int calls;
+        private int left;
+
+        PerCall(Dispatcher dispatcher, int calls) {
+            this.dispatcher = dispatcher;
+            this.calls = Math.max(1, calls);
+        }
+
+        @Override
+        public long run() {
+            if (left-- <= 0) {
+                dispatcher.dispatchPendingCalls();
+                left = calls - 1;
+            }
+            return left;
+        }
+    }
+}
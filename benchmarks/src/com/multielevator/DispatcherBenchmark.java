@@ -0,0 +1,105 @@
+package com.multielevator;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Бенчмарки горячего пути диспетчера:
+ * dispatchPendingCalls -> findBestElevator -> canAcceptHallCallReason + snapshot() + calculateCost
+ * (и etaCost — стоимость стратегии eta для сравнения).
+ *
+ * <pre>
+ * java -cp out com.multielevator.DispatcherBenchmark --elevators 3,16,64,256 --floors 15,50,100,200
+ * </pre>
+ */
+public final class DispatcherBenchmark {
+
+    public static void main(String[] args) {
+        int[] elevatorCounts = { 3, 16, 64, 256 };
+        int[] floorCounts = { 15, 50, 100, 200 };
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMs = 200;
+        Pattern filter = Pattern.compile(".*");
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (a) {
+                case "--elevators" -> { elevatorCounts = BenchmarkHarness.parseList(v); i++; }
+                case "--floors" -> { floorCounts = BenchmarkHarness.parseList(v); i++; }
+                case "--warmup" -> { warmup = Integer.parseInt(v); i++; }
+                case "--iterations" -> { iterations = Integer.parseInt(v); i++; }
+                case "--time-ms" -> { iterationMs = Long.parseLong(v); i++; }
+                case "--bench" -> { filter = Pattern.compile(v); i++; }
+                default -> throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, iterationMs);
+        System.out.println(BenchmarkHarness.header());
+
+        for (int floors : floorCounts) {
+            for (int count : elevatorCounts) {
+                FleetFixture f = new FleetFixture(floors, count, 42L);
+                runAll(harness, filter, f);
+            }
+        }
+    }
+
+    private static void runAll(BenchmarkHarness h, Pattern filter, FleetFixture f) {
+        List<Elevator> elevators = f.elevators;
+        int n = elevators.size();
+        HallCall[] calls = f.probeCalls;
+        int[] cursor = new int[1];
+
+        if (filter.matcher("snapshot").matches()) {
+            h.run("snapshot", f.params(), () -> {
+                Elevator e = elevators.get(cursor[0]++ % n);
+                return e.snapshot().plannedStops();
+            });
+        }
+
+        if (filter.matcher("canAcceptHallCallReason").matches()) {
+            h.run("canAcceptHallCallReason", f.params(), () -> {
+                int i = cursor[0]++;
+                Elevator e = elevators.get(i % n);
+                return e.canAcceptHallCallReason(calls[i & (calls.length - 1)]).ordinal();
+            });
+        }
+
+        if (filter.matcher("calculateCost").matches()) {
+            CollectiveControlStrategy strategy = new CollectiveControlStrategy(f.settings);
+            ElevatorSnapshot[] snaps = new ElevatorSnapshot[n];
+            for (int i = 0; i < n; i++) snaps[i] = elevators.get(i).snapshot();
+            h.run("calculateCost", f.params(), () -> {
+                int i = cursor[0]++;
+                return strategy.calculateCost(snaps[i % n], calls[i & (calls.length - 1)]);
+            });
+        }
+
+        if (filter.matcher("etaCost").matches()) {
+            EtaStrategy strategy = new EtaStrategy(f.settings);
+            ElevatorSnapshot[] snaps = new ElevatorSnapshot[n];
+            for (int i = 0; i < n; i++) snaps[i] = elevators.get(i).snapshot();
+            h.run("etaCost", f.params(), () -> {
+                int i = cursor[0]++;
+                return strategy.cost(snaps[i % n], calls[i & (calls.length - 1)], 0);
+            });
+        }
+
+        if (filter.matcher("findBestElevator").matches()) {
+            h.run("findBestElevator", f.params(), () -> {
+                HallCall call = calls[cursor[0]++ & (calls.length - 1)];
+                return f.dispatcher.findBestElevator(call).mode.ordinal();
+            });
+        }
+
+        if (filter.matcher("dispatchPendingCalls").matches()) {
+            h.run("dispatchPendingCalls", f.params(), () -> {
+                f.dispatcher.dispatchPendingCalls();
+                return 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.multielevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Здание с «живыми» лифтами для бенчмарков: симуляция прокручивается в виртуальном
+ * времени до заданного момента и замораживается, так что у лифтов есть направление,
+ * остановки и пассажиры, а у диспетчера — очередь вызовов.
+ */
+final class FleetFixture {
+
+    final SimulationSettings settings;
+    final VirtualTimeEngine engine = new VirtualTimeEngine();
+    final Dispatcher dispatcher;
+    final List<Elevator> elevators = new ArrayList<>();
+    final HallCall[] probeCalls;
+
+    FleetFixture(int floors, int elevatorCount, long seed) {
+        this(floors, elevatorCount, seed, Config.ASSIGNMENT_MODE);
+    }
+
+    FleetFixture(int floors, int elevatorCount, long seed, AssignmentMode assignmentMode) {
+        this.settings = SimulationSettings.builder()
+                .floors(floors)
+                .elevatorsCount(elevatorCount)
+                .assignmentMode(assignmentMode)
+                .seed(seed)
+                .verbose(false)
+                .build();
+        this.dispatcher = new Dispatcher(settings);
+        dispatcher.attachScheduler(engine);
+
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int i = 1; i <= elevatorCount; i++) {
+            Elevator e = new Elevator(i, rnd.nextInt(1, floors + 1), settings.elevatorCapacity(), dispatcher);
+            elevators.add(e);
+            dispatcher.registerElevator(e);
+            e.attachScheduler(engine);
+        }
+
+        // ~4 пассажира на лифт за 30 секунд: лифты в движении, часть вызовов ждёт назначения
+        long warmupMs = 30_000;
+        int passengers = elevatorCount * 4;
+        for (int id = 1; id <= passengers; id++) {
+            int from = rnd.nextInt(1, floors + 1);
+            int to;
+            do {
+                to = rnd.nextInt(1, floors + 1);
+            } while (to == from);
+            Passenger p = new Passenger(id, from, to);
+            engine.schedule(rnd.nextLong(warmupMs), () -> dispatcher.submitRequest(p));
+        }
+        engine.runUntil(warmupMs);
+
+        probeCalls = new HallCall[1024];
+        for (int i = 0; i < probeCalls.length; i++) {
+            int floor = rnd.nextInt(1, floors + 1);
+            Direction dir;
+            if (floor == 1) dir = Direction.UP;
+            else if (floor == floors) dir = Direction.DOWN;
+            else dir = rnd.nextBoolean() ? Direction.UP : Direction.DOWN;
+            probeCalls[i] = new HallCall(floor, dir);
+        }
+    }
+
+    /**
+     * Добавляет до count новых ожидающих вызовов на разных (этаж, направление)
+     * и даёт диспетчеру один раз их разобрать.
+     */
+    int addPendingCalls(int count, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int floors = settings.floors();
+        int added = 0;
+        int id = 1_000_000;
+        for (int attempt = 0; attempt < count * 8 && added < count; attempt++) {
+            int from = rnd.nextInt(1, floors + 1);
+            int to;
+            do {
+                to = rnd.nextInt(1, floors + 1);
+            } while (to == from);
+            Direction dir = (to > from) ? Direction.UP : Direction.DOWN;
+            if (dispatcher.hasWaiting(from, dir)) continue;
+            dispatcher.submitRequest(new Passenger(++id, from, to));
+            added++;
+        }
+        engine.runUntil(engine.now());
+        return added;
+    }
+
+    String params() {
+        return "elevators=" + settings.elevatorsCount() + ",floors=" + settings.floors();
+    }
+}
@@ -0,0 +1,188 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Handling capacity здания: наибольший поток up-peak (пассажиров за 5 минут), который парк
+ * выдерживает в рамках SLA. Интенсивность профиля трафика поднимается ступенями
+ * (×{@link #RAMP_FACTOR}), пока ступень не провалит SLA, затем граница уточняется делением
+ * пополам. На каждой ступени — несколько изолированных прогонов в виртуальном времени
+ * с разными seed ({@link BatchRunner}).
+ *
+ * Ступень проходит, если в среднем по прогонам:
+ * <ul>
+ *   <li>среднее ожидание не больше {@code --sla-wait};</li>
+ *   <li>очередь не растёт: к концу прибытий ждёт не больше 2·λ·SLA пассажиров (по закону
+ *       Литтла устойчивая очередь при ожидании SLA — λ·SLA);</li>
+ *   <li>нет отказов, сброшенных запросов и прогонов, не успевших развезти всех
+ *       за {@link Config#DRAIN_TIMEOUT_MS} после конца прибытий.</li>
+ * </ul>
+ * Результат — поток последней прошедшей ступени и его доля от населения здания
+ * (стандартный «процент за 5 минут»).
+ *
+ * <pre>
+ * java -cp out com.multielevator.HandlingCapacityBenchmark --floors 20 --elevators 6 --sla-wait 30
+ * </pre>
+ */
+public final class HandlingCapacityBenchmark {
+
+    private static final double RAMP_FACTOR = 1.25;
+    private static final int MAX_RAMP_STEPS = 40;
+    /** Население этажа по умолчанию (офис, ~10 м² на человека). */
+    private static final int POPULATION_PER_FLOOR = 80;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int floors = Config.FLOORS;
+        int elevators = Config.ELEVATORS_COUNT;
+        int capacity = Config.ELEVATOR_CAPACITY;
+        String profile = "pure-up-peak";
+        String strategy = Config.DISPATCH_STRATEGY;
+        HallControl hall = Config.HALL_CONTROL;
+        int minutes = 30;
+        int runs = 8;
+        int refine = 5;
+        double slaWaitSec = 30;
+        double startScale = 0.1;
+        int population = -1;
+        long seed = 1L;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (a) {
+                case "--floors" -> { floors = Integer.parseInt(v); i++; }
+                case "--elevators" -> { elevators = Integer.parseInt(v); i++; }
+                case "--capacity" -> { capacity = Integer.parseInt(v); i++; }
+                case "--profile" -> { profile = v; i++; }
+                case "--strategy" -> { strategy = v; i++; }
+                case "--hall" -> { hall = HallControl.parse(v); i++; }
+                case "--minutes" -> { minutes = Integer.parseInt(v); i++; }
+                case "--runs" -> { runs = Integer.parseInt(v); i++; }
+                case "--refine" -> { refine = Integer.parseInt(v); i++; }
+                case "--sla-wait" -> { slaWaitSec = Double.parseDouble(v); i++; }
+                case "--start-scale" -> { startScale = Double.parseDouble(v); i++; }
+                case "--population" -> { population = Integer.parseInt(v); i++; }
+                case "--seed" -> { seed = Long.parseLong(v); i++; }
+                case "--threads" -> { threads = Integer.parseInt(v); i++; }
+                default -> throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+        if (population <= 0) population = (floors - 1) * POPULATION_PER_FLOOR;
+
+        TrafficProfile traffic = TrafficProfile.load(profile, floors);
+        long windowMs = Math.min(minutes * 60_000L, traffic.endMs() - traffic.startMs());
+        SimulationSettings base = SimulationSettings.builder()
+                .floors(floors)
+                .elevatorsCount(elevators)
+                .elevatorCapacity(capacity)
+                .profile(profile)
+                .dispatchStrategy(strategy)
+                .hallControl(hall)
+                .trafficWindow(traffic.startMs(), traffic.startMs() + windowMs)
+                .passengerLimit(Integer.MAX_VALUE)
+                .verbose(false)
+                .build();
+        Search search = new Search(base, new BatchRunner(threads), runs, seed, slaWaitSec * 1000.0, population);
+
+        DispatchStrategy.create(strategy, base); // неизвестное имя — ошибка до прогонов
+        System.out.printf(Locale.US, "Handling capacity: %d floors, %d elevators x %d, profile %s, strategy %s, hall %s, %d min per step, %d runs, SLA avg wait %.0f s%n",
+                floors, elevators, capacity, profile, base.dispatchStrategy(), hall.label(), windowMs / 60_000L, runs, slaWaitSec);
+        System.out.printf(Locale.US, "%8s %11s %7s %11s %11s %9s  %s%n",
+                "scale", "arrivals/5m", "%pop", "avg wait s", "p95 wait s", "backlog", "verdict");
+
+        Step pass = null;
+        Step fail = null;
+        double scale = startScale;
+        for (int i = 0; i < MAX_RAMP_STEPS; i++) {
+            Step step = search.measure(scale);
+            if (!step.ok) {
+                fail = step;
+                break;
+            }
+            pass = step;
+            scale *= RAMP_FACTOR;
+        }
+        if (fail == null) {
+            System.out.println("SLA never breached; raise --start-scale");
+        } else if (pass == null) {
+            System.out.println("SLA breached at the first step; lower --start-scale");
+        } else {
+            for (int i = 0; i < refine; i++) {
+                Step step = search.measure((pass.scale + fail.scale) / 2);
+                if (step.ok) pass = step;
+                else fail = step;
+            }
+        }
+        if (pass != null) {
+            System.out.printf(Locale.US, "Handling capacity: %.1f passengers / 5 min = %.1f%% of population %d (avg wait %.1f s)%n",
+                    pass.arrivalsPer5Min, pass.arrivalsPer5Min * 100.0 / population, population, pass.avgWaitMs / 1000.0);
+        }
+    }
+
+    private static final class Search {
+        private final SimulationSettings base;
+        private final BatchRunner runner;
+        private final int runs;
+        private final long seed;
+        private final double slaWaitMs;
+        private final int population;
+
+        Search(SimulationSettings base, BatchRunner runner, int runs, long seed, double slaWaitMs, int population) {
+            this.base = base;
+            this.runner = runner;
+            this.runs = runs;
+            this.seed = seed;
+            this.slaWaitMs = slaWaitMs;
+            this.population = population;
+        }
+
+        Step measure(double scale) throws InterruptedException {
+            // одни и те же seed на всех ступенях: ступени отличаются только интенсивностью
+            SplittableRandom seeds = new SplittableRandom(seed);
+            List<SimulationSettings> scenarios = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                scenarios.add(base.toBuilder().rateScale(scale).seed(seeds.nextLong()).build());
+            }
+            double arrivals = 0, wait = 0, p95 = 0, backlog = 0, allowedBacklog = 0;
+            boolean lost = false;
+            int undrained = 0;
+            for (RunResult r : runner.runAll(scenarios)) {
+                arrivals += r.arrivalsPer5Min() / runs;
+                wait += r.averageWaitMs() / runs;
+                p95 += r.waitP95Ms() / (double) runs;
+                backlog += r.backlogAtArrivalsEnd() / (double) runs;
+                allowedBacklog += 2.0 * r.arrivalsPer5Min() / 300_000.0 * slaWaitMs / runs;
+                lost |= r.rejected() > 0 || r.shed() > 0;
+                if (r.timedOut()) undrained++;
+            }
+            String verdict;
+            if (lost) verdict = "FAIL (rejected/shed)";
+            else if (undrained > 0) verdict = "FAIL (" + undrained + "/" + runs + " runs not drained)";
+            else if (wait > slaWaitMs) verdict = "FAIL (wait)";
+            else if (backlog > allowedBacklog) verdict = String.format(Locale.US, "FAIL (queue grows, > %.0f)", allowedBacklog);
+            else verdict = "ok";
+            System.out.printf(Locale.US, "%8.3f %11.1f %7.2f %11.1f %11.1f %9.1f  %s%n",
+                    scale, arrivals, arrivals * 100.0 / population, wait / 1000.0, p95 / 1000.0, backlog, verdict);
+            return new Step(scale, arrivals, wait, verdict.equals("ok"));
+        }
+    }
+
+    private static final class Step {
+        final double scale;
+        final double arrivalsPer5Min;
+        final double avgWaitMs;
+        final boolean ok;
+
+        Step(double scale, double arrivalsPer5Min, double avgWaitMs, boolean ok) {
+            this.scale = scale;
+            this.arrivalsPer5Min = arrivalsPer5Min;
+            this.avgWaitMs = avgWaitMs;
+            this.ok = ok;
+        }
+    }
+}
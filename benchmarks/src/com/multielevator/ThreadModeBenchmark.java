@@ -0,0 +1,147 @@
+package com.multielevator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Сравнение платформенных и виртуальных потоков для потокового режима (поток на лифт):
+ * число потоков ОС, прирост кучи и задержка «шага» — насколько SimulationClock.sleep
+ * просыпается позже положенного при работающем парке лифтов.
+ *
+ * <pre>
+ * java -cp out com.multielevator.ThreadModeBenchmark --elevators 100,250,500 --seconds 10
+ * </pre>
+ */
+public final class ThreadModeBenchmark {
+
+    private static final int PROBES = 4;
+    private static final int STEP_MS = 40; // как подшаг движения в Elevator.moveTo
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] elevatorCounts = { 100, 250 };
+        int floors = 40;
+        int seconds = 10;
+        double speed = 10.0;
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (a) {
+                case "--elevators" -> { elevatorCounts = BenchmarkHarness.parseList(v); i++; }
+                case "--floors" -> { floors = Integer.parseInt(v); i++; }
+                case "--seconds" -> { seconds = Integer.parseInt(v); i++; }
+                case "--speed" -> { speed = Double.parseDouble(v); i++; }
+                default -> throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+        SimulationClock.setSpeed(speed);
+
+        System.out.printf(Locale.US, "%-9s %10s %12s %14s %14s %14s %10s%n",
+                "mode", "elevators", "os threads", "heap delta MB", "step p50 us", "step p99 us", "delivered");
+        for (int count : elevatorCounts) {
+            for (ThreadMode mode : ThreadMode.values()) {
+                if (!mode.isAvailable()) continue;
+                measure(mode, count, floors, seconds);
+            }
+        }
+    }
+
+    private static void measure(ThreadMode mode, int elevatorCount, int floors, int seconds) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        SimulationSettings settings = SimulationSettings.builder()
+                .floors(floors)
+                .elevatorsCount(elevatorCount)
+                .verbose(false)
+                .build();
+        Dispatcher dispatcher = new Dispatcher(settings);
+        List<Thread> all = new ArrayList<>();
+        all.add(mode.start(dispatcher, "Dispatcher"));
+
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 1; i <= elevatorCount; i++) {
+            Elevator e = new Elevator(i, 1, settings.elevatorCapacity(), dispatcher);
+            elevators.add(e);
+            dispatcher.registerElevator(e);
+            all.add(mode.start(e, "Elevator-" + i));
+        }
+
+        // поток запросов: ~1 пассажир на лифт каждые 20 с времени симуляции
+        long intervalMs = Math.max(1, 20_000L / elevatorCount);
+        all.add(mode.start(() -> {
+            SplittableRandom rnd = new SplittableRandom(7);
+            int id = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                int from = rnd.nextInt(1, floors + 1);
+                int to;
+                do {
+                    to = rnd.nextInt(1, floors + 1);
+                } while (to == from);
+                dispatcher.submitRequest(new Passenger(++id, from, to));
+                try {
+                    SimulationClock.sleep(intervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "Passenger-Generator"));
+
+        long[][] lateness = new long[PROBES][];
+        List<Thread> probes = new ArrayList<>();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (int p = 0; p < PROBES; p++) {
+            int slot = p;
+            probes.add(mode.start(() -> lateness[slot] = probe(deadline), "Probe-" + p));
+        }
+
+        Thread.sleep(seconds * 1000L / 2);
+        int osThreads = threads.getThreadCount();
+        System.gc();
+        long heapDelta = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+
+        for (Thread t : probes) t.join();
+
+        dispatcher.shutdown();
+        for (Elevator e : elevators) e.shutdown();
+        for (Thread t : all) t.interrupt();
+        for (Thread t : all) t.join();
+
+        long[] merged = Arrays.stream(lateness).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf(Locale.US, "%-9s %10d %12d %14.1f %14.1f %14.1f %10d%n",
+                mode, elevatorCount, osThreads, heapDelta / (1024.0 * 1024.0),
+                percentile(merged, 0.50) / 1000.0, percentile(merged, 0.99) / 1000.0,
+                dispatcher.getStats().getDelivered());
+    }
+
+    /** Задержка пробуждения после SimulationClock.sleep(STEP_MS), нс. */
+    private static long[] probe(long deadlineNanos) {
+        long[] buf = new long[1 << 16];
+        int n = 0;
+        while (System.nanoTime() < deadlineNanos && n < buf.length) {
+            long expected = Math.max(1L, Math.round(STEP_MS / SimulationClock.getSpeed())) * 1_000_000L;
+            long start = System.nanoTime();
+            try {
+                SimulationClock.sleep(STEP_MS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            buf[n++] = Math.max(0, System.nanoTime() - start - expected);
+        }
+        return Arrays.copyOf(buf, n);
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.min(sorted.length - 1, Math.round(q * (sorted.length - 1)));
+        return sorted[idx];
+    }
+}
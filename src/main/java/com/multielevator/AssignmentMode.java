@@ -0,0 +1,27 @@
+package com.multielevator;
+
+/**
+ * Как диспетчер раздаёт лифтам вызовы, ожидающие назначения.
+ */
+public enum AssignmentMode {
+    /**
+     * По одному вызову в порядке этажей: каждый берёт лучший для себя лифт
+     * по {@link DispatchStrategy#cost}, следующие выбирают из того, что осталось.
+     */
+    GREEDY,
+    /**
+     * Все вызовы прохода сразу: матрица стоимостей «вызов × место в лифте» решается
+     * как задача о назначениях ({@link MinCostMatching}) — минимум суммарной стоимости.
+     * Лифту достаётся не больше вызовов, чем у него свободных мест и остановок.
+     */
+    BATCH;
+
+    /** Разбор значения из командной строки: greedy / batch. */
+    public static AssignmentMode parse(String v) {
+        return switch (v.trim().toLowerCase()) {
+            case "greedy" -> GREEDY;
+            case "batch" -> BATCH;
+            default -> throw new IllegalArgumentException("Unknown assignment mode: " + v);
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package com.multielevator;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронный лог симуляции вместо System.out.printf в лифтах и диспетчере.
+ *
+ * Производитель только кладёт поля записи (время, актёр, тег, сообщение) в заранее
+ * выделенный кольцевой буфер без блокировок — по той же схеме Вьюкова, что и
+ * {@link DispatcherInbox}. Форматирование времени и запись в stdout делает фоновый
+ * поток пачками, поэтому потоки лифтов не ждут друг друга на блокировке System.out.
+ * При переполнении буфера запись отбрасывается (производитель не ждёт), а число
+ * потерянных записей выводится отдельной строкой.
+ *
+ * Фильтры: порог уровня ({@link #setLevel}) и прореживание по тегу — из N записей
+ * с тегом пишется одна ({@link #setSampling}), так что подробный лог можно не
+ * выключать и на больших прогонах.
+ */
+public final class AsyncLog {
+
+    private static final DateTimeFormatter WALL_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(2, Config.LOG_RING_CAPACITY) - 1) << 1;
+    private static final int MASK = CAPACITY - 1;
+
+    // поля записей; ячейка i опубликована, когда sequence[i] == pos + 1
+    private static final AtomicLongArray sequence = new AtomicLongArray(CAPACITY);
+    private static final long[] times = new long[CAPACITY];
+    private static final boolean[] simTimes = new boolean[CAPACITY];
+    private static final String[] actors = new String[CAPACITY];
+    private static final int[] actorIds = new int[CAPACITY];
+    private static final String[] tags = new String[CAPACITY];
+    private static final String[] messages = new String[CAPACITY];
+
+    private static final AtomicLong tail = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    // позиция потребителя; меняется только под WRITE_LOCK
+    private static long head;
+
+    private static final Object WRITE_LOCK = new Object();
+    private static final StringBuilder batch = new StringBuilder(4096);
+    private static final PrintStream out = System.out;
+
+    private static volatile LogLevel level = LogLevel.DEBUG;
+    private static final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    private static volatile Thread writer;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) sequence.set(i, i);
+    }
+
+    private AsyncLog() {}
+
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    /** Писать каждую everyN-ю запись с тегом tag; 1 — все (по умолчанию). */
+    public static void setSampling(String tag, int everyN) {
+        if (everyN <= 1) {
+            samplers.remove(tag);
+        } else {
+            samplers.put(tag, new Sampler(everyN));
+        }
+    }
+
+    /** Разбор прореживания из командной строки: «DOOR=10,ARRIVED=5». */
+    public static void parseSampling(String spec) {
+        for (String part : spec.split(",")) {
+            String p = part.trim();
+            if (p.isEmpty()) continue;
+            int eq = p.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected TAG=N, got: " + p);
+            setSampling(p.substring(0, eq).trim(), Integer.parseInt(p.substring(eq + 1).trim()));
+        }
+    }
+
+    /**
+     * Ставит запись в буфер.
+     * @param timeMs  время симуляции (simTime) или настенное время, мс
+     * @param actorId номер актёра (Elevator-3) или -1, если он один (Dispatcher)
+     */
+    public static void log(LogLevel lvl, long timeMs, boolean simTime,
+                           String actor, int actorId, String tag, String message) {
+        if (lvl.compareTo(level) < 0 || lvl == LogLevel.OFF) return;
+        Sampler sampler = samplers.get(tag);
+        if (sampler != null && !sampler.take()) return;
+
+        long pos = tail.get();
+        while (true) {
+            int i = (int) (pos & MASK);
+            long dif = sequence.get(i) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    times[i] = timeMs;
+                    simTimes[i] = simTime;
+                    actors[i] = actor;
+                    actorIds[i] = actorId;
+                    tags[i] = tag;
+                    messages[i] = message;
+                    sequence.set(i, pos + 1); // публикуем запись потоку записи
+                    break;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                dropped.incrementAndGet();
+                break;
+            } else {
+                pos = tail.get();
+            }
+        }
+        if (writer == null) startWriter();
+    }
+
+    /** Запись от имени системы с настенным временем (Main, генератор, отчёты). */
+    public static void system(String tag, String message) {
+        log(LogLevel.INFO, System.currentTimeMillis(), false, "SYSTEM", -1, tag, message);
+    }
+
+    /** Дописывает в stdout всё, что уже поставлено в буфер. */
+    public static void flush() {
+        synchronized (WRITE_LOCK) {
+            while (drain() > 0) {
+                // пишем, пока буфер не опустеет
+            }
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) return;
+        Thread t = new Thread(AsyncLog::writeLoop, "Log-Writer");
+        t.setDaemon(true);
+        t.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncLog::flush, "Log-Flush"));
+        writer = t;
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            int written;
+            synchronized (WRITE_LOCK) {
+                written = drain();
+            }
+            if (written == 0) LockSupport.parkNanos(Config.LOG_FLUSH_INTERVAL_MS * 1_000_000L);
+        }
+    }
+
+    /** Форматирует и пишет одну пачку записей. Только под WRITE_LOCK. @return сколько записано */
+    private static int drain() {
+        batch.setLength(0);
+        int n = 0;
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            batch.append("[log] dropped ").append(lost).append(" records: buffer full\n");
+        }
+        while (n < CAPACITY) {
+            int i = (int) (head & MASK);
+            if (sequence.get(i) != head + 1) break;
+            format(i);
+            actors[i] = null;
+            tags[i] = null;
+            messages[i] = null;
+            sequence.set(i, head + CAPACITY); // освобождаем ячейку производителям
+            head++;
+            n++;
+        }
+        if (batch.length() > 0) {
+            out.append(batch);
+            out.flush();
+        }
+        return n;
+    }
+
+    private static void format(int i) {
+        long t = times[i];
+        String time = simTimes[i]
+                ? VirtualTimeEngine.formatTime(t)
+                : LocalTime.ofInstant(Instant.ofEpochMilli(t), ZONE).format(WALL_TIME);
+        batch.append('[').append(time).append("][").append(actors[i]);
+        if (actorIds[i] >= 0) batch.append('-').append(actorIds[i]);
+        batch.append("][").append(tags[i]).append("] ").append(messages[i]).append('\n');
+    }
+
+    private static final class Sampler {
+        private final int every;
+        private final AtomicLong seen = new AtomicLong();
+
+        Sampler(int every) {
+            this.every = every;
+        }
+
+        boolean take() {
+            return seen.getAndIncrement() % every == 0;
+        }
+    }
+}
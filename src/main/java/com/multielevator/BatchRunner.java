@@ -0,0 +1,283 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Пакетный режим без GUI: перебор параметров (сетка по этажам, лифтам, вместимости,
+ * зонированию) × N прогонов с разными seed. Прогоны полностью изолированы
+ * ({@link SimulationRun}) и раскладываются по всем ядрам через ForkJoinPool.
+ *
+ * Пример:
+ * <pre>
+ * java com.multielevator.BatchRunner --runs 1000 --zone-split 6,8,10 --zone-penalty 0,10,20 --csv runs.csv
+ * java com.multielevator.BatchRunner --runs 200 --elevators 4,8 --strategy collective,nearest
+ * java com.multielevator.BatchRunner --runs 200 --elevators 8 --floors 40 --assign greedy,batch
+ * java com.multielevator.BatchRunner --runs 50 --profile up-peak --to 00:15:00 --elevators 6 --hall up-down,destination
+ * </pre>
+ */
+public final class BatchRunner {
+
+    private final int parallelism;
+    private final ThreadMode threadMode;
+
+    public BatchRunner(int parallelism) {
+        this(parallelism, ThreadMode.PLATFORM);
+    }
+
+    /**
+     * @param threadMode PLATFORM — ForkJoinPool на parallelism потоков,
+     *                   VIRTUAL — виртуальный поток на прогон (parallelism не используется)
+     */
+    public BatchRunner(int parallelism, ThreadMode threadMode) {
+        this.parallelism = Math.max(1, parallelism);
+        this.threadMode = threadMode;
+    }
+
+    /** Выполняет все сценарии параллельно; порядок результатов совпадает с порядком сценариев. */
+    public List<RunResult> runAll(List<SimulationSettings> scenarios) throws InterruptedException {
+        if (threadMode == ThreadMode.VIRTUAL) {
+            return runAllVirtual(scenarios);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> scenarios.parallelStream()
+                            .map(s -> new SimulationRun(s).run())
+                            .toList())
+                    .get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch run failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<RunResult> runAllVirtual(List<SimulationSettings> scenarios) throws InterruptedException {
+        ExecutorService executor = ThreadMode.VIRTUAL.newPerTaskExecutor();
+        try {
+            List<Future<RunResult>> futures = new ArrayList<>(scenarios.size());
+            for (SimulationSettings s : scenarios) {
+                futures.add(executor.submit(() -> new SimulationRun(s).run()));
+            }
+            List<RunResult> out = new ArrayList<>(futures.size());
+            for (Future<RunResult> f : futures) {
+                out.add(f.get());
+            }
+            return out;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch run failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Декартово произведение значений параметров; для каждой комбинации — runs прогонов
+     * с seed, детерминированно выведенными из baseSeed. Стратегии диспетчера, режимы
+     * раздачи вызовов и виды панелей на этажах получают одни и те же seed, поэтому
+     * сравниваются на одинаковом трафике. Панели назначения не зависят от стратегии
+     * и режима раздачи, поэтому для них прогоны не размножаются: одна комбинация (eta, greedy).
+     */
+    public static List<SimulationSettings> sweep(SimulationSettings base,
+                                                 int[] floors,
+                                                 int[] elevators,
+                                                 int[] capacities,
+                                                 int[] zoneSplits,
+                                                 int[] zonePenalties,
+                                                 String[] strategies,
+                                                 AssignmentMode[] assignmentModes,
+                                                 HallControl[] hallControls,
+                                                 int runs,
+                                                 long baseSeed) {
+        SplittableRandom seeds = new SplittableRandom(baseSeed);
+        List<SimulationSettings> out = new ArrayList<>();
+        for (int f : floors) {
+            for (int el : elevators) {
+                for (int cap : capacities) {
+                    for (int split : zoneSplits) {
+                        for (int penalty : zonePenalties) {
+                            for (int r = 0; r < runs; r++) {
+                                long runSeed = seeds.nextLong();
+                                for (int si = 0; si < strategies.length; si++) {
+                                    for (int mi = 0; mi < assignmentModes.length; mi++) {
+                                        for (HallControl hall : hallControls) {
+                                            boolean destination = hall == HallControl.DESTINATION;
+                                            if (destination && (si > 0 || mi > 0)) continue;
+                                            out.add(base.toBuilder()
+                                                    .floors(f)
+                                                    .elevatorsCount(el)
+                                                    .elevatorCapacity(cap)
+                                                    .zoneSplitFloor(split)
+                                                    .zoneSoftPenalty(penalty)
+                                                    .dispatchStrategy(destination ? EtaStrategy.NAME : strategies[si])
+                                                    .assignmentMode(destination ? AssignmentMode.GREEDY : assignmentModes[mi])
+                                                    .hallControl(hall)
+                                                    .seed(runSeed)
+                                                    .verbose(false)
+                                                    .build());
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int runs = 100;
+        long seed = 1L;
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadMode threadMode = ThreadMode.PLATFORM;
+        int passengers = Config.PASSENGER_LIMIT;
+        int[] floors = { Config.FLOORS };
+        int[] elevators = { Config.ELEVATORS_COUNT };
+        int[] capacities = { Config.ELEVATOR_CAPACITY };
+        int[] zoneSplits = { 0 };
+        int[] zonePenalties = { Config.ZONE_SOFT_PENALTY };
+        String[] strategies = { Config.DISPATCH_STRATEGY };
+        AssignmentMode[] assignmentModes = { Config.ASSIGNMENT_MODE };
+        HallControl[] hallControls = { Config.HALL_CONTROL };
+        int ingestCapacity = Config.INGEST_CAPACITY;
+        IngestPolicy ingestPolicy = Config.INGEST_POLICY;
+        Path csv = null;
+        Path trace = null;
+        String profile = null;
+        double rateScale = 1.0;
+        long trafficFrom = Long.MIN_VALUE;
+        long trafficTo = Long.MAX_VALUE;
+        boolean passengersSet = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (a) {
+                case "--runs" -> { runs = Integer.parseInt(v); i++; }
+                case "--seed" -> { seed = Long.parseLong(v); i++; }
+                case "--threads" -> { threads = Integer.parseInt(v); i++; }
+                case "--vthreads" -> threadMode = ThreadMode.VIRTUAL.requireAvailable();
+                case "--passengers" -> { passengers = Integer.parseInt(v); passengersSet = true; i++; }
+                case "--trace" -> { trace = Path.of(v); i++; }
+                case "--profile" -> { profile = v; i++; }
+                case "--rate-scale" -> { rateScale = Double.parseDouble(v); i++; }
+                case "--from" -> { trafficFrom = VirtualTimeEngine.parseTime(v); i++; }
+                case "--to" -> { trafficTo = VirtualTimeEngine.parseTime(v); i++; }
+                case "--floors" -> { floors = parseList(v); i++; }
+                case "--elevators" -> { elevators = parseList(v); i++; }
+                case "--capacity" -> { capacities = parseList(v); i++; }
+                case "--zone-split" -> { zoneSplits = parseList(v); i++; }
+                case "--zone-penalty" -> { zonePenalties = parseList(v); i++; }
+                case "--strategy" -> { strategies = v.split(","); i++; }
+                case "--assign" -> { assignmentModes = parseModes(v); i++; }
+                case "--hall" -> { hallControls = parseHallControls(v); i++; }
+                case "--ingest-capacity" -> { ingestCapacity = Integer.parseInt(v); i++; }
+                case "--ingest-policy" -> { ingestPolicy = IngestPolicy.parse(v); i++; }
+                case "--csv" -> { csv = Path.of(v); i++; }
+                default -> throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+
+        SimulationSettings.Builder baseBuilder = SimulationSettings.builder()
+                .passengerLimit(passengers)
+                .ingestCapacity(ingestCapacity)
+                .ingestPolicy(ingestPolicy)
+                .trace(trace)
+                .profile(profile)
+                .rateScale(rateScale)
+                .trafficWindow(trafficFrom, trafficTo);
+        if ((trace != null || profile != null) && !passengersSet) baseBuilder.passengerLimit(Integer.MAX_VALUE);
+        SimulationSettings base = baseBuilder.build();
+        for (String strategy : strategies) {
+            DispatchStrategy.create(strategy, base); // неизвестное имя — ошибка до запуска прогонов
+        }
+        List<SimulationSettings> scenarios = sweep(base, floors, elevators, capacities, zoneSplits, zonePenalties,
+                strategies, assignmentModes, hallControls, runs, seed);
+        if (List.of(hallControls).contains(HallControl.DESTINATION) && (strategies.length > 1 || assignmentModes.length > 1)) {
+            System.out.println("Note: --hall destination always allocates with " + EtaStrategy.NAME
+                    + "/greedy; its runs are not repeated per --strategy/--assign");
+        }
+
+        if (threadMode == ThreadMode.VIRTUAL) {
+            System.out.printf("Batch: %d runs on virtual threads%n", scenarios.size());
+        } else {
+            System.out.printf("Batch: %d runs on %d threads%n", scenarios.size(), threads);
+        }
+        long start = System.nanoTime();
+        List<RunResult> results = new BatchRunner(threads, threadMode).runAll(scenarios);
+        long wallMs = (System.nanoTime() - start) / 1_000_000L;
+
+        if (csv != null) {
+            try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+                w.println(RunResult.csvHeader());
+                for (RunResult r : results) w.println(r.toCsvRow());
+            }
+        }
+
+        printSummary(results);
+        System.out.printf(Locale.US, "Done in %d ms (%.1f runs/s)%n", wallMs,
+                results.size() * 1000.0 / Math.max(1, wallMs));
+    }
+
+    private static void printSummary(List<RunResult> results) {
+        Map<String, List<RunResult>> byConfig = new LinkedHashMap<>();
+        for (RunResult r : results) {
+            byConfig.computeIfAbsent(r.settings().toString(), k -> new ArrayList<>()).add(r);
+        }
+        for (Map.Entry<String, List<RunResult>> e : byConfig.entrySet()) {
+            List<RunResult> rs = e.getValue();
+            double wait = 0, waitP95 = 0, journey = 0, throughput = 0;
+            int timedOut = 0;
+            long rejected = 0, shed = 0;
+            for (RunResult r : rs) {
+                wait += r.averageWaitMs();
+                waitP95 += r.waitP95Ms();
+                journey += r.averageJourneyMs();
+                throughput += r.throughputPer5Min();
+                if (r.timedOut()) timedOut++;
+                rejected += r.rejected();
+                shed += r.shed();
+            }
+            int n = rs.size();
+            System.out.printf(Locale.US, "[%s] runs=%d avgWait=%.1f ms (p95 %.1f) avgJourney=%.1f ms throughput=%.2f/5min timedOut=%d%s%n",
+                    e.getKey(), n, wait / n, waitP95 / n, journey / n, throughput / n, timedOut,
+                    (rejected > 0 || shed > 0) ? " rejected=" + rejected + " shed=" + shed : "");
+        }
+    }
+
+    private static AssignmentMode[] parseModes(String v) {
+        String[] parts = v.split(",");
+        AssignmentMode[] out = new AssignmentMode[parts.length];
+        for (int i = 0; i < parts.length; i++) out[i] = AssignmentMode.parse(parts[i]);
+        return out;
+    }
+
+    private static HallControl[] parseHallControls(String v) {
+        String[] parts = v.split(",");
+        HallControl[] out = new HallControl[parts.length];
+        for (int i = 0; i < parts.length; i++) out[i] = HallControl.parse(parts[i]);
+        return out;
+    }
+
+    private static int[] parseList(String v) {
+        String[] parts = v.split(",");
+        int[] out = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) out[i] = Integer.parseInt(parts[i].trim());
+        return out;
+    }
+}
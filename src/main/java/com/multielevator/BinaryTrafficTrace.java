@@ -0,0 +1,245 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Двоичная трасса прибытий: 16 байт заголовка и записи по 16 байт (little-endian):
+ * время, мс (8) · этаж вызова (4) · этаж назначения (4), по возрастанию времени.
+ *
+ * Файл читается через {@link FileChannel#map} окнами по {@link Config#TRACE_MAP_WINDOW_BYTES}:
+ * данные не копируются в кучу, и память не зависит от размера трассы. Записи одной длины
+ * и упорядочены, поэтому начало окна времени находится двоичным поиском, без чтения
+ * предыдущих записей.
+ *
+ * Получить из CSV ({@link CsvTrafficTrace}) и проверить скорость чтения:
+ * <pre>
+ * java com.multielevator.BinaryTrafficTrace convert day.csv day.eltr
+ * java com.multielevator.BinaryTrafficTrace scan day.eltr --from 07:30:00 --to 09:30:00
+ * </pre>
+ */
+public final class BinaryTrafficTrace implements TrafficSource {
+
+    static final int MAGIC = 0x52544C45; // "ELTR"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+
+    private final FileChannel channel;
+    private final long recordCount;
+    private final int floors;
+    private final long toMs;
+    private long baseMs;
+    private long index;
+    private long skipped;
+
+    private MappedByteBuffer window;
+    private long windowFirst;
+    private long windowRecords;
+
+    private long recordedMs;
+    private long arrivalMs;
+    private int from;
+    private int to;
+
+    private BinaryTrafficTrace(FileChannel channel, int floors, long fromMs, long toMs) throws IOException {
+        this.channel = channel;
+        this.recordCount = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        this.floors = floors;
+        this.toMs = toMs;
+        this.baseMs = fromMs;
+    }
+
+    /** Записи со временем в [fromMs, toMs); Long.MIN_VALUE / Long.MAX_VALUE — без границы. */
+    public static BinaryTrafficTrace open(Path path, int floors, long fromMs, long toMs) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // дочитываем заголовок
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a traffic trace: " + path);
+            }
+            short version = header.getShort();
+            short recordSize = header.getShort();
+            if (version != VERSION || recordSize != RECORD_SIZE) {
+                throw new IOException("Unsupported trace version " + version + "/" + recordSize + ": " + path);
+            }
+            BinaryTrafficTrace t = new BinaryTrafficTrace(ch, floors, fromMs, toMs);
+            t.index = (fromMs == Long.MIN_VALUE) ? 0 : t.firstAtOrAfter(fromMs);
+            return t;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Число записей в файле (во всей трассе, не в окне). */
+    public long recordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (index < recordCount) {
+            int offset = map(index);
+            long t = window.getLong(offset);
+            int f = window.getInt(offset + 8);
+            int d = window.getInt(offset + 12);
+            index++;
+            if (t >= toMs) {
+                index = recordCount;
+                break;
+            }
+            if (f < 1 || f > floors || d < 1 || d > floors || f == d) {
+                skipped++;
+                continue;
+            }
+            if (baseMs == Long.MIN_VALUE) baseMs = t;
+            recordedMs = t;
+            arrivalMs = Math.max(arrivalMs, t - baseMs);
+            from = f;
+            to = d;
+            return true;
+        }
+        return false;
+    }
+
+    // номер первой записи со временем >= timeMs
+    private long firstAtOrAfter(long timeMs) throws IOException {
+        long lo = 0;
+        long hi = recordCount;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            int offset = map(mid);
+            if (window.getLong(offset) < timeMs) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Отображает окно с записью record; возвращает её смещение в окне. */
+    private int map(long record) throws IOException {
+        if (window == null || record < windowFirst || record >= windowFirst + windowRecords) {
+            long perWindow = Config.TRACE_MAP_WINDOW_BYTES / RECORD_SIZE;
+            windowFirst = record - record % perWindow;
+            windowRecords = Math.min(perWindow, recordCount - windowFirst);
+            window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + windowFirst * RECORD_SIZE, windowRecords * RECORD_SIZE);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return (int) ((record - windowFirst) * RECORD_SIZE);
+    }
+
+    /** Время текущей записи, как оно записано в файле. */
+    public long recordedMs() {
+        return recordedMs;
+    }
+
+    @Override
+    public long arrivalMs() {
+        return arrivalMs;
+    }
+
+    @Override
+    public int fromFloor() {
+        return from;
+    }
+
+    @Override
+    public int toFloor() {
+        return to;
+    }
+
+    @Override
+    public long skipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Переписывает CSV-трассу в двоичную. Строки, которые пропустил бы генератор, не переносятся.
+     * @return число записанных записей
+     */
+    public static long convert(Path csv, Path out) throws IOException {
+        long written = 0;
+        try (CsvTrafficTrace in = new CsvTrafficTrace(csv, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+             FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(0L);
+            long last = Long.MIN_VALUE;
+            while (in.next()) {
+                if (in.recordedMs() < last) {
+                    throw new IOException("Trace is not sorted by time at line " + in.lineNumber() + ": " + csv);
+                }
+                last = in.recordedMs();
+                if (buf.remaining() < RECORD_SIZE) drain(buf, ch);
+                buf.putLong(last).putInt(in.fromFloor()).putInt(in.toFloor());
+                written++;
+            }
+            drain(buf, ch);
+        }
+        return written;
+    }
+
+    private static void drain(ByteBuffer buf, FileChannel ch) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("convert")) {
+            long start = System.nanoTime();
+            long n = convert(Path.of(args[1]), Path.of(args[2]));
+            System.out.printf("%d records written to %s in %d ms%n", n, args[2], (System.nanoTime() - start) / 1_000_000L);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("scan")) {
+            long fromMs = Long.MIN_VALUE;
+            long toMs = Long.MAX_VALUE;
+            int floors = Integer.MAX_VALUE;
+            for (int i = 2; i < args.length; i++) {
+                String v = (i + 1 < args.length) ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--from" -> { fromMs = VirtualTimeEngine.parseTime(v); i++; }
+                    case "--to" -> { toMs = VirtualTimeEngine.parseTime(v); i++; }
+                    case "--floors" -> { floors = Integer.parseInt(v); i++; }
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            long start = System.nanoTime();
+            long n = 0;
+            long span = 0;
+            long skipped;
+            try (TrafficSource t = TrafficSource.openTrace(Path.of(args[1]), floors, fromMs, toMs)) {
+                while (t.next()) {
+                    n++;
+                    span = t.arrivalMs();
+                }
+                skipped = t.skipped();
+            }
+            long wallMs = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+            System.out.printf(Locale.US, "%d arrivals over %s, %d skipped, read in %d ms (%.1f M/s)%n",
+                    n, VirtualTimeEngine.formatTime(span), skipped, wallMs, n / 1000.0 / wallMs);
+            return;
+        }
+        System.err.println("Usage: java com.multielevator.BinaryTrafficTrace convert <in.csv> <out.eltr>");
+        System.err.println("       java com.multielevator.BinaryTrafficTrace scan <trace> [--from t] [--to t] [--floors n]");
+        System.exit(2);
+    }
+}
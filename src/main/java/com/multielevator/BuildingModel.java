@@ -0,0 +1,36 @@
+package com.multielevator;
+
+import java.util.List;
+
+/**
+ * Что рисует {@link SimulationVisualizer}: состояние лифтов и очередей на этажах.
+ * Источник — живая симуляция ({@link LiveBuildingModel}) или воспроизведение
+ * журнала ({@link ReplayState}); визуализатор не знает, какой именно.
+ *
+ * Лифты нумеруются по порядку с 0 (номер шахты), этажи — с 1.
+ */
+public interface BuildingModel {
+
+    int floors();
+
+    int elevatorCount();
+
+    ElevatorSnapshot elevatorSnapshot(int index);
+
+    /** Положение кабины в этажах, с дробной частью во время движения. */
+    double elevatorPosition(int index);
+
+    List<Passenger> passengersInside(int index);
+
+    int waitingCount(int floor, Direction dir);
+
+    /** Первые limit ожидающих на этаже в данном направлении. */
+    List<Passenger> peekWaiting(int floor, Direction dir, int limit);
+
+    int totalWaiting();
+
+    /** Распределение ожидания (для заголовка). */
+    LatencyHistogram waitTime();
+
+    SimulationSettings settings();
+}
@@ -0,0 +1,246 @@
+package com.multielevator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Таблица hall-call диспетчера: вызов (этаж, направление) — это индекс floor*2+dir
+ * в плотных массивах, а не объект-ключ в ConcurrentSkipListSet и хэш-картах.
+ * Для каждого индекса хранится флаг ожидания, id назначенного лифта и отметки
+ * времени; все поля меняются атомарно, поиск на горячем пути — доступ к массиву.
+ * Для каждого лифта — битовое множество назначенных ему вызовов, чтобы обновление
+ * лифта находило свои вызовы без прохода по всем ожидающим.
+ *
+ * Экземпляры HallCall создаются один раз на индекс и переиспользуются.
+ */
+final class CallTable {
+
+    /** Индекс «нет вызова» для {@link #nextPending}. */
+    static final int NONE = -1;
+    /** Отметка времени «не было». */
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private final int size;
+    private final HallCall[] calls;
+
+    // бит на индекс: у вызова есть ожидающие пассажиры
+    private final AtomicLongArray pendingBits;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // id назначенного лифта, 0 — не назначен
+    private final AtomicIntegerArray assignedTo;
+    private final AtomicInteger assignedCount = new AtomicInteger();
+    // [id лифта] — биты назначенных ему индексов; копия при регистрации лифта.
+    // Подсказка для пометки «грязных» вызовов: при гонке назначений бит может
+    // ненадолго отстать от assignedTo, источник истины — assignedTo
+    private volatile AtomicLongArray[] assignedBits = new AtomicLongArray[0];
+
+    private final AtomicLongArray lastNoElevatorLogMs;
+    private final AtomicLongArray lastReassignMs;
+    // первое назначение лифта с момента, как на вызове появились ожидающие
+    private final AtomicLongArray firstAssignedMs;
+
+    CallTable(int floors) {
+        this.size = (floors + 1) * 2;
+        this.calls = new HallCall[size];
+        for (int floor = 0; floor <= floors; floor++) {
+            calls[index(floor, Direction.UP)] = new HallCall(floor, Direction.UP);
+            calls[index(floor, Direction.DOWN)] = new HallCall(floor, Direction.DOWN);
+        }
+        this.pendingBits = new AtomicLongArray((size + 63) >>> 6);
+        this.assignedTo = new AtomicIntegerArray(size);
+        this.lastNoElevatorLogMs = new AtomicLongArray(size);
+        this.lastReassignMs = new AtomicLongArray(size);
+        this.firstAssignedMs = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            lastNoElevatorLogMs.set(i, NO_TIME);
+            lastReassignMs.set(i, NO_TIME);
+            firstAssignedMs.set(i, NO_TIME);
+        }
+    }
+
+    /** Индекс вызова; порядок индексов совпадает с HallCall.compareTo (этаж, затем UP, DOWN). */
+    static int index(int floor, Direction dir) {
+        return floor * 2 + ((dir == Direction.DOWN) ? 1 : 0);
+    }
+
+    static int index(HallCall call) {
+        return index(call.floor(), call.direction());
+    }
+
+    int size() {
+        return size;
+    }
+
+    HallCall call(int idx) {
+        return calls[idx];
+    }
+
+    // --- ожидание ---
+
+    /** @return true, если вызов только что стал ожидающим */
+    boolean markPending(int idx) {
+        int w = idx >>> 6;
+        long bit = 1L << idx;
+        while (true) {
+            long cur = pendingBits.get(w);
+            if ((cur & bit) != 0) return false;
+            if (pendingBits.compareAndSet(w, cur, cur | bit)) {
+                pendingCount.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /** @return true, если вызов был ожидающим */
+    boolean clearPending(int idx) {
+        int w = idx >>> 6;
+        long bit = 1L << idx;
+        while (true) {
+            long cur = pendingBits.get(w);
+            if ((cur & bit) == 0) return false;
+            if (pendingBits.compareAndSet(w, cur, cur & ~bit)) {
+                pendingCount.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    boolean isPending(int idx) {
+        return (pendingBits.get(idx >>> 6) & (1L << idx)) != 0;
+    }
+
+    int pendingCount() {
+        return pendingCount.get();
+    }
+
+    /** Наименьший ожидающий индекс &gt;= fromIdx или {@link #NONE}. */
+    int nextPending(int fromIdx) {
+        if (fromIdx < 0) fromIdx = 0;
+        if (fromIdx >= size) return NONE;
+        int w = fromIdx >>> 6;
+        long word = pendingBits.get(w) & (-1L << fromIdx);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == pendingBits.length()) return NONE;
+            word = pendingBits.get(w);
+        }
+    }
+
+    // --- назначение ---
+
+    /** @return id лифта, которому вызов назначен, 0 — никому */
+    int assignedId(int idx) {
+        return assignedTo.get(idx);
+    }
+
+    /** Назначает вызов лифту elevatorId. @return прежний id (0 — не был назначен) */
+    int assign(int idx, int elevatorId) {
+        int prev = assignedTo.getAndSet(idx, elevatorId);
+        if (prev == 0) assignedCount.incrementAndGet();
+        setAssignedBit(elevatorId, idx, true);
+        if (prev != elevatorId) setAssignedBit(prev, idx, false);
+        return prev;
+    }
+
+    /** Снимает назначение. @return прежний id (0 — не был назначен) */
+    int unassign(int idx) {
+        int prev = assignedTo.getAndSet(idx, 0);
+        if (prev != 0) assignedCount.decrementAndGet();
+        setAssignedBit(prev, idx, false);
+        return prev;
+    }
+
+    /** Заводит множество назначенных вызовов лифта; вызывается при регистрации лифта. */
+    synchronized void registerElevator(int elevatorId) {
+        AtomicLongArray[] bits = assignedBits;
+        if (elevatorId < bits.length && bits[elevatorId] != null) return;
+        bits = Arrays.copyOf(bits, Math.max(bits.length, elevatorId + 1));
+        bits[elevatorId] = new AtomicLongArray(pendingBits.length());
+        assignedBits = bits;
+    }
+
+    /**
+     * Наименьший индекс &gt;= fromIdx, назначенный лифту elevatorId, или {@link #NONE}.
+     * Бит, отставший от assignedTo (гонка двух назначений), снимается по дороге.
+     */
+    int nextAssigned(int elevatorId, int fromIdx) {
+        AtomicLongArray bits = assignedBitsOf(elevatorId);
+        if (bits == null) return NONE;
+        if (fromIdx < 0) fromIdx = 0;
+        if (fromIdx >= size) return NONE;
+        int w = fromIdx >>> 6;
+        long word = bits.get(w) & (-1L << fromIdx);
+        while (true) {
+            while (word != 0) {
+                int idx = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (assignedTo.get(idx) == elevatorId) return idx;
+                // снимаем и перепроверяем: параллельное назначение этому лифту поставит бит заново
+                setAssignedBit(elevatorId, idx, false);
+                if (assignedTo.get(idx) == elevatorId) {
+                    setAssignedBit(elevatorId, idx, true);
+                    return idx;
+                }
+                word &= word - 1;
+            }
+            if (++w == bits.length()) return NONE;
+            word = bits.get(w);
+        }
+    }
+
+    private AtomicLongArray assignedBitsOf(int elevatorId) {
+        AtomicLongArray[] bits = assignedBits;
+        return (elevatorId > 0 && elevatorId < bits.length) ? bits[elevatorId] : null;
+    }
+
+    private void setAssignedBit(int elevatorId, int idx, boolean value) {
+        AtomicLongArray bits = assignedBitsOf(elevatorId);
+        if (bits == null) return;
+        int w = idx >>> 6;
+        long bit = 1L << idx;
+        while (true) {
+            long cur = bits.get(w);
+            long next = value ? (cur | bit) : (cur & ~bit);
+            if (cur == next || bits.compareAndSet(w, cur, next)) return;
+        }
+    }
+
+    /** Сколько вызовов сейчас назначено каким-либо лифтам. */
+    int assignedCount() {
+        return assignedCount.get();
+    }
+
+    // --- отметки времени ---
+
+    long lastNoElevatorLogMs(int idx) {
+        return lastNoElevatorLogMs.get(idx);
+    }
+
+    void setLastNoElevatorLogMs(int idx, long ms) {
+        lastNoElevatorLogMs.set(idx, ms);
+    }
+
+    long lastReassignMs(int idx) {
+        return lastReassignMs.get(idx);
+    }
+
+    void setLastReassignMs(int idx, long ms) {
+        lastReassignMs.set(idx, ms);
+    }
+
+    /** Момент первого назначения вызова или {@link #NO_TIME}. */
+    long firstAssignedMs(int idx) {
+        return firstAssignedMs.get(idx);
+    }
+
+    /** Запоминает момент назначения, если вызов ещё не назначался. */
+    void markFirstAssigned(int idx, long ms) {
+        firstAssignedMs.compareAndSet(idx, NO_TIME, ms);
+    }
+
+    void clearFirstAssigned(int idx) {
+        firstAssignedMs.set(idx, NO_TIME);
+    }
+}
@@ -3,13 +3,84 @@ package com.multielevator;
 /**
  * Идея: выбрать лифт с минимальной стоимостью принятия вызова, учитывая
  * расстояние, направление, загрузку и текущую длину маршрута.
+ *
+ * Стратегия по умолчанию ({@value #NAME}).
  */
-public final class CollectiveControlStrategy {
+public final class CollectiveControlStrategy implements DispatchStrategy {
 
+    public static final String NAME = "collective";
+
+    // за каждый вызов, уже назначенный лифту
+    private static final int ASSIGNED_CALL_COST = 6;
+    // лифт уже едет к вызову в нужную сторону
+    private static final int ON_THE_WAY_BONUS = 3;
+    // назначение «на разворот» хуже любого обычного
+    private static final int RESERVED_COST = 25;
+    // резерв свободного лифта: цена этажа пути; хуже обычного, но лучше бесконечного ожидания
+    private static final int RESERVE_FLOOR_COST = 6;
+
+    private final SimulationSettings settings;
+
+    public CollectiveControlStrategy() {
+        this(SimulationSettings.defaults());
+    }
+
+    public CollectiveControlStrategy(SimulationSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int cost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        int cost = calculateCost(s, call) + assignedCalls * ASSIGNED_CALL_COST;
+        if (isOnTheWay(s, call)) cost -= ON_THE_WAY_BONUS;
+        return cost;
+    }
+
+    /** Меньше назначенных вызовов, затем меньше остановок, затем меньше загрузка. */
+    @Override
+    public boolean preferOnTie(ElevatorSnapshot candidate, int candidateAssigned, ElevatorSnapshot best, int bestAssigned) {
+        if (candidateAssigned != bestAssigned) return candidateAssigned < bestAssigned;
+        if (candidate.plannedStops() != best.plannedStops()) return candidate.plannedStops() < best.plannedStops();
+        return candidate.load() < best.load();
+    }
+
+    @Override
+    public int reservedCost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        return calculateCost(s, call) + RESERVED_COST + assignedCalls * ASSIGNED_CALL_COST;
+    }
+
+    @Override
+    public int reserveCost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        int distance = Math.abs(s.currentFloor() - call.floor());
+        return distance * RESERVE_FLOOR_COST + assignedCalls * ASSIGNED_CALL_COST;
+    }
+
+    /** Лифт в соседнем этаже или ближе уже почти на месте. */
+    @Override
+    public boolean keepAssignment(ElevatorSnapshot assigned, HallCall call) {
+        return Math.abs(assigned.currentFloor() - call.floor()) <= 1;
+    }
+
+    /** Только на свободный или попутный лифт и только при выигрыше от {@link Config#CALL_REASSIGN_MIN_IMPROVEMENT}. */
+    @Override
+    public boolean shouldReassign(ElevatorSnapshot assigned, int assignedCalls,
+                                  ElevatorSnapshot candidate, int candidateCalls, HallCall call) {
+        boolean candidateOk = (candidate.direction() == Direction.IDLE) || isOnTheWay(candidate, call);
+        if (!candidateOk) return false;
+        return cost(assigned, call, assignedCalls) - cost(candidate, call, candidateCalls)
+                >= Config.CALL_REASSIGN_MIN_IMPROVEMENT;
+    }
+
+    /** Базовая стоимость без учёта назначенных лифту вызовов. */
     public int calculateCost(ElevatorSnapshot s, HallCall call) {
         final int targetFloor = call.floor();
         final Direction reqDir = call.direction();
-        final int zonePenalty = Config.zonePenalty(s.id(), targetFloor);
+        final int zonePenalty = settings.zonePenalty(s.id(), targetFloor);
         int etaDistance;
 
         double directionPenalty;
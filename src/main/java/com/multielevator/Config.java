@@ -5,11 +5,27 @@ public class Config {
     public static final int RESERVE_REVERSE_SOON_FLOORS = 3;
     // Настройки диспетчеризации
     public static final int DISPATCHER_EVENT_BATCH = 64;
+    // Ёмкость кольцевого буфера запросов пассажиров на входе диспетчера
+    public static final int DISPATCHER_INBOX_CAPACITY = 4096;
     public static final long NO_ELEVATOR_LOG_COOLDOWN_MS = 1500;
+    // После событий пересматриваются только затронутые вызовы; полный проход по всем — не реже этого
+    public static final long DISPATCHER_FULL_SWEEP_MS = 1000;
+    // Сколько этажей по ходу лифта пересматривать при его обновлении (кандидаты на переназначение)
+    public static final int DISPATCHER_NEAR_FLOORS = 5;
 
     // Если hall-call уже назначен одному лифту, но другой лифт становится заметно лучше
     public static final int CALL_REASSIGN_MIN_IMPROVEMENT = 12;
     public static final long CALL_REASSIGN_COOLDOWN_MS = 1500;
+    // То же для стратегии eta, где стоимость — время прибытия: насколько раньше должен приехать другой лифт
+    public static final long CALL_REASSIGN_MIN_GAIN_MS = 8_000;
+    // Стратегия выбора лифта по умолчанию (см. DispatchStrategy.NAMES)
+    public static final String DISPATCH_STRATEGY = CollectiveControlStrategy.NAME;
+    // Раздача вызовов по умолчанию: по одному (GREEDY) или всем проходом сразу (BATCH)
+    public static final AssignmentMode ASSIGNMENT_MODE = AssignmentMode.GREEDY;
+    // BATCH: сколько новых вызовов за проход может получить один лифт
+    public static final int BATCH_MAX_CALLS_PER_ELEVATOR = 4;
+    // Что на этажах: кнопки направления (UP_DOWN) или панели назначения (DESTINATION)
+    public static final HallControl HALL_CONTROL = HallControl.UP_DOWN;
     // Параметры здания
     public static final int FLOORS = 15;
     public static final int ELEVATORS_COUNT = 3;
@@ -66,4 +82,25 @@ public class Config {
     public static final int REQUEST_INTERVAL_MIN = 500;
     public static final int REQUEST_INTERVAL_MAX = 1200;
     public static final long DRAIN_TIMEOUT_MS = 180_000; // 3 минуты
+    /** Ёмкость кольцевого буфера AsyncLog (записей); при переполнении записи теряются. */
+    public static final int LOG_RING_CAPACITY = 16_384;
+    /** Сколько спит поток записи лога, когда буфер пуст. */
+    public static final long LOG_FLUSH_INTERVAL_MS = 20;
+    /** Размер буфера EventJournal: записи уходят в файл пачками такого объёма. */
+    public static final int JOURNAL_BUFFER_BYTES = 256 * 1024;
+    /** Окно отображения двоичной трассы прибытий в память, байт. */
+    public static final int TRACE_MAP_WINDOW_BYTES = 64 << 20;
+    /** Шаг разреженного индекса журнала: опорная точка для перемотки на столько записей. */
+    public static final int REPLAY_KEYFRAME_RECORDS = 65_536;
+    /** Период кадра воспроизведения журнала, мс реального времени. */
+    public static final long REPLAY_FRAME_MS = 20;
+    /** Кадр прогона в виртуальном времени в реальном темпе (--deterministic с GUI), мс. */
+    public static final long PACED_FRAME_MS = 20;
+    /** Как часто (мс реального времени) печатать перцентили ожидания и поездки. */
+    public static final long STATS_REPORT_INTERVAL_MS = 10_000;
+    /** Сколько пассажиров может ждать посадки одновременно; дальше действует INGEST_POLICY. */
+    public static final int INGEST_CAPACITY = 100_000;
+    public static final IngestPolicy INGEST_POLICY = IngestPolicy.BLOCK;
+    /** Режим событий, BLOCK: через сколько мс виртуального времени повторить запрос. */
+    public static final long INGEST_RETRY_MS = 250;
 }
@@ -0,0 +1,122 @@
+package com.multielevator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Трасса прибытий в CSV: строка {@code время,этаж_вызова,этаж_назначения[,...]}.
+ * Время — миллисекунды числом или «чч:мм:сс[.SSS]» (например, время суток из журнала
+ * турникетов); лишние колонки, строка-заголовок, пустые строки и строки с {@code #}
+ * пропускаются. Файл читается построчно, память не зависит от его размера.
+ *
+ * Строки должны идти по времени: чтение останавливается на первой строке не раньше
+ * конца окна, а строка «из прошлого» приходит сразу после предыдущей.
+ */
+public final class CsvTrafficTrace implements TrafficSource {
+
+    private static final int READ_BUFFER_CHARS = 1 << 16;
+
+    private final BufferedReader in;
+    private final int floors;
+    private final long fromMs;
+    private final long toMs;
+    private long baseMs;
+    private long lineNumber;
+    private long skipped;
+    private boolean done;
+
+    private long recordedMs;
+    private long arrivalMs;
+    private int from;
+    private int to;
+
+    /** Записи со временем в [fromMs, toMs); Long.MIN_VALUE / Long.MAX_VALUE — без границы. */
+    public CsvTrafficTrace(Path path, int floors, long fromMs, long toMs) throws IOException {
+        this.in = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+        this.floors = floors;
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+        this.baseMs = fromMs;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (done) return false;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.charAt(0) == '#') continue;
+            if (!parse(line)) {
+                if (lineNumber > 1) skipped++; // первая строка — обычно заголовок
+                continue;
+            }
+            if (recordedMs < fromMs) continue;
+            if (recordedMs >= toMs) break;
+            if (from < 1 || from > floors || to < 1 || to > floors || from == to) {
+                skipped++;
+                continue;
+            }
+            if (baseMs == Long.MIN_VALUE) baseMs = recordedMs;
+            arrivalMs = Math.max(arrivalMs, recordedMs - baseMs);
+            return true;
+        }
+        done = true;
+        return false;
+    }
+
+    private boolean parse(String line) {
+        int c1 = line.indexOf(',');
+        int c2 = (c1 < 0) ? -1 : line.indexOf(',', c1 + 1);
+        if (c2 < 0) return false;
+        int c3 = line.indexOf(',', c2 + 1);
+        try {
+            String time = line.substring(0, c1).trim();
+            recordedMs = (time.indexOf(':') >= 0) ? VirtualTimeEngine.parseTime(time) : Long.parseLong(time);
+            from = Integer.parseInt(line.substring(c1 + 1, c2).trim());
+            to = Integer.parseInt(line.substring(c2 + 1, (c3 < 0) ? line.length() : c3).trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Время текущей записи, как оно записано в файле. */
+    public long recordedMs() {
+        return recordedMs;
+    }
+
+    /** Номер строки текущей записи (с 1). */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public long arrivalMs() {
+        return arrivalMs;
+    }
+
+    @Override
+    public int fromFloor() {
+        return from;
+    }
+
+    @Override
+    public int toFloor() {
+        return to;
+    }
+
+    @Override
+    public long skipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.multielevator;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Закрепления пассажиров за лифтами при {@link HallControl#DESTINATION}: сколько
+ * закреплённых за лифтом пассажиров ждёт на каждом вызове (индекс {@link CallTable#index})
+ * и сколько из них едет на каждый этаж.
+ *
+ * Счётчики читаются без блокировок (лифты спрашивают о своих пассажирах из своих потоков),
+ * а меняются только вместе с {@code Passenger.allocatedCar} под монитором этой таблицы.
+ */
+final class DestinationTable {
+
+    /** Пассажир ещё не закреплён за лифтом. */
+    static final int UNALLOCATED = 0;
+    /** Пассажир сел или выброшен из очереди: закреплять больше нельзя. */
+    static final int GONE = -1;
+
+    private final int callSlots;
+    private final int floorSlots;
+    private final int cars;
+    // [car * callSlots + idx] — закреплённые за лифтом и ещё ждущие на вызове idx
+    private final AtomicIntegerArray waiting;
+    // [car * floorSlots + floor] — куда едут закреплённые за лифтом ждущие
+    private final AtomicIntegerArray destinations;
+    // [car] — всего закреплённых ждущих
+    private final AtomicIntegerArray allocated;
+
+    DestinationTable(int floors, int maxElevatorId) {
+        this.callSlots = CallTable.index(floors, Direction.DOWN) + 1;
+        this.floorSlots = floors + 1;
+        this.cars = maxElevatorId + 1;
+        this.waiting = new AtomicIntegerArray(cars * callSlots);
+        this.destinations = new AtomicIntegerArray(cars * floorSlots);
+        this.allocated = new AtomicIntegerArray(cars);
+    }
+
+    boolean covers(int car) {
+        return car > 0 && car < cars;
+    }
+
+    int waiting(int car, int idx) {
+        return covers(car) ? waiting.get(car * callSlots + idx) : 0;
+    }
+
+    boolean hasDestination(int car, int floor) {
+        return covers(car) && destinations.get(car * floorSlots + floor) > 0;
+    }
+
+    int allocated(int car) {
+        return covers(car) ? allocated.get(car) : 0;
+    }
+
+    /** Закрепляет ждущего пассажира; false — он уже закреплён, сел или выброшен. */
+    synchronized boolean allocate(Passenger p, int car, int idx) {
+        if (p.allocatedCar() != UNALLOCATED) return false;
+        p.setAllocatedCar(car);
+        add(car, idx, p.getTargetFloor(), 1);
+        return true;
+    }
+
+    /** Снимает закрепление за car, если оно ещё есть: пассажир снова ждёт лифта. */
+    synchronized boolean release(Passenger p, int car, int idx) {
+        if (p.allocatedCar() != car) return false;
+        p.setAllocatedCar(UNALLOCATED);
+        add(car, idx, p.getTargetFloor(), -1);
+        return true;
+    }
+
+    /**
+     * Пассажир ушёл из очереди (сел или выброшен). Вызывать тому, кто его оттуда забрал.
+     * Возвращает лифт, за которым он был закреплён, или {@link #UNALLOCATED}.
+     */
+    synchronized int forget(Passenger p, int idx) {
+        int car = p.allocatedCar();
+        p.setAllocatedCar(GONE);
+        if (car > 0) add(car, idx, p.getTargetFloor(), -1);
+        return Math.max(car, UNALLOCATED);
+    }
+
+    private void add(int car, int idx, int floor, int delta) {
+        waiting.addAndGet(car * callSlots + idx, delta);
+        destinations.addAndGet(car * floorSlots + floor, delta);
+        allocated.addAndGet(car, delta);
+    }
+}
@@ -0,0 +1,73 @@
+package com.multielevator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+/**
+ * Алгоритм выбора лифта для вызова: стоимость назначения, разбор ничьих и решение
+ * о переназначении. Механика — какие лифты вообще могут взять вызов
+ * ({@link Elevator#canAcceptHallCallReason}), очерёдность проходов (обычный,
+ * с резервом на разворот, резерв свободного лифта), паузы между переназначениями —
+ * остаётся в {@link Dispatcher}, стратегия только сравнивает кандидатов.
+ *
+ * Все методы вызываются из потока, разбирающего события диспетчера; на вход — снимки
+ * лифтов и число уже назначенных им вызовов. Стоимость — чем меньше, тем лучше.
+ *
+ * Стратегия выбирается на прогон ({@link SimulationSettings#dispatchStrategy()}) по имени
+ * ({@link #create}): встроенные {@link #NAMES} или полное имя класса с конструктором
+ * от {@link SimulationSettings}.
+ */
+public interface DispatchStrategy {
+
+    /** Встроенные стратегии; первая — по умолчанию. */
+    List<String> NAMES = List.of(CollectiveControlStrategy.NAME, EtaStrategy.NAME, NearestCarStrategy.NAME);
+
+    String name();
+
+    /** Стоимость назначения лифту, который может принять вызов сейчас. */
+    int cost(ElevatorSnapshot s, HallCall call, int assignedCalls);
+
+    /** При равной {@link #cost}: true, если candidate лучше текущего best. */
+    boolean preferOnTie(ElevatorSnapshot candidate, int candidateAssigned, ElevatorSnapshot best, int bestAssigned);
+
+    /**
+     * Стоимость назначения «на разворот»: лифт едет в другую сторону, но пуст и вот-вот
+     * развернётся ({@link HallCallRejectReason#ACCEPTED_RESERVED}). Используется, только
+     * если ни один лифт не может принять вызов сразу.
+     */
+    int reservedCost(ElevatorSnapshot s, HallCall call, int assignedCalls);
+
+    /** Стоимость отправки пустого лифта без остановок, когда остальные проходы никого не нашли. */
+    int reserveCost(ElevatorSnapshot s, HallCall call, int assignedCalls);
+
+    /** Быстрая проверка до поиска замены: true — назначение не пересматривать. */
+    boolean keepAssignment(ElevatorSnapshot assigned, HallCall call);
+
+    /** Снять вызов с assigned и отдать candidate (лучшему по {@link #cost}). */
+    boolean shouldReassign(ElevatorSnapshot assigned, int assignedCalls,
+                           ElevatorSnapshot candidate, int candidateCalls, HallCall call);
+
+    /** Стратегия по имени: встроенная или класс с конструктором (SimulationSettings). */
+    static DispatchStrategy create(String name, SimulationSettings settings) {
+        String key = name.trim();
+        switch (key.toLowerCase()) {
+            case CollectiveControlStrategy.NAME -> { return new CollectiveControlStrategy(settings); }
+            case EtaStrategy.NAME -> { return new EtaStrategy(settings); }
+            case NearestCarStrategy.NAME -> { return new NearestCarStrategy(settings); }
+            default -> { }
+        }
+        try {
+            Class<?> type = Class.forName(key);
+            if (!DispatchStrategy.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException(key + " is not a DispatchStrategy");
+            }
+            return (DispatchStrategy) type.getConstructor(SimulationSettings.class).newInstance(settings);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown dispatch strategy: " + name + " (built-in: " + NAMES + ")");
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot create dispatch strategy " + key + ": " + e, e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot create dispatch strategy " + key + ": " + e.getCause(), e.getCause());
+        }
+    }
+}
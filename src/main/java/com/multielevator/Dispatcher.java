@@ -1,44 +1,37 @@
 package com.multielevator;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
 
 /**
  * Диспетчер: принимает запросы пассажиров, хранит очереди ожидания и распределяет
- * вызовы (этаж + направление) между лифтами.
+ * вызовы (этаж + направление) между лифтами. Какой лифт лучше для вызова, решает
+ * {@link DispatchStrategy} прогона; диспетчер отвечает за то, кто может взять вызов и когда.
+ * Вызовы раздаются по одному или всем проходом сразу ({@link AssignmentMode}).
+ * С панелями назначения ({@link HallControl#DESTINATION}) за лифтом закрепляется
+ * не вызов, а каждый пассажир ({@link #allocate}).
  *
  * Реализован как отдельный поток (Runnable).
  */
 public class Dispatcher implements Runnable {
 
+    private final SimulationSettings settings;
     private final int totalFloors;
     private final List<Elevator> elevators = new ArrayList<>();
-    private final BlockingQueue<Passenger> incoming = new LinkedBlockingQueue<>();
-    private final BlockingQueue<DispatcherEvent> events = new LinkedBlockingQueue<>();
-
-    private static final class DispatcherEvent {
-        enum Type { PASSENGER_REQUEST, ELEVATOR_UPDATE, SHUTDOWN }
-        final Type type;
-        final Passenger passenger;
-        final Elevator elevator;
-
-        DispatcherEvent(Type type, Passenger passenger, Elevator elevator) {
-            this.type = type;
-            this.passenger = passenger;
-            this.elevator = elevator;
-        }
-    }
+    // запросы пассажиров и флаги обновлений лифтов; разбирает только поток диспетчера / pump
+    private final DispatcherInbox inbox = new DispatcherInbox(Config.DISPATCHER_INBOX_CAPACITY);
+    // принятые, но ещё не севшие пассажиры (в inbox и на этажах); не больше settings.ingestCapacity()
+    private final AtomicInteger queuedPassengers = new AtomicInteger();
 
     @SuppressWarnings("unchecked")
     private final ConcurrentLinkedQueue<Passenger>[] waitingUp;
@@ -46,17 +39,68 @@ public class Dispatcher implements Runnable {
     private final ConcurrentLinkedQueue<Passenger>[] waitingDown;
     private final AtomicIntegerArray waitingUpCount;
     private final AtomicIntegerArray waitingDownCount;
-    private final Set<HallCall> pendingCalls = new ConcurrentSkipListSet<>();
-    private final ConcurrentHashMap<HallCall, Elevator> assignedElevator = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<HallCall, Long> lastNoElevatorLogMs = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<HallCall, Long> lastReassignMs = new ConcurrentHashMap<>();
+    // ожидание, назначение и отметки времени по индексу floor*2+dir
+    private final CallTable calls;
+    // Сколько вызовов сейчас назначено каждому лифту; меняется только вместе с назначением
+    // в calls (через assignCall/unassignCall), чтобы не пересчитывать по всей таблице.
+    private final ConcurrentHashMap<Elevator, AtomicInteger> assignedCounts = new ConcurrentHashMap<>();
+    // лифт по id (для назначений в calls); пересоздаётся при регистрации
+    private volatile Elevator[] elevatorsById = new Elevator[0];
     private static final long NO_ELEVATOR_LOG_COOLDOWN_MS = Config.NO_ELEVATOR_LOG_COOLDOWN_MS;
-    private final CollectiveControlStrategy strategy = new CollectiveControlStrategy();
+    private static final Direction[] WAIT_DIRECTIONS = { Direction.UP, Direction.DOWN };
+    // BATCH: стоимость «отложить вызов» больше любой стоимости стратегии, «невозможно» — больше суммы отложенных
+    private static final long BATCH_DEFERRED = 1L << 40;
+    private static final long BATCH_INFEASIBLE = 1L << 50;
+    // DESTINATION: новая остановка — двери открываются и закрываются; в мс, как стоимость EtaStrategy
+    private static final long DESTINATION_STOP_MS = 2L * Config.TIME_DOORS;
+    private final DispatchStrategy strategy;
+    private final PassengerStats stats = new PassengerStats();
+
+    // Инкрементальная диспетчеризация; трогает только поток, разбирающий события.
+    // Множества индексов вызовов (см. CallTable.index):
+    // dirtyCalls — вызовы, затронутые событиями с прошлого прохода;
+    // starvedCalls — вызовы, для которых на прошлой оценке не нашлось лифта.
+    private final FloorSet dirtyCalls;
+    private final FloorSet starvedCalls;
+    private long lastFullSweepMs = Long.MIN_VALUE;
+
+    // BATCH: вызовы прохода, ждущие лифта, и буферы задачи о назначениях (растут по мере надобности)
+    private final AssignmentMode assignmentMode;
+    private final MinCostMatching matching = new MinCostMatching();
+    private int[] batchCalls = new int[16];
+    private int batchSize;
+    private long[] batchCost = new long[0];
+    private Elevator[] slotElevator = new Elevator[0];
+    private ElevatorSnapshot[] batchSnapshots = new ElevatorSnapshot[0];
+    private int[] batchSlots = new int[0];
+
+    // HallControl.DESTINATION: закрепления пассажиров за лифтами; null при кнопках направления
+    private final DestinationTable destinations;
+    private byte[] committedCheck = new byte[0];
 
     private volatile boolean running = true;
 
+    // Режим событий: вместо собственного потока диспетчер обрабатывает очередь по расписанию.
+    private volatile EventScheduler scheduler;
+    // время без планировщика: потоковый режим и --tick (там — часы ShardedScheduler)
+    private volatile LongSupplier clock = SimulationClock::now;
+    private final AtomicBoolean pumpScheduled = new AtomicBoolean();
+    private final Runnable pumpTask = this::pump;
+
+    // журнал событий для разбора прогона; по умолчанию выключен
+    private volatile EventJournal journal = EventJournal.DISABLED;
+
     public Dispatcher(int totalFloors) {
-        this.totalFloors = totalFloors;
+        this(SimulationSettings.builder().floors(totalFloors).build());
+    }
+
+    public Dispatcher(SimulationSettings settings) {
+        this.settings = settings;
+        this.totalFloors = settings.floors();
+        this.strategy = DispatchStrategy.create(settings.dispatchStrategy(), settings);
+        this.assignmentMode = settings.assignmentMode();
+        this.destinations = (settings.hallControl() == HallControl.DESTINATION)
+                ? new DestinationTable(totalFloors, settings.elevatorsCount()) : null;
 
         this.waitingUp = (ConcurrentLinkedQueue<Passenger>[]) new ConcurrentLinkedQueue[totalFloors + 1];
         this.waitingDown = (ConcurrentLinkedQueue<Passenger>[]) new ConcurrentLinkedQueue[totalFloors + 1];
@@ -66,10 +110,43 @@ public class Dispatcher implements Runnable {
         }
         this.waitingUpCount = new AtomicIntegerArray(totalFloors + 1);
         this.waitingDownCount = new AtomicIntegerArray(totalFloors + 1);
+
+        this.calls = new CallTable(totalFloors);
+        this.dirtyCalls = new FloorSet(calls.size() - 1);
+        this.starvedCalls = new FloorSet(calls.size() - 1);
     }
     public int getTotalFloors() {
         return totalFloors;
     }
+
+    public SimulationSettings getSettings() {
+        return settings;
+    }
+
+    public PassengerStats getStats() {
+        return stats;
+    }
+
+    public DispatchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /** Писать события прогона в журнал. Вызывать до запуска лифтов и генератора. */
+    public void attachJournal(EventJournal journal) {
+        this.journal = (journal != null) ? journal : EventJournal.DISABLED;
+    }
+
+    EventJournal journal() {
+        return journal;
+    }
+
+    /** Событие в журнал с текущим временем диспетчера; без журнала время не берётся. */
+    private void journal(JournalEventType type, int elevatorId, int passengerId, int floor, Direction dir,
+                         int value, int value2, int extra) {
+        EventJournal j = journal;
+        if (!j.isEnabled()) return;
+        j.append(type, nowMs(), elevatorId, passengerId, floor, dir, value, value2, extra);
+    }
     public List<Passenger> peekWaitingPassengers(int floor, Direction dir, int limit) {
         if (limit <= 0) return List.of();
         if (floor < 1 || floor > totalFloors) return List.of();
@@ -90,15 +167,123 @@ public class Dispatcher implements Runnable {
 
     public void registerElevator(Elevator e) {
         elevators.add(Objects.requireNonNull(e));
+        assignedCounts.putIfAbsent(e, new AtomicInteger());
+        calls.registerElevator(e.getId());
+        inbox.registerElevator(e.getId());
+        synchronized (this) {
+            Elevator[] byId = elevatorsById;
+            if (e.getId() >= byId.length) byId = Arrays.copyOf(byId, e.getId() + 1);
+            else byId = byId.clone();
+            byId[e.getId()] = e;
+            elevatorsById = byId;
+        }
     }
     public void notifyElevatorUpdate(Elevator e) {
         if (e == null) return;
-        events.offer(new DispatcherEvent(DispatcherEvent.Type.ELEVATOR_UPDATE, null, e));
+        // повторные обновления того же лифта до разбора сливаются в одно
+        if (inbox.markElevatorDirty(e.getId())) requestPump();
     }
-    public void submitRequest(Passenger p) {
+    /**
+     * Принимает запрос пассажира. Если ожидающих уже {@link SimulationSettings#ingestCapacity()},
+     * действует {@link SimulationSettings#ingestPolicy()}: ждать, отклонить или выбросить
+     * самого давно ожидающего. В режиме событий BLOCK не может ждать на месте и возвращает
+     * {@link RequestRejectReason#DEFERRED} — генератор повторяет тот же запрос позже.
+     */
+    public RequestRejectReason submitRequest(Passenger p) {
+        RequestRejectReason admission = admit();
+        if (admission == RequestRejectReason.DEFERRED) {
+            return admission;
+        }
+        if (admission != RequestRejectReason.ACCEPTED) {
+            stats.onRejected(p);
+            journal(JournalEventType.REJECT, 0, p.getId(), p.getStartFloor(), p.getDirection(),
+                    p.getTargetFloor(), 0, admission.ordinal());
+            log(LogLevel.WARN, "REJECT", p + " - " + admission);
+            return admission;
+        }
+
+        p.markRequested(nowMs());
+        stats.onRequested(p);
+        journal.append(JournalEventType.REQUEST, p.getRequestedAtMs(), 0, p.getId(), p.getStartFloor(), p.getDirection(),
+                p.getTargetFloor(), 0, 0);
         log("REQUEST", p + " waiting at floor " + p.getStartFloor() + " dir=" + p.getDirection());
-        events.offer(new DispatcherEvent(DispatcherEvent.Type.PASSENGER_REQUEST, p, null));
-        incoming.offer(p);
+        while (!inbox.offerRequest(p)) {
+            // буфер полон: в режиме событий разбираем его сами (мы и есть поток диспетчера),
+            // иначе ждём, пока разберёт поток диспетчера
+            if (scheduler != null) {
+                pump();
+            } else {
+                LockSupport.parkNanos(100_000L);
+            }
+        }
+        requestPump();
+        return RequestRejectReason.ACCEPTED;
+    }
+
+    /** Резервирует место под нового ожидающего пассажира согласно политике приёма. */
+    private RequestRejectReason admit() {
+        int capacity = settings.ingestCapacity();
+        while (true) {
+            if (!running) return RequestRejectReason.SHUT_DOWN;
+            int queued = queuedPassengers.get();
+            if (queued < capacity) {
+                if (queuedPassengers.compareAndSet(queued, queued + 1)) return RequestRejectReason.ACCEPTED;
+                continue;
+            }
+            switch (settings.ingestPolicy()) {
+                case REJECT -> {
+                    return RequestRejectReason.QUEUE_FULL;
+                }
+                case SHED_OLDEST -> {
+                    if (!shedOldest()) Thread.onSpinWait();
+                }
+                case BLOCK -> {
+                    // в режиме событий ждать на месте нельзя: мы и есть поток, который разгружает очередь
+                    if (scheduler != null) return RequestRejectReason.DEFERRED;
+                    LockSupport.parkNanos(1_000_000L);
+                }
+            }
+        }
+    }
+
+    /**
+     * Выбрасывает самого давно ожидающего пассажира. На этажах очереди FIFO и все
+     * они старше ещё не разобранных запросов в inbox, поэтому достаточно сравнить
+     * головы очередей этажей, а если там пусто — взять голову inbox.
+     */
+    private boolean shedOldest() {
+        Passenger oldest = null;
+        int oldestFloor = 0;
+        Direction oldestDir = null;
+        for (int f = 1; f <= totalFloors; f++) {
+            for (Direction dir : WAIT_DIRECTIONS) {
+                Passenger head = queueFor(f, dir).peek();
+                if (head != null && (oldest == null || head.getRequestedAtMs() < oldest.getRequestedAtMs())) {
+                    oldest = head;
+                    oldestFloor = f;
+                    oldestDir = dir;
+                }
+            }
+        }
+
+        if (oldest != null) {
+            // пассажир мог уже сесть, пока мы искали
+            if (!queueFor(oldestFloor, oldestDir).remove(oldest)) return false;
+            if (destinations != null) forgetAllocation(oldest, oldestFloor, oldestDir);
+            countFor(oldestDir).decrementAndGet(oldestFloor);
+            if (getWaitingCount(oldestFloor, oldestDir) == 0) releaseCall(oldestFloor, oldestDir);
+        } else {
+            oldest = inbox.pollRequest();
+            if (oldest == null) return false;
+        }
+
+        queuedPassengers.decrementAndGet();
+        stats.onShed(oldest);
+        long now = nowMs();
+        journal.append(JournalEventType.SHED, now, 0, oldest.getId(), oldest.getStartFloor(), oldest.getDirection(),
+                (int) (now - oldest.getRequestedAtMs()), 0, 0);
+        log(LogLevel.WARN, "SHED", oldest + " dropped: waiting queue full");
+        return true;
     }
     public List<Passenger> boardPassengers(int floor, Direction dir, int spaceAvailable) {
         if (spaceAvailable <= 0) return List.of();
@@ -107,26 +292,91 @@ public class Dispatcher implements Runnable {
         ConcurrentLinkedQueue<Passenger> q = queueFor(floor, dir);
         AtomicIntegerArray c = countFor(dir);
 
+        // пассажир, пришедший на уже назначенный вызов, «назначен» в момент своего вызова;
+        // вызов, который лифт забрал без назначения, считается назначенным при посадке
+        long callAssignedAt = calls.firstAssignedMs(CallTable.index(floor, dir));
+
         List<Passenger> result = new ArrayList<>();
         while (spaceAvailable > 0) {
             Passenger p = q.poll();
             if (p == null) break;
             c.decrementAndGet(floor);
+            queuedPassengers.decrementAndGet();
+            long now = nowMs();
+            p.markAssigned((callAssignedAt == CallTable.NO_TIME) ? now : Math.max(p.getRequestedAtMs(), callAssignedAt));
+            p.markBoarded(now);
+            stats.onBoarded(p);
             result.add(p);
             spaceAvailable--;
         }
         if (getWaitingCount(floor, dir) == 0) {
-            HallCall key = new HallCall(floor, dir);
-            pendingCalls.remove(key);
-            Elevator assigned = assignedElevator.remove(key);
-            lastNoElevatorLogMs.remove(key);
-            if (assigned != null) {
-                assigned.cancelHallCall(floor, dir);
-            }
+            releaseCall(floor, dir);
         }
         return result;
     }
 
+    /**
+     * Посадка в лифт e. С кнопками направления — как {@link #boardPassengers(int, Direction, int)},
+     * с панелями назначения садятся только закреплённые за этим лифтом.
+     */
+    public List<Passenger> boardPassengers(Elevator e, int floor, Direction dir, int spaceAvailable) {
+        if (destinations == null) return boardPassengers(floor, dir, spaceAvailable);
+        if (spaceAvailable <= 0) return List.of();
+        if (floor < 1 || floor > totalFloors) return List.of();
+
+        ConcurrentLinkedQueue<Passenger> q = queueFor(floor, dir);
+        AtomicIntegerArray c = countFor(dir);
+        int idx = CallTable.index(floor, dir);
+        int car = e.getId();
+
+        List<Passenger> result = new ArrayList<>();
+        for (Passenger p : q) {
+            if (spaceAvailable <= 0) break;
+            // remove решает гонку с shedOldest: пассажира забирает тот, кто первым убрал его из очереди
+            if (p.allocatedCar() != car || !q.remove(p)) continue;
+            destinations.forget(p, idx);
+            c.decrementAndGet(floor);
+            queuedPassengers.decrementAndGet();
+            p.markBoarded(nowMs());
+            stats.onBoarded(p);
+            result.add(p);
+            spaceAvailable--;
+        }
+        if (getWaitingCount(floor, dir) == 0) {
+            releaseCall(floor, dir);
+        }
+        return result;
+    }
+
+    /** Пассажир выброшен из очереди: снимаем закрепление и ненужную теперь остановку лифта. */
+    private void forgetAllocation(Passenger p, int floor, Direction dir) {
+        int idx = CallTable.index(floor, dir);
+        Elevator e = elevatorById(destinations.forget(p, idx));
+        if (e != null && destinations.waiting(e.getId(), idx) == 0) {
+            e.cancelHallCall(floor, dir);
+        }
+    }
+
+    /** Снимает вызов, на котором больше никто не ждёт. */
+    private void releaseCall(int floor, Direction dir) {
+        int idx = CallTable.index(floor, dir);
+        calls.clearPending(idx);
+        Elevator assigned = unassignCall(idx);
+        calls.setLastNoElevatorLogMs(idx, CallTable.NO_TIME);
+        calls.clearFirstAssigned(idx);
+        if (assigned != null) {
+            assigned.cancelHallCall(floor, dir);
+        }
+    }
+
+    /** Вызывается лифтом, когда пассажир вышел на своём этаже. */
+    void onPassengerDelivered(Passenger p, Elevator by) {
+        p.markAlighted(nowMs());
+        stats.onDelivered(p);
+        journal.append(JournalEventType.ALIGHT, p.getAlightedAtMs(), by.getId(), p.getId(), p.getTargetFloor(),
+                p.getDirection(), (int) p.getJourneyTimeMs(), (int) p.getRideTimeMs(), 0);
+    }
+
     public int getWaitingCount(int floor, Direction dir) {
         if (floor < 1 || floor > totalFloors) return 0;
         return countFor(dir).get(floor);
@@ -136,6 +386,20 @@ public class Dispatcher implements Runnable {
         return getWaitingCount(floor, dir) > 0;
     }
 
+    /**
+     * Сколько ждущих может забрать лифт e: с кнопками направления — все ждущие,
+     * с панелями назначения — только закреплённые за ним.
+     */
+    public int getWaitingCountFor(Elevator e, int floor, Direction dir) {
+        if (destinations == null) return getWaitingCount(floor, dir);
+        if (floor < 1 || floor > totalFloors) return 0;
+        return destinations.waiting(e.getId(), CallTable.index(floor, dir));
+    }
+
+    public boolean hasWaitingFor(Elevator e, int floor, Direction dir) {
+        return getWaitingCountFor(e, floor, dir) > 0;
+    }
+
     public void shutdown() {
         running = false;
     }
@@ -143,25 +407,41 @@ public class Dispatcher implements Runnable {
         if (claimer == null) return false;
         if (floor < 1 || floor > totalFloors) return false;
         if (!hasWaiting(floor, dir)) return false;
+        // с панелями назначения забирать чужих пассажиров нельзя: лифт останавливается по своим закреплениям
+        if (destinations != null) return false;
 
-        HallCall call = new HallCall(floor, dir);
-        pendingCalls.add(call);
+        int idx = CallTable.index(floor, dir);
+        calls.markPending(idx);
 
         // мы здесь намеренно "крадём" назначение, потому что лифт уже НА ЭТАЖЕ.
-        Elevator prev = assignedElevator.put(call, claimer);
+        Elevator prev = assignCall(idx, claimer);
         if (prev != null && prev != claimer) {
             prev.cancelHallCall(floor, dir);
-            lastReassignMs.put(call, System.currentTimeMillis());
+            calls.setLastReassignMs(idx, nowMs());
         }
-        lastNoElevatorLogMs.remove(call);
+        if (prev != claimer) {
+            journal(JournalEventType.CLAIM, claimer.getId(), 0, floor, dir,
+                    (prev != null) ? prev.getId() : 0, 0, 0);
+        }
+        calls.setLastNoElevatorLogMs(idx, CallTable.NO_TIME);
         return true;
     }
     public Elevator getAssignedElevator(int floor, Direction dir) {
         if (floor < 1 || floor > totalFloors) return null;
-        return assignedElevator.get(new HallCall(floor, dir));
+        return elevatorById(calls.assignedId(CallTable.index(floor, dir)));
     }
     public boolean isIdle() {
-        return getTotalWaiting() == 0 && pendingCalls.isEmpty() && assignedElevator.isEmpty() && events.isEmpty();
+        return getTotalWaiting() == 0 && calls.pendingCount() == 0 && calls.assignedCount() == 0 && inbox.isEmpty();
+    }
+
+    /** Число вызовов (этаж + направление), ожидающих обслуживания. */
+    public int getPendingCallCount() {
+        return calls.pendingCount();
+    }
+
+    /** Принятые, но ещё не севшие пассажиры (ограничено settings.ingestCapacity()). */
+    public int getQueuedPassengers() {
+        return queuedPassengers.get();
     }
 
     /** Общее число ожидающих пассажиров по всем этажам и направлениям. */
@@ -180,18 +460,9 @@ public class Dispatcher implements Runnable {
 
         while (running) {
             try {
-                DispatcherEvent ev = events.poll(1, TimeUnit.SECONDS);
-
-                if (ev != null) {
-                    handleEvent(ev);
-
-                    for (int i = 0; i < Config.DISPATCHER_EVENT_BATCH; i++) {
-                        DispatcherEvent next = events.poll();
-                        if (next == null) break;
-                        handleEvent(next);
-                    }
-
-                    dispatchPendingCalls();
+                if (inbox.awaitWork(1, TimeUnit.SECONDS)) {
+                    drainInbox();
+                    dispatchAfterEvents();
                 } else {
                     dispatchPendingCalls();
                 }
@@ -205,17 +476,76 @@ public class Dispatcher implements Runnable {
         log("SYSTEM", "Dispatcher stopped");
     }
 
-    private void handleEvent(DispatcherEvent ev) {
-        if (ev == null) return;
+    /**
+     * Запускает диспетчер в режиме событий (без {@link #run()}): очередь событий
+     * разбирается сразу после поступления, плюс периодический полный проход,
+     * как при таймауте poll в потоковом режиме.
+     */
+    public void attachScheduler(EventScheduler scheduler) {
+        this.scheduler = scheduler;
+        log("SYSTEM", "Dispatcher started");
+        scheduler.schedule(Config.DISPATCHER_FULL_SWEEP_MS, new Runnable() {
+            @Override
+            public void run() {
+                if (!running) return;
+                dispatchPendingCalls();
+                scheduler.schedule(Config.DISPATCHER_FULL_SWEEP_MS, this);
+            }
+        });
+    }
+
+    private void requestPump() {
+        EventScheduler s = scheduler;
+        if (s == null || !pumpScheduled.compareAndSet(false, true)) return;
+        s.schedule(0, pumpTask);
+    }
 
-        if (ev.type == DispatcherEvent.Type.SHUTDOWN) {
-            running = false;
-            return;
+    private void pump() {
+        pumpScheduled.set(false);
+        if (!running) return;
+
+        drainInbox();
+        dispatchAfterEvents();
+
+        if (!inbox.isEmpty()) requestPump();
+    }
+
+    /**
+     * Подключает часы симуляции, когда диспетчер работает в своём потоке, а лифты —
+     * на чужом планировщике (--tick): отметки пассажиров и журнала идут по тем же часам, что и лифты.
+     */
+    public void attachClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Время диспетчера, мс: виртуальное в режиме событий, иначе время симуляции
+     * с учётом скорости и паузы ({@link SimulationClock#now()} или подключённые часы).
+     */
+    long nowMs() {
+        EventScheduler s = scheduler;
+        return (s != null) ? s.now() : clock.getAsLong();
+    }
+
+    /**
+     * Разбирает входную очередь: до {@link Config#DISPATCHER_EVENT_BATCH} запросов
+     * пассажиров и все лифты с поднятым флагом обновления (каждый — один раз).
+     */
+    private void drainInbox() {
+        for (int i = 0; i < Config.DISPATCHER_EVENT_BATCH; i++) {
+            Passenger p = inbox.pollRequest();
+            if (p == null) break;
+            enqueueWaiting(p);
         }
 
-        if (ev.type == DispatcherEvent.Type.PASSENGER_REQUEST && ev.passenger != null) {
-            enqueueWaiting(ev.passenger);
-            return;
+        for (int w = 0; w < inbox.dirtyElevatorWords(); w++) {
+            long bits = inbox.takeDirtyElevators(w);
+            while (bits != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                Elevator e = elevatorById(id);
+                if (e != null) markDirtyFor(e);
+            }
         }
     }
 
@@ -236,76 +566,383 @@ public class Dispatcher implements Runnable {
             waitingUpCount.incrementAndGet(floor);
         }
 
-        pendingCalls.add(new HallCall(floor, dir));
+        int idx = CallTable.index(floor, dir);
+        calls.markPending(idx);
+        dirtyCalls.add(idx);
     }
 
-    private void dispatchPendingCalls() {
-        List<HallCall> snapshot = new ArrayList<>(pendingCalls);
+    /**
+     * Помечает вызовы, на которые могло повлиять изменение состояния лифта:
+     * назначенные ему, «голодные» вызовы, которые он теперь может взять,
+     * и вызовы рядом с ним по ходу движения (кандидаты на переназначение).
+     */
+    // package-private: вызывается бенчмарками из модуля benchmarks
+    void markDirtyFor(Elevator e) {
+        int id = e.getId();
+        for (int idx = calls.nextAssigned(id, 0); idx != CallTable.NONE; idx = calls.nextAssigned(id, idx + 1)) {
+            if (calls.isPending(idx)) dirtyCalls.add(idx);
+        }
 
-        for (HallCall call : snapshot) {
-            if (call == null) continue;
-            if (!hasWaiting(call.floor(), call.direction())) {
-                pendingCalls.remove(call);
-                assignedElevator.remove(call);
-                lastNoElevatorLogMs.remove(call);
+        ElevatorSnapshot s = e.snapshot();
+        boolean reserveCandidate = s.load() == 0 && s.plannedStops() == 0 && s.status() != ElevatorStatus.DOORS_OPEN;
+        for (int idx = starvedCalls.first(); idx != FloorSet.NONE; idx = starvedCalls.ceiling(idx + 1)) {
+            if (reserveCandidate) {
+                dirtyCalls.add(idx);
                 continue;
             }
-            Elevator assigned = assignedElevator.get(call);
+            HallCallRejectReason reason = e.canAcceptHallCallReason(calls.call(idx));
+            if (reason == HallCallRejectReason.ACCEPTED || reason == HallCallRejectReason.ACCEPTED_RESERVED) {
+                dirtyCalls.add(idx);
+            }
+        }
+
+        int radius = Config.DISPATCHER_NEAR_FLOORS;
+        int lo = (s.direction() == Direction.UP) ? s.currentFloor() : s.currentFloor() - radius;
+        int hi = (s.direction() == Direction.DOWN) ? s.currentFloor() : s.currentFloor() + radius;
+        int last = CallTable.index(Math.min(hi, totalFloors), Direction.DOWN);
+        for (int idx = calls.nextPending(CallTable.index(Math.max(lo, 0), Direction.UP));
+             idx != CallTable.NONE && idx <= last;
+             idx = calls.nextPending(idx + 1)) {
+            dirtyCalls.add(idx);
+        }
+    }
+
+    /**
+     * Проход после пачки событий: только затронутые вызовы, но не реже чем раз
+     * в {@link Config#DISPATCHER_FULL_SWEEP_MS} — полный проход по всем.
+     */
+    private void dispatchAfterEvents() {
+        if (nowMs() - lastFullSweepMs >= Config.DISPATCHER_FULL_SWEEP_MS) {
+            dispatchPendingCalls();
+        } else {
+            dispatchDirtyCalls();
+        }
+    }
+
+    /** Полный проход по всем ожидающим вызовам. */
+    // package-private: вызывается бенчмарками из модуля benchmarks
+    void dispatchPendingCalls() {
+        lastFullSweepMs = nowMs();
+        dirtyCalls.clear();
+        starvedCalls.clear();
+
+        for (int idx = calls.nextPending(0); idx != CallTable.NONE; idx = calls.nextPending(idx + 1)) {
+            dispatchCall(idx);
+        }
+        assignBatch();
+    }
+
+    /**
+     * Снимает все назначения ожидающих вызовов, как будто они только что пришли:
+     * следующий {@link #dispatchPendingCalls} раздаёт их заново.
+     */
+    // package-private: вызывается бенчмарками из модуля benchmarks
+    void releaseAssignments() {
+        for (int idx = calls.nextPending(0); idx != CallTable.NONE; idx = calls.nextPending(idx + 1)) {
+            Elevator assigned = unassignCall(idx);
             if (assigned != null) {
-                if (assigned.canContinueServingAssignedCall(call)) {
-                    if (shouldReassign(call, assigned)) {
-                        assignedElevator.remove(call);
-                        assigned.cancelHallCall(call.floor(), call.direction());
-                        lastReassignMs.put(call, System.currentTimeMillis());
-                    } else {
-                        continue;
-                    }
+                HallCall call = calls.call(idx);
+                assigned.cancelHallCall(call.floor(), call.direction());
+            }
+        }
+    }
+
+    /** Проход только по вызовам, помеченным событиями с прошлого прохода. */
+    // package-private: вызывается бенчмарками из модуля benchmarks
+    void dispatchDirtyCalls() {
+        for (int idx = dirtyCalls.first(); idx != FloorSet.NONE; idx = dirtyCalls.first()) {
+            dirtyCalls.remove(idx);
+            dispatchCall(idx);
+        }
+        assignBatch();
+    }
+
+    private void dispatchCall(int idx) {
+        if (destinations != null) {
+            dispatchDestinations(idx);
+            return;
+        }
+        if (!needsAssignment(idx)) return;
+        if (assignmentMode == AssignmentMode.BATCH) {
+            if (batchSize == batchCalls.length) batchCalls = Arrays.copyOf(batchCalls, batchSize * 2);
+            batchCalls[batchSize++] = idx;
+        } else {
+            assignGreedy(idx);
+        }
+    }
+
+    /**
+     * {@link HallControl#DESTINATION}: пересматривает пассажиров вызова в порядке прихода.
+     * Закрепление снимается, если лифт больше не собирается здесь останавливаться
+     * (уехал полным, развернулся); незакреплённые получают лифт через {@link #allocate}.
+     */
+    private void dispatchDestinations(int idx) {
+        HallCall call = calls.call(idx);
+        starvedCalls.remove(idx);
+        if (!hasWaiting(call.floor(), call.direction())) {
+            calls.clearPending(idx);
+            calls.setLastNoElevatorLogMs(idx, CallTable.NO_TIME);
+            return;
+        }
+
+        // 0 — лифт ещё не проверяли, 1 — остановится здесь, 2 — нет
+        if (committedCheck.length < elevatorsById.length) committedCheck = new byte[elevatorsById.length];
+        Arrays.fill(committedCheck, (byte) 0);
+        for (Passenger p : queueFor(call.floor(), call.direction())) {
+            int car = p.allocatedCar();
+            if (car == DestinationTable.GONE) continue;
+            if (car != DestinationTable.UNALLOCATED) {
+                if (committedCheck[car] == 0) {
+                    Elevator e = elevatorById(car);
+                    committedCheck[car] = (e != null && e.isCommittedToHallCall(call)) ? (byte) 1 : (byte) 2;
+                }
+                if (committedCheck[car] == 1) continue;
+                if (!destinations.release(p, car, idx)) continue;
+                journal(JournalEventType.REASSIGN, car, p.getId(), call.floor(), call.direction(), 0, 0, 1);
+            }
+            if (!allocate(p, idx, call)) {
+                // остальные пришли позже и ждут своей очереди
+                starvedCalls.add(idx);
+                long now = nowMs();
+                long last = calls.lastNoElevatorLogMs(idx);
+                if (last == CallTable.NO_TIME || (now - last) >= NO_ELEVATOR_LOG_COOLDOWN_MS) {
+                    calls.setLastNoElevatorLogMs(idx, now);
+                    log(LogLevel.WARN, "ASSIGN", p + " - NO_ELEVATOR");
+                }
+                return;
+            }
+        }
+        calls.setLastNoElevatorLogMs(idx, CallTable.NO_TIME);
+    }
+
+    /**
+     * Закрепляет пассажира за лифтом с наименьшей стоимостью: время прибытия лифта
+     * ({@link EtaStrategy#cost}) плюс новые остановки — на этаже вызова и на этаже
+     * назначения. Каждая новая остановка задерживает всех, кто уже едет в лифте или
+     * закреплён за ним, поэтому пассажиры с общим этажом назначения собираются в один лифт.
+     */
+    private boolean allocate(Passenger p, int idx, HallCall call) {
+        int target = p.getTargetFloor();
+        Elevator best = null;
+        long bestCost = Long.MAX_VALUE;
+        boolean bestBehind = false;
+        for (Elevator e : elevators) {
+            int car = e.getId();
+            if (!destinations.covers(car)) continue;
+            ElevatorSnapshot s = e.snapshot();
+            int group = destinations.waiting(car, idx);
+            // кто уже едет в ту же сторону, скорее всего будет в кабине и на этаже вызова
+            int aboard = (s.direction() == call.direction()) ? s.load() : 0;
+            if (group + aboard >= s.capacity()) continue;
+            if (group == 0) {
+                // лифт уходит с этажа вызова: остановку он поставит только на следующий проход
+                if (s.currentFloor() == call.floor() && s.status() != ElevatorStatus.DOORS_OPEN
+                        && s.direction() != Direction.IDLE) continue;
+                // лифт, чей маршрут кончается раньше вызова или уже проехал его, тоже в расчёте:
+                // оценка посчитает ему доезд или разворот
+                HallCallRejectReason reason = e.canAcceptHallCallReason(call);
+                if (reason != HallCallRejectReason.ACCEPTED && reason != HallCallRejectReason.ACCEPTED_RESERVED
+                        && reason != HallCallRejectReason.OUT_OF_ROUTE) continue;
+            }
+
+            int newStops = ((group > 0 || s.hasStopAt(call.floor())) ? 0 : 1)
+                    + ((s.hasStopAt(target) || destinations.hasDestination(car, target)) ? 0 : 1);
+            long cost = strategy.cost(s, call, 0)
+                    + newStops * DESTINATION_STOP_MS * (1 + s.load() + destinations.allocated(car));
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = e;
+                bestBehind = group == 0 && isBehind(s, call.floor());
+            }
+        }
+        if (best == null) return false;
+        // Дешевле всех лифт, проехавший этаж вызова: tryAddHallCall его не примет, пока он
+        // не развернётся. Ждём его (вызов «голодный» до следующего события), а не закрепляем
+        // пассажира за вторым по стоимости — так среднее ожидание меньше
+        if (bestBehind) return false;
+        if (!best.isCommittedToHallCall(call) && !best.tryAddHallCall(call.floor(), call.direction())) return false;
+        // пока выбирали, пассажир мог сесть в другой лифт или быть выброшен из очереди
+        if (!destinations.allocate(p, best.getId(), idx)) return true;
+
+        if (p.getAssignedAtMs() < 0) p.markAssigned(nowMs());
+        int cost = (int) Math.min(Integer.MAX_VALUE, bestCost);
+        journal(JournalEventType.ASSIGN, best.getId(), p.getId(), call.floor(), call.direction(),
+                cost, 0, PickMode.DESTINATION.ordinal());
+        log("ASSIGN", p + " -> Elevator-" + best.getId() + " (cost=" + cost + ", pick=" + PickMode.DESTINATION + ")");
+        return true;
+    }
+
+    // этаж позади лифта по ходу движения
+    private static boolean isBehind(ElevatorSnapshot s, int floor) {
+        return (s.direction() == Direction.UP && floor < s.currentFloor())
+                || (s.direction() == Direction.DOWN && floor > s.currentFloor());
+    }
+
+    /**
+     * Разбирает вызов перед назначением: снимает обслуженный, оставляет или снимает
+     * назначенный лифт. true — вызову нужен лифт.
+     */
+    private boolean needsAssignment(int idx) {
+        HallCall call = calls.call(idx);
+        starvedCalls.remove(idx);
+        if (!hasWaiting(call.floor(), call.direction())) {
+            calls.clearPending(idx);
+            unassignCall(idx);
+            calls.setLastNoElevatorLogMs(idx, CallTable.NO_TIME);
+            return false;
+        }
+        Elevator assigned = elevatorById(calls.assignedId(idx));
+        if (assigned != null) {
+            if (assigned.canContinueServingAssignedCall(call)) {
+                if (shouldReassign(idx, assigned)) {
+                    unassignCall(idx);
+                    assigned.cancelHallCall(call.floor(), call.direction());
+                    calls.setLastReassignMs(idx, nowMs());
+                    journal(JournalEventType.REASSIGN, assigned.getId(), 0, call.floor(), call.direction(), 0, 0, 0);
+                } else if (assigned.isCommittedToHallCall(call)
+                        || assigned.tryAddHallCall(call.floor(), call.direction())) {
+                    // лифт мог снять вызов сам (открыл двери, но посадил в другую сторону) —
+                    // тогда выдаём его снова, иначе вызов навсегда остался бы за ним
+                    return false;
                 } else {
-                    assignedElevator.remove(call);
+                    unassignCall(idx);
                     assigned.cancelHallCall(call.floor(), call.direction());
+                    journal(JournalEventType.REASSIGN, assigned.getId(), 0, call.floor(), call.direction(), 0, 0, 1);
                 }
+            } else {
+                unassignCall(idx);
+                assigned.cancelHallCall(call.floor(), call.direction());
+                journal(JournalEventType.REASSIGN, assigned.getId(), 0, call.floor(), call.direction(), 0, 0, 1);
             }
+        }
+
+        return true;
+    }
+
+    private void assignGreedy(int idx) {
+        HallCall call = calls.call(idx);
+        AssignResult pick = findBestElevator(call);
+        if (pick.elevator == null) {
+            starvedCalls.add(idx);
+            long now = nowMs();
+            long last = calls.lastNoElevatorLogMs(idx);
+            if (last == CallTable.NO_TIME || (now - last) >= NO_ELEVATOR_LOG_COOLDOWN_MS) {
+                calls.setLastNoElevatorLogMs(idx, now);
+                log(LogLevel.WARN, "ASSIGN", call + " - NO_ELEVATOR " + pick.reasonSummary());
+            }
+            return;
+        }
+        applyPick(idx, call, pick);
+    }
+
+    private void applyPick(int idx, HallCall call, AssignResult pick) {
+        ElevatorSnapshot sBefore = pick.elevator.snapshot();
+
+        boolean acceptedNow = (pick.mode == PickMode.RESERVED_REVERSE_SOON)
+                ? pick.elevator.tryReserveHallCall(call)
+                : pick.elevator.tryAddHallCall(call.floor(), call.direction());
+        if (!acceptedNow) {
+            starvedCalls.add(idx);
+            log("ASSIGN", call + " -> Elevator-" + pick.elevator.getId()
+                    + " (at " + sBefore.currentFloor()
+                    + ", going " + sBefore.direction()
+                    + ", load=" + sBefore.load() + "/" + sBefore.capacity()
+                    + ", stops=" + sBefore.plannedStops()
+                    + ") - REJECTED: " + HallCallRejectReason.FULL_CAPACITY);
+            return;
+        }
+        assignCall(idx, pick.elevator);
+        calls.setLastNoElevatorLogMs(idx, CallTable.NO_TIME);
+        journal(JournalEventType.ASSIGN, pick.elevator.getId(), 0, call.floor(), call.direction(),
+                pick.cost, 0, pick.mode.ordinal());
+
+        ElevatorSnapshot s = pick.elevator.snapshot();
+        log("ASSIGN", call + " -> Elevator-" + s.id()
+                + " (at " + s.currentFloor()
+                + ", going " + s.direction()
+                + ", load=" + s.load() + "/" + s.capacity()
+                + ", stops=" + s.plannedStops()
+                + ", pick=" + pick.mode + ")");
+    }
 
-            AssignResult pick = findBestElevator(call);
-            if (pick.elevator == null) {
-                long now = System.currentTimeMillis();
-                Long last = lastNoElevatorLogMs.get(call);
-                if (last == null || (now - last) >= NO_ELEVATOR_LOG_COOLDOWN_MS) {
-                    lastNoElevatorLogMs.put(call, now);
-                    log("ASSIGN", call + " - NO_ELEVATOR " + pick.reasonSummary());
+    /**
+     * BATCH: раздаёт вызовы прохода одной задачей о назначениях. Столбцы — места в лифтах:
+     * у лифта их не больше свободных мест в кабине, остановок до {@link Config#MAX_PLANNED_STOPS}
+     * и {@link Config#BATCH_MAX_CALLS_PER_ELEVATOR}; j-е место стоит
+     * {@code strategy.cost(s, call, assigned + j)}, то есть дороже на уже отданные в этом проходе вызовы.
+     * У каждого вызова есть ещё «отложенный» столбец дороже любого места: туда попадают вызовы,
+     * которые сейчас не может взять ни один лифт или которым не хватило мест, — их разбирает
+     * {@link #assignGreedy} со своими резервными проходами.
+     */
+    private void assignBatch() {
+        int n = batchSize;
+        if (n == 0) return;
+        batchSize = 0;
+
+        int fleet = elevators.size();
+        if (batchSnapshots.length < fleet) {
+            batchSnapshots = new ElevatorSnapshot[fleet];
+            batchSlots = new int[fleet];
+        }
+        // один снимок на лифт: в потоковом режиме лифты меняются, пока строится матрица
+        int slots = 0;
+        for (int i = 0; i < fleet; i++) {
+            ElevatorSnapshot s = elevators.get(i).snapshot();
+            int free = Math.min(s.capacity() - s.load(), Config.MAX_PLANNED_STOPS - s.plannedStops());
+            batchSnapshots[i] = s;
+            batchSlots[i] = Math.max(0, Math.min(Math.min(free, Config.BATCH_MAX_CALLS_PER_ELEVATOR), n));
+            slots += batchSlots[i];
+        }
+        int cols = slots + n;
+        if (batchCost.length < n * cols) batchCost = new long[n * cols];
+        if (slotElevator.length < slots) slotElevator = new Elevator[slots];
+
+        long[] cost = batchCost;
+        Arrays.fill(cost, 0, n * cols, BATCH_INFEASIBLE);
+        int col = 0;
+        for (int i = 0; i < fleet; i++) {
+            int k = batchSlots[i];
+            if (k == 0) continue;
+            Elevator e = elevators.get(i);
+            ElevatorSnapshot s = batchSnapshots[i];
+            int assigned = assignedCountFor(e);
+            for (int r = 0; r < n; r++) {
+                HallCall call = calls.call(batchCalls[r]);
+                if (e.canAcceptHallCallReason(call) != HallCallRejectReason.ACCEPTED) continue;
+                for (int j = 0; j < k; j++) {
+                    cost[r * cols + col + j] = strategy.cost(s, call, assigned + j);
                 }
-                continue;
             }
+            for (int j = 0; j < k; j++) slotElevator[col + j] = e;
+            col += k;
+        }
+        for (int r = 0; r < n; r++) {
+            Arrays.fill(cost, r * cols + slots, (r + 1) * cols, BATCH_DEFERRED);
+        }
 
-            ElevatorSnapshot sBefore = pick.elevator.snapshot();
-
-            boolean acceptedNow = (pick.mode == PickMode.RESERVED_REVERSE_SOON)
-                    ? pick.elevator.tryReserveHallCall(call)
-                    : pick.elevator.tryAddHallCall(call.floor(), call.direction());
-            if (!acceptedNow) {
-                log("ASSIGN", call + " -> Elevator-" + pick.elevator.getId()
-                        + " (at " + sBefore.currentFloor()
-                        + ", going " + sBefore.direction()
-                        + ", load=" + sBefore.load() + "/" + sBefore.capacity()
-                        + ", stops=" + sBefore.plannedStops()
-                        + ") - REJECTED: " + HallCallRejectReason.FULL_CAPACITY);
+        int[] match = matching.solve(cost, n, cols);
+        int deferred = 0;
+        for (int r = 0; r < n; r++) {
+            int idx = batchCalls[r];
+            int c = match[r];
+            if (c >= slots) {
+                batchCalls[deferred++] = idx;
                 continue;
             }
-            assignedElevator.put(call, pick.elevator);
-            lastNoElevatorLogMs.remove(call);
-
-            ElevatorSnapshot s = pick.elevator.snapshot();
-            log("ASSIGN", call + " -> Elevator-" + s.id()
-                    + " (at " + s.currentFloor()
-                    + ", going " + s.direction()
-                    + ", load=" + s.load() + "/" + s.capacity()
-                    + ", stops=" + s.plannedStops()
-                    + ", pick=" + pick.mode + ")");
+            applyPick(idx, calls.call(idx),
+                    new AssignResult(slotElevator[c], PickMode.BATCH, (int) cost[r * cols + c], 0, 0, 0, 0, 0));
+        }
+        for (int r = 0; r < deferred; r++) {
+            assignGreedy(batchCalls[r]);
         }
+        Arrays.fill(slotElevator, 0, slots, null);
+        Arrays.fill(batchSnapshots, 0, fleet, null);
     }
 
-    private AssignResult findBestElevator(HallCall call) {
+    AssignResult findBestElevator(HallCall call) {
         Elevator best = null;
+        ElevatorSnapshot bestSnapshot = null;
+        int bestAssigned = 0;
         int minCost = Integer.MAX_VALUE;
 
         int full = 0;
@@ -332,34 +969,20 @@ public class Dispatcher implements Runnable {
             }
 
             ElevatorSnapshot s = e.snapshot();
-            int cost = strategy.calculateCost(s, call);
-
             int assigned = assignedCountFor(e);
-            cost += assigned * 6;
-            if (strategy.isOnTheWay(s, call)) {
-                cost -= 3;
-            }
+            int cost = strategy.cost(s, call, assigned);
 
-            if (cost < minCost) {
+            if (cost < minCost
+                    || (cost == minCost && best != null && strategy.preferOnTie(s, assigned, bestSnapshot, bestAssigned))) {
                 minCost = cost;
                 best = e;
-            } else if (cost == minCost && best != null) {
-                int aBest = assignedCountFor(best);
-                if (assigned < aBest) {
-                    best = e;
-                } else if (assigned == aBest) {
-                    ElevatorSnapshot sb = best.snapshot();
-                    if (s.plannedStops() < sb.plannedStops()) {
-                        best = e;
-                    } else if (s.plannedStops() == sb.plannedStops() && s.load() < sb.load()) {
-                        best = e;
-                    }
-                }
+                bestSnapshot = s;
+                bestAssigned = assigned;
             }
         }
 
         if (best != null) {
-            return new AssignResult(best, PickMode.NORMAL, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
+            return new AssignResult(best, PickMode.NORMAL, minCost, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
         }
 
         Elevator bestReserved = null;
@@ -373,14 +996,14 @@ public class Dispatcher implements Runnable {
             if (s.plannedStops() >= Config.MAX_PLANNED_STOPS) continue;
             if (s.status() == ElevatorStatus.DOORS_OPEN) { doorsBusy++; continue; }
 
-            int cost = strategy.calculateCost(s, call) + 25 + assignedCountFor(e) * 6;
+            int cost = strategy.reservedCost(s, call, assignedCountFor(e));
             if (cost < minReservedCost) {
                 minReservedCost = cost;
                 bestReserved = e;
             }
         }
         if (bestReserved != null) {
-            return new AssignResult(bestReserved, PickMode.RESERVED_REVERSE_SOON, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
+            return new AssignResult(bestReserved, PickMode.RESERVED_REVERSE_SOON, minReservedCost, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
         }
 
 
@@ -392,34 +1015,35 @@ public class Dispatcher implements Runnable {
             if (s.plannedStops() != 0) continue;
             if (s.status() == ElevatorStatus.DOORS_OPEN) continue;
 
-            int distance = Math.abs(s.currentFloor() - call.floor());
-            int cost = distance * 6 + assignedCountFor(e) * 6; // резерв считаем хуже обычного, но лучше чем бесконечное ожидание
+            int cost = strategy.reserveCost(s, call, assignedCountFor(e));
             if (cost < minReserveCost) {
                 minReserveCost = cost;
                 bestReserve = e;
             }
         }
         if (bestReserve != null) {
-            return new AssignResult(bestReserve, PickMode.RESERVE, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
+            return new AssignResult(bestReserve, PickMode.RESERVE, minReserveCost, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
         }
 
-        return new AssignResult(null, PickMode.NONE, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
+        return new AssignResult(null, PickMode.NONE, 0, full, wrongDir, outOfRoute, stopLimit, doorsBusy);
     }
 
-    private enum PickMode { NORMAL, DOORS_BUSY, RESERVED_REVERSE_SOON, RESERVE, NONE }
+    enum PickMode { NORMAL, DOORS_BUSY, RESERVED_REVERSE_SOON, RESERVE, BATCH, DESTINATION, NONE }
 
-    private static final class AssignResult {
+    static final class AssignResult {
         final Elevator elevator;
         final PickMode mode;
+        final int cost;
         final int full;
         final int wrongDir;
         final int outOfRoute;
         final int stopLimit;
         final int doorsBusy;
 
-        AssignResult(Elevator elevator, PickMode mode, int full, int wrongDir, int outOfRoute, int stopLimit, int doorsBusy) {
+        AssignResult(Elevator elevator, PickMode mode, int cost, int full, int wrongDir, int outOfRoute, int stopLimit, int doorsBusy) {
             this.elevator = elevator;
             this.mode = mode;
+            this.cost = cost;
             this.full = full;
             this.wrongDir = wrongDir;
             this.outOfRoute = outOfRoute;
@@ -441,52 +1065,69 @@ public class Dispatcher implements Runnable {
         return (dir == Direction.DOWN) ? waitingDownCount : waitingUpCount;
     }
 
+    private Elevator elevatorById(int id) {
+        Elevator[] byId = elevatorsById;
+        return (id > 0 && id < byId.length) ? byId[id] : null;
+    }
+
     private int assignedCountFor(Elevator e) {
         if (e == null) return 0;
-        int cnt = 0;
-        for (Elevator v : assignedElevator.values()) {
-            if (v == e) cnt++;
+        AtomicInteger c = assignedCounts.get(e);
+        return (c == null) ? 0 : c.get();
+    }
+
+    private Elevator assignCall(int idx, Elevator e) {
+        Elevator prev = elevatorById(calls.assign(idx, e.getId()));
+        calls.markFirstAssigned(idx, nowMs());
+        if (prev != e) {
+            adjustAssignedCount(e, 1);
+            adjustAssignedCount(prev, -1);
         }
-        return cnt;
+        return prev;
+    }
+
+    private Elevator unassignCall(int idx) {
+        Elevator prev = elevatorById(calls.unassign(idx));
+        adjustAssignedCount(prev, -1);
+        return prev;
+    }
+
+    private void adjustAssignedCount(Elevator e, int delta) {
+        if (e == null) return;
+        assignedCounts.computeIfAbsent(e, k -> new AtomicInteger()).addAndGet(delta);
     }
 
-    private boolean shouldReassign(HallCall call, Elevator currentlyAssigned) {
-        if (call == null || currentlyAssigned == null) return false;
+    private boolean shouldReassign(int idx, Elevator currentlyAssigned) {
+        if (currentlyAssigned == null) return false;
+        HallCall call = calls.call(idx);
 
-        long now = System.currentTimeMillis();
-        Long last = lastReassignMs.get(call);
-        if (last != null && (now - last) < Config.CALL_REASSIGN_COOLDOWN_MS) {
+        long now = nowMs();
+        long last = calls.lastReassignMs(idx);
+        if (last != CallTable.NO_TIME && (now - last) < Config.CALL_REASSIGN_COOLDOWN_MS) {
             return false;
         }
 
         if (currentlyAssigned.isCommittedToHallCall(call)) return false;
 
         ElevatorSnapshot sa = currentlyAssigned.snapshot();
-        if (Math.abs(sa.currentFloor() - call.floor()) <= 1) return false;
+        if (strategy.keepAssignment(sa, call)) return false;
 
         AssignResult best = findBestElevator(call);
         if (best.elevator == null) return false;
         if (best.elevator == currentlyAssigned) return false;
 
-        ElevatorSnapshot sb = best.elevator.snapshot();
-        boolean bestOk = (sb.direction() == Direction.IDLE) || strategy.isOnTheWay(sb, call);
-        if (!bestOk) return false;
-
-        int costAssigned = effectiveCost(sa, call, assignedCountFor(currentlyAssigned));
-        int costBest = effectiveCost(sb, call, assignedCountFor(best.elevator));
-
-        return (costAssigned - costBest) >= Config.CALL_REASSIGN_MIN_IMPROVEMENT;
+        return strategy.shouldReassign(sa, assignedCountFor(currentlyAssigned),
+                best.elevator.snapshot(), assignedCountFor(best.elevator), call);
     }
 
-    private int effectiveCost(ElevatorSnapshot s, HallCall call, int assignedCount) {
-        int cost = strategy.calculateCost(s, call);
-        cost += assignedCount * 6;
-        if (strategy.isOnTheWay(s, call)) cost -= 3;
-        return cost;
+    private void log(String tag, String msg) {
+        log(LogLevel.INFO, tag, msg);
     }
 
-    private void log(String tag, String msg) {
-        String time = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        System.out.printf("[%s][Dispatcher][%s] %s%n", time, tag, msg);
+    private void log(LogLevel level, String tag, String msg) {
+        if (!settings.verbose()) return;
+        EventScheduler s = scheduler;
+        long time = (s != null) ? s.now() : System.currentTimeMillis();
+        AsyncLog.log(level, time, s != null, "Dispatcher", -1, tag, msg);
     }
 }
@@ -0,0 +1,169 @@
+package com.multielevator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Входная очередь диспетчера: много производителей (лифты, генератор пассажиров),
+ * один потребитель (поток диспетчера или его pump в режиме событий). Забрать
+ * запрос может и производитель — при сбросе самых старых (IngestPolicy.SHED_OLDEST).
+ *
+ * Запросы пассажиров идут через ограниченный кольцевой буфер без блокировок
+ * (по схеме Вьюкова: у каждой ячейки свой номер последовательности).
+ * Обновления лифтов не ставятся в очередь вовсе: это бит «грязный» на id лифта,
+ * поэтому сколько бы раз лифт ни сообщил об изменении до разбора, диспетчер
+ * увидит его один раз. Ни то, ни другое не выделяет память на событие.
+ */
+final class DispatcherInbox {
+
+    private final Passenger[] buffer;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    // бит на id лифта; расширяется при регистрации лифтов, до старта потоков
+    private volatile AtomicLongArray dirtyElevators = new AtomicLongArray(1);
+
+    // потребитель, который спит в awaitWork, и признак, что его надо будить
+    private volatile Thread consumer;
+    private volatile boolean parked;
+
+    /** @param capacity ёмкость буфера запросов, округляется вверх до степени двойки */
+    DispatcherInbox(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Passenger[cap];
+        this.sequence = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequence.set(i, i);
+        this.mask = cap - 1;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    /** Готовит место под флаг лифта с данным id. Вызывать до запуска производителей. */
+    synchronized void registerElevator(int elevatorId) {
+        AtomicLongArray cur = dirtyElevators;
+        int words = (elevatorId >>> 6) + 1;
+        if (words <= cur.length()) return;
+        AtomicLongArray grown = new AtomicLongArray(words);
+        for (int w = 0; w < cur.length(); w++) grown.set(w, cur.get(w));
+        dirtyElevators = grown;
+    }
+
+    // --- производители ---
+
+    /** @return false, если буфер заполнен */
+    boolean offerRequest(Passenger p) {
+        long pos = tail.get();
+        while (true) {
+            int i = (int) (pos & mask);
+            long dif = sequence.get(i) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer[i] = p;
+                    sequence.set(i, pos + 1); // публикуем ячейку потребителю
+                    wakeConsumer();
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /** Помечает лифт «грязным». @return true, если флаг только что поднят */
+    boolean markElevatorDirty(int elevatorId) {
+        AtomicLongArray dirty = dirtyElevators;
+        int w = elevatorId >>> 6;
+        if (elevatorId < 0 || w >= dirty.length()) return false;
+        long bit = 1L << elevatorId;
+        while (true) {
+            long cur = dirty.get(w);
+            if ((cur & bit) != 0) return false;
+            if (dirty.compareAndSet(w, cur, cur | bit)) break;
+        }
+        wakeConsumer();
+        return true;
+    }
+
+    // --- потребитель ---
+
+    /** Самый старый запрос или null, если буфер пуст. */
+    Passenger pollRequest() {
+        long pos = head.get();
+        while (true) {
+            int i = (int) (pos & mask);
+            long dif = sequence.get(i) - (pos + 1);
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Passenger p = buffer[i];
+                    buffer[i] = null;
+                    sequence.set(i, pos + buffer.length); // освобождаем ячейку для производителей
+                    return p;
+                }
+                pos = head.get();
+            } else if (dif < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /** Забирает одно слово флагов лифтов (id от word*64), сбрасывая его. */
+    long takeDirtyElevators(int word) {
+        return dirtyElevators.getAndSet(word, 0L);
+    }
+
+    int dirtyElevatorWords() {
+        return dirtyElevators.length();
+    }
+
+    /** Число запросов в буфере (приблизительно, если производители активны). */
+    int requestCount() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    boolean isEmpty() {
+        if (tail.get() != head.get()) return false;
+        AtomicLongArray dirty = dirtyElevators;
+        for (int w = 0; w < dirty.length(); w++) {
+            if (dirty.get(w) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ждёт появления работы не дольше timeout. Только для потока-потребителя.
+     * @return true, если работа есть; false — таймаут
+     */
+    boolean awaitWork(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        consumer = Thread.currentThread();
+        parked = true;
+        try {
+            while (isEmpty()) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) return false;
+                LockSupport.parkNanos(this, left);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+            return true;
+        } finally {
+            parked = false;
+        }
+    }
+
+    private void wakeConsumer() {
+        if (!parked) return;
+        Thread t = consumer;
+        if (t != null) LockSupport.unpark(t);
+    }
+}
@@ -1,16 +1,10 @@
 package com.multielevator;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableSet;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.Condition;
@@ -39,37 +33,94 @@ public class Elevator implements Runnable {
     private final List<Passenger> passengersInside = new ArrayList<>();
 
     // защищено lock
-    private final NavigableSet<Integer> stopsUp = new TreeSet<>();
-    private final NavigableSet<Integer> stopsDown = new TreeSet<>();
+    private final FloorSet stopsUp;
+    private final FloorSet stopsDown;
 
     // защищено lock
-    private final NavigableSet<Integer> internalStopsUp = new TreeSet<>();
-    private final NavigableSet<Integer> internalStopsDown = new TreeSet<>();
-
-    // защищено lock
-    private final Map<Integer, EnumSet<Direction>> hallCallsByFloor = new HashMap<>();
+    private final FloorSet internalStopsUp;
+    private final FloorSet internalStopsDown;
+
+    // защищено lock: сколько раз этаж встречается в stopsUp, stopsDown и целях пассажиров в кабине.
+    // Границы маршрута (routeMin/routeMax, 0 — пусто) поддерживаются при каждом добавлении/удалении,
+    // поэтому snapshot() и canAcceptHallCallReason() не перебирают множества.
+    private final int[] routeRefs;
+    private int routeMin;
+    private int routeMax;
+    // защищено lock: число пассажиров в кабине с целью на этаже
+    private final int[] onboardTargets;
+
+    // защищено lock: этажи с принятыми hall-call по направлениям
+    private final FloorSet hallCallsUp;
+    private final FloorSet hallCallsDown;
 
     // защищено lock
     private final Set<HallCall> reservedHallCalls = new HashSet<>();
+    // защищено lock: посадка при текущем открытии дверей уже прошла, новый вызов этого этажа
+    // в кабину не попадёт — его нельзя принимать до закрытия дверей
+    private boolean doorExchangeDone;
 
     private final Queue<HallCall> pendingCalls = new ConcurrentLinkedQueue<>();
 
+    // защищено lock: неизменяемые копии stopsUp ∪ stopsDown и hallCallsUp ∪ hallCallsDown для снимка;
+    // пересоздаются в publishUnlocked(), только если множества изменились
+    private FloorSet publishedStops;
+    private FloorSet publishedHallCalls;
+
+    // Последний опубликованный снимок состояния. Пересобирается под lock при каждом
+    // изменении этажа, направления, статуса, остановок или загрузки; читатели
+    // (диспетчер, GUI) берут его одним volatile-чтением, не конкурируя за lock.
+    private volatile ElevatorSnapshot published;
+
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition newTaskCondition = lock.newCondition();
 
     private volatile boolean running = true;
 
+    // Режим событий: лифт без собственного потока, шаги планирует EventScheduler.
+    private enum Phase { PLAN, MOVING, DOORS_OPENING, BOARDING, DOORS_CLOSING }
+
+    private volatile EventScheduler scheduler;
+    private final Runnable stepTask = this::step;
+    // защищено lock: шаг уже запланирован или выполняется
+    private boolean stepScheduled;
+    // только в потоке планировщика / потоке лифта
+    private Phase phase = Phase.PLAN;
+    private int moveTarget;
+    private volatile int moveStep;
+    // время начала проезда текущего этажа (для плавной анимации), -1 если стоим
+    private volatile long moveStepStartedAt = -1;
+    private int doorFloor;
+    private EnumSet<Direction> doorAllowed = EnumSet.noneOf(Direction.class);
+
     public Elevator(int id, int startFloor, int maxCapacity, Dispatcher dispatcher) {
         this.id = id;
         this.currentFloor = startFloor;
         this.visualFloorPos = startFloor;
         this.maxCapacity = maxCapacity;
         this.dispatcher = dispatcher;
+        int maxFloor = dispatcher.getTotalFloors() + 1;
+        this.stopsUp = new FloorSet(maxFloor);
+        this.stopsDown = new FloorSet(maxFloor);
+        this.internalStopsUp = new FloorSet(maxFloor);
+        this.internalStopsDown = new FloorSet(maxFloor);
+        this.hallCallsUp = new FloorSet(maxFloor);
+        this.hallCallsDown = new FloorSet(maxFloor);
+        this.publishedStops = new FloorSet(maxFloor);
+        this.publishedHallCalls = new FloorSet(maxFloor);
+        this.routeRefs = new int[maxFloor + 1];
+        this.onboardTargets = new int[maxFloor + 1];
         this.currentDirection = Direction.IDLE;
         this.status = ElevatorStatus.IDLE;
+        publishUnlocked();
     }
 
     public double getVisualFloorPos() {
+        EventScheduler s = scheduler;
+        long started = moveStepStartedAt;
+        if (s != null && started >= 0) {
+            double frac = Math.min(1.0, Math.max(0.0, (s.now() - started) / (double) Config.TIME_MOVE_ONE_FLOOR));
+            return currentFloor + moveStep * frac;
+        }
         return visualFloorPos;
     }
 
@@ -88,12 +139,21 @@ public class Elevator implements Runnable {
         lock.lock();
         try {
             addInternalStopUnlocked(floor);
-            newTaskCondition.signalAll();
+            signalWorkUnlocked();
         } finally {
             lock.unlock();
         }
     }
 
+    private void signalWorkUnlocked() {
+        publishUnlocked();
+        newTaskCondition.signalAll();
+        if (scheduler != null && !stepScheduled) {
+            stepScheduled = true;
+            scheduler.schedule(0, stepTask);
+        }
+    }
+
     private void addInternalStopUnlocked(int floor) {
         if (floor >= currentFloor) internalStopsUp.add(floor);
         else internalStopsDown.add(floor);
@@ -108,17 +168,17 @@ public class Elevator implements Runnable {
         if (dir == Direction.IDLE) return false;
 
         if (getLoadSafe() >= maxCapacity) {
-            status = ElevatorStatus.LOAD_FULL;
+            setStatus(ElevatorStatus.LOAD_FULL);
             return false;
         }
 
         if (floor == currentFloor && status == ElevatorStatus.DOORS_OPEN) {
             lock.lock();
             try {
-                hallCallsByFloor
-                        .computeIfAbsent(floor, f -> EnumSet.noneOf(Direction.class))
-                        .add(dir);
-                newTaskCondition.signalAll();
+                // иначе вызов числился бы за уехавшей кабиной, и диспетчер не переназначил бы его
+                if (doorExchangeDone) return false;
+                hallCallsFor(dir).add(floor);
+                signalWorkUnlocked();
             } finally {
                 lock.unlock();
             }
@@ -137,18 +197,17 @@ public class Elevator implements Runnable {
             if (currentDirection != Direction.IDLE && dir != currentDirection) {
                 if (passengersInside.isEmpty() && plannedStopsUnlocked() <= 1 && status != ElevatorStatus.DOORS_OPEN) {
                     reservedHallCalls.add(new HallCall(floor, dir));
-                    newTaskCondition.signalAll();
+                    signalWorkUnlocked();
                     return true;
                 }
                 return false;
             }
 
-            EnumSet<Direction> set = hallCallsByFloor.computeIfAbsent(floor, f -> EnumSet.noneOf(Direction.class));
-            set.add(dir);
+            hallCallsFor(dir).add(floor);
 
             addStopUnlocked(floor);
 
-            newTaskCondition.signalAll();
+            signalWorkUnlocked();
             return true;
         } finally {
             lock.unlock();
@@ -167,6 +226,7 @@ public class Elevator implements Runnable {
         try {
             if (passengersInside.size() >= maxCapacity) {
                 status = ElevatorStatus.LOAD_FULL;
+                publishUnlocked();
                 return false;
             }
             if ((stopsUp.size() + stopsDown.size()) >= Config.MAX_PLANNED_STOPS) {
@@ -174,7 +234,7 @@ public class Elevator implements Runnable {
             }
 
             reservedHallCalls.add(call);
-            newTaskCondition.signalAll();
+            signalWorkUnlocked();
             return true;
         } finally {
             lock.unlock();
@@ -207,80 +267,65 @@ public class Elevator implements Runnable {
     public HallCallRejectReason canAcceptHallCallReason(HallCall call) {
         if (call == null) return HallCallRejectReason.OUT_OF_ROUTE;
 
-        lock.lock();
-        try {
-            int load = passengersInside.size();
-            if (load >= maxCapacity) return HallCallRejectReason.FULL_CAPACITY;
-            if (stopsUp.size() + stopsDown.size() >= Config.MAX_PLANNED_STOPS) return HallCallRejectReason.TOO_MANY_STOPS;
-
-            int furthestUp = 0;
-            int furthestDown = 0;
-            for (Integer f : stopsUp) {
-                if (f == null) continue;
-                if (f > currentFloor) furthestUp = Math.max(furthestUp, f);
-                if (f < currentFloor) furthestDown = (furthestDown == 0) ? f : Math.min(furthestDown, f);
-            }
-            for (Integer f : stopsDown) {
-                if (f == null) continue;
-                if (f > currentFloor) furthestUp = Math.max(furthestUp, f);
-                if (f < currentFloor) furthestDown = (furthestDown == 0) ? f : Math.min(furthestDown, f);
-            }
-            for (Passenger p : passengersInside) {
-                int tf = p.getTargetFloor();
-                if (tf > currentFloor) furthestUp = Math.max(furthestUp, tf);
-                if (tf < currentFloor) furthestDown = (furthestDown == 0) ? tf : Math.min(furthestDown, tf);
-            }
-
-            // If doors are open on this floor – accept ONLY the current service direction.
-            // Real elevators don't let new hall calls flip direction while doors are open;
-            // the car either continues in its current direction or, if truly idle, can take any.
-            // (Direction is updated right after stop removal, before opening doors.)
-            if (status == ElevatorStatus.DOORS_OPEN) {
-                if (currentFloor != call.floor()) return HallCallRejectReason.DOORS_BUSY;
-                if (currentDirection == Direction.IDLE || currentDirection == call.direction()) {
-                    return HallCallRejectReason.ACCEPTED;
-                }
-                return HallCallRejectReason.WRONG_DIRECTION;
-            }
-
-            if (currentDirection == Direction.IDLE) return HallCallRejectReason.ACCEPTED;
-
-            // "On the way" in the same direction within the route envelope.
-            if (call.direction() == currentDirection) {
-                if (currentDirection == Direction.UP) {
-                    int bound = (furthestUp > 0) ? furthestUp : currentFloor;
-                    boolean onWay = (call.floor() >= currentFloor) && (call.floor() <= bound);
-                    return onWay ? HallCallRejectReason.ACCEPTED : HallCallRejectReason.OUT_OF_ROUTE;
-                } else {
-                    int bound = (furthestDown > 0) ? furthestDown : currentFloor;
-                    boolean onWay = (call.floor() <= currentFloor) && (call.floor() >= bound);
-                    return onWay ? HallCallRejectReason.ACCEPTED : HallCallRejectReason.OUT_OF_ROUTE;
-                }
+        // Всё нужное есть в опубликованном снимке — lock не берём.
+        ElevatorSnapshot s = published;
+        int currentFloor = s.currentFloor();
+        Direction currentDirection = s.direction();
+
+        int load = s.load();
+        if (load >= maxCapacity) return HallCallRejectReason.FULL_CAPACITY;
+        if (s.plannedStops() >= Config.MAX_PLANNED_STOPS) return HallCallRejectReason.TOO_MANY_STOPS;
+
+        int furthestUp = s.furthestUpStop();
+        int furthestDown = s.furthestDownStop();
+
+        // If doors are open on this floor – accept ONLY the current service direction.
+        // Real elevators don't let new hall calls flip direction while doors are open;
+        // the car either continues in its current direction or, if truly idle, can take any.
+        // (Direction is updated right after stop removal, before opening doors.)
+        if (s.status() == ElevatorStatus.DOORS_OPEN) {
+            if (currentFloor != call.floor()) return HallCallRejectReason.DOORS_BUSY;
+            if (currentDirection == Direction.IDLE || currentDirection == call.direction()) {
+                return HallCallRejectReason.ACCEPTED;
             }
+            return HallCallRejectReason.WRONG_DIRECTION;
+        }
 
-            // Opposite direction: only reserve if empty and very close to reversing, and the call is ahead toward the reversal point.
-            if (load != 0) return HallCallRejectReason.WRONG_DIRECTION;
+        if (currentDirection == Direction.IDLE) return HallCallRejectReason.ACCEPTED;
 
-            int distToReverse;
-            boolean onReversePath;
+        // "On the way" in the same direction within the route envelope.
+        if (call.direction() == currentDirection) {
             if (currentDirection == Direction.UP) {
-                int top = (furthestUp > 0) ? furthestUp : currentFloor;
-                distToReverse = Math.max(0, top - currentFloor);
-                onReversePath = (call.floor() >= currentFloor) && (call.floor() <= top);
+                int bound = (furthestUp > 0) ? furthestUp : currentFloor;
+                boolean onWay = (call.floor() >= currentFloor) && (call.floor() <= bound);
+                return onWay ? HallCallRejectReason.ACCEPTED : HallCallRejectReason.OUT_OF_ROUTE;
             } else {
-                int bottom = (furthestDown > 0) ? furthestDown : currentFloor;
-                distToReverse = Math.max(0, currentFloor - bottom);
-                onReversePath = (call.floor() <= currentFloor) && (call.floor() >= bottom);
+                int bound = (furthestDown > 0) ? furthestDown : currentFloor;
+                boolean onWay = (call.floor() <= currentFloor) && (call.floor() >= bound);
+                return onWay ? HallCallRejectReason.ACCEPTED : HallCallRejectReason.OUT_OF_ROUTE;
             }
+        }
 
-            boolean reserveOk = onReversePath
-                    && (distToReverse <= Config.RESERVE_REVERSE_SOON_FLOORS)
-                    && (stopsUp.size() + stopsDown.size() <= 1);
+        // Opposite direction: only reserve if empty and very close to reversing, and the call is ahead toward the reversal point.
+        if (load != 0) return HallCallRejectReason.WRONG_DIRECTION;
 
-            return reserveOk ? HallCallRejectReason.ACCEPTED_RESERVED : HallCallRejectReason.WRONG_DIRECTION;
-        } finally {
-            lock.unlock();
+        int distToReverse;
+        boolean onReversePath;
+        if (currentDirection == Direction.UP) {
+            int top = (furthestUp > 0) ? furthestUp : currentFloor;
+            distToReverse = Math.max(0, top - currentFloor);
+            onReversePath = (call.floor() >= currentFloor) && (call.floor() <= top);
+        } else {
+            int bottom = (furthestDown > 0) ? furthestDown : currentFloor;
+            distToReverse = Math.max(0, currentFloor - bottom);
+            onReversePath = (call.floor() <= currentFloor) && (call.floor() >= bottom);
         }
+
+        boolean reserveOk = onReversePath
+                && (distToReverse <= Config.RESERVE_REVERSE_SOON_FLOORS)
+                && (s.plannedStops() <= 1);
+
+        return reserveOk ? HallCallRejectReason.ACCEPTED_RESERVED : HallCallRejectReason.WRONG_DIRECTION;
     }
 
     public void cancelHallCall(int floor, Direction dir) {
@@ -290,53 +335,46 @@ public class Elevator implements Runnable {
         try {
             reservedHallCalls.remove(new HallCall(floor, dir));
 
-            EnumSet<Direction> set = hallCallsByFloor.get(floor);
-            if (set != null) {
-                set.remove(dir);
-                if (set.isEmpty()) {
-                    hallCallsByFloor.remove(floor);
-                }
-            }
+            hallCallsFor(dir).remove(floor);
 
-            if (!hallCallsByFloor.containsKey(floor) && !hasInternalNeedForFloorUnlocked(floor)) {
-                stopsUp.remove(floor);
-                stopsDown.remove(floor);
+            if (!hasHallCallUnlocked(floor) && !hasInternalNeedForFloorUnlocked(floor)) {
+                removeStopUnlocked(stopsUp, floor);
+                removeStopUnlocked(stopsDown, floor);
             }
 
-            newTaskCondition.signalAll();
+            signalWorkUnlocked();
         } finally {
             lock.unlock();
         }
     }
 
+    /** Последнее опубликованное состояние; без блокировок. */
     public ElevatorSnapshot snapshot() {
-        lock.lock();
-        try {
-            int planned = stopsUp.size() + stopsDown.size();
-            int load = passengersInside.size();
+        return published;
+    }
 
-            int furthestUp = 0;
-            int furthestDown = 0;
+    private void publishUnlocked() {
+        int planned = stopsUp.size() + stopsDown.size();
+        int load = passengersInside.size();
 
-            // Estimate route bounds: farthest requested destination above/below current floor.
-            for (Integer f : stopsUp) {
-                if (f == null) continue;
-                if (f > currentFloor) furthestUp = Math.max(furthestUp, f);
-                if (f < currentFloor) furthestDown = (furthestDown == 0) ? f : Math.min(furthestDown, f);
-            }
-            for (Integer f : stopsDown) {
-                if (f == null) continue;
-                if (f > currentFloor) furthestUp = Math.max(furthestUp, f);
-                if (f < currentFloor) furthestDown = (furthestDown == 0) ? f : Math.min(furthestDown, f);
-            }
-            // Include onboard passenger destinations (so dispatcher knows the real travel envelope)
-            for (Passenger p : passengersInside) {
-                int tf = p.getTargetFloor();
-                if (tf > currentFloor) furthestUp = Math.max(furthestUp, tf);
-                if (tf < currentFloor) furthestDown = (furthestDown == 0) ? tf : Math.min(furthestDown, tf);
-            }
+        // Route bounds: farthest stop or onboard destination above/below current floor.
+        int furthestUp = furthestUpUnlocked();
+        int furthestDown = furthestDownUnlocked();
+
+        if (!publishedStops.isUnionOf(stopsUp, stopsDown)) publishedStops = FloorSet.union(stopsUp, stopsDown);
+        if (!publishedHallCalls.isUnionOf(hallCallsUp, hallCallsDown)) {
+            publishedHallCalls = FloorSet.union(hallCallsUp, hallCallsDown);
+        }
+
+        published = new ElevatorSnapshot(id, currentFloor, currentDirection, status, load, maxCapacity, planned,
+                furthestUp, furthestDown, publishedStops, publishedHallCalls);
+    }
 
-            return new ElevatorSnapshot(id, currentFloor, currentDirection, status, load, maxCapacity, planned, furthestUp, furthestDown);
+    private void setStatus(ElevatorStatus newStatus) {
+        lock.lock();
+        try {
+            status = newStatus;
+            publishUnlocked();
         } finally {
             lock.unlock();
         }
@@ -363,8 +401,7 @@ public class Elevator implements Runnable {
         lock.lock();
         try {
             if (reservedHallCalls.contains(call)) return true;
-            EnumSet<Direction> dirs = hallCallsByFloor.get(call.floor());
-            return dirs != null && dirs.contains(call.direction());
+            return call.direction() != Direction.IDLE && hallCallsFor(call.direction()).contains(call.floor());
         } finally {
             lock.unlock();
         }
@@ -376,7 +413,7 @@ public class Elevator implements Runnable {
         log("SYSTEM", "Started at floor " + currentFloor);
 
         while (running) {
-            Integer target;
+            int target;
 
             lock.lock();
             try {
@@ -389,6 +426,7 @@ public class Elevator implements Runnable {
                     }
                     currentDirection = Direction.IDLE;
                     status = ElevatorStatus.IDLE;
+                    publishUnlocked();
                     dispatcher.notifyElevatorUpdate(this);
                     newTaskCondition.await();
                 }
@@ -396,7 +434,7 @@ public class Elevator implements Runnable {
                 updateDirectionUnlocked();
                 target = chooseNextTargetUnlocked();
 
-                if (target == null) {
+                if (target == FloorSet.NONE) {
                     updateDirectionUnlocked();
                     continue;
                 }
@@ -404,34 +442,164 @@ public class Elevator implements Runnable {
                 Thread.currentThread().interrupt();
                 break;
             } finally {
+                publishUnlocked();
                 lock.unlock();
             }
             int arrivedFloor = moveTo(target);
 
+            clearStopsAtFloor(arrivedFloor);
+
+            operateDoorsAndExchangePassengers(arrivedFloor);
+
+            flushPendingCallsIfPossible();
+        }
+
+        log("SYSTEM", "Stopped");
+    }
+
+    /**
+     * Запускает лифт в режиме событий: вместо {@link #run()} в отдельном потоке
+     * каждый шаг (этаж, двери, посадка) планируется через scheduler.
+     */
+    public void attachScheduler(EventScheduler scheduler) {
+        lock.lock();
+        try {
+            this.scheduler = scheduler;
+            phase = Phase.PLAN;
+            stepScheduled = true;
+        } finally {
+            lock.unlock();
+        }
+        log("SYSTEM", "Started at floor " + currentFloor);
+        scheduler.schedule(0, stepTask);
+    }
+
+    private void step() {
+        if (!running) {
             lock.lock();
             try {
-                stopsUp.remove(arrivedFloor);
-                stopsDown.remove(arrivedFloor);
-                internalStopsUp.remove(arrivedFloor);
-                internalStopsDown.remove(arrivedFloor);
-
-                updateDirectionUnlocked();
+                stepScheduled = false;
             } finally {
                 lock.unlock();
             }
+            return;
+        }
 
-            operateDoorsAndExchangePassengers(arrivedFloor);
+        switch (phase) {
+            case PLAN -> stepPlan();
+            case MOVING -> stepMove();
+            case DOORS_OPENING -> {
+                int boarded = exchangePassengers(doorFloor);
+                phase = Phase.BOARDING;
+                scheduleStep((long) Config.TIME_BOARDING * boarded);
+            }
+            case BOARDING -> {
+                releaseServedHallCalls(doorFloor);
+                phase = Phase.DOORS_CLOSING;
+                scheduleStep(Config.TIME_DOORS);
+            }
+            case DOORS_CLOSING -> {
+                closeDoors();
+                finishCycle();
+            }
+        }
+    }
 
-            flushPendingCallsIfPossible();
+    private void stepPlan() {
+        int target;
+        lock.lock();
+        try {
+            if (stopsUp.isEmpty() && stopsDown.isEmpty() && passengersInside.isEmpty()) {
+                activateReservedCallsUnlocked();
+                if (stopsUp.isEmpty() && stopsDown.isEmpty()) {
+                    currentDirection = Direction.IDLE;
+                    status = ElevatorStatus.IDLE;
+                    publishUnlocked();
+                    // паркуемся: следующий шаг запланирует signalWorkUnlocked()
+                    stepScheduled = false;
+                    dispatcher.notifyElevatorUpdate(this);
+                    return;
+                }
+            }
+
+            updateDirectionUnlocked();
+            target = chooseNextTargetUnlocked();
+            if (target == FloorSet.NONE) {
+                updateDirectionUnlocked();
+            }
+        } finally {
+            publishUnlocked();
+            lock.unlock();
         }
 
-        log("SYSTEM", "Stopped");
+        if (target == FloorSet.NONE) {
+            scheduleStep(1);
+            return;
+        }
+        if (target == currentFloor) {
+            arriveAt(target);
+            return;
+        }
+
+        moveTarget = target;
+        moveStep = (target > currentFloor) ? 1 : -1;
+        startMoving(moveStep);
+        phase = Phase.MOVING;
+        moveStepStartedAt = scheduler.now();
+        scheduleStep(Config.TIME_MOVE_ONE_FLOOR);
+    }
+
+    private void stepMove() {
+        moveStepStartedAt = -1;
+        int reached = advanceOneFloor(moveStep);
+        if (stopRequestedAt(reached) || reached == moveTarget) {
+            arriveAt(reached);
+            return;
+        }
+        moveStepStartedAt = scheduler.now();
+        scheduleStep(Config.TIME_MOVE_ONE_FLOOR);
+    }
+
+    private void arriveAt(int floor) {
+        clearStopsAtFloor(floor);
+        if (openDoors(floor)) {
+            doorFloor = floor;
+            phase = Phase.DOORS_OPENING;
+            scheduleStep(Config.TIME_DOORS);
+        } else {
+            finishCycle();
+        }
+    }
+
+    private void finishCycle() {
+        flushPendingCallsIfPossible();
+        phase = Phase.PLAN;
+        scheduleStep(0);
+    }
+
+    private void scheduleStep(long delayMs) {
+        scheduler.schedule(delayMs, stepTask);
+    }
+
+    private void clearStopsAtFloor(int floor) {
+        lock.lock();
+        try {
+            removeStopUnlocked(stopsUp, floor);
+            removeStopUnlocked(stopsDown, floor);
+            internalStopsUp.remove(floor);
+            internalStopsDown.remove(floor);
+
+            updateDirectionUnlocked();
+            publishUnlocked();
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void flushPendingCallsIfPossible() {
         if (pendingCalls.isEmpty()) return;
         if (getLoadSafe() >= maxCapacity) {
-            status = ElevatorStatus.LOAD_FULL;
+            setStatus(ElevatorStatus.LOAD_FULL);
             return;
         }
 
@@ -452,14 +620,12 @@ public class Elevator implements Runnable {
         while (it.hasNext()) {
             HallCall c = it.next();
             if (c == null) { it.remove(); continue; }
-            if (!dispatcher.hasWaiting(c.floor(), c.direction())) {
+            if (!dispatcher.hasWaitingFor(this, c.floor(), c.direction())) {
                 it.remove();
                 continue;
             }
 
-            hallCallsByFloor
-                    .computeIfAbsent(c.floor(), f -> EnumSet.noneOf(Direction.class))
-                    .add(c.direction());
+            if (c.direction() != Direction.IDLE) hallCallsFor(c.direction()).add(c.floor());
             addStopUnlocked(c.floor());
             it.remove();
         }
@@ -467,29 +633,65 @@ public class Elevator implements Runnable {
 
     private void addStopUnlocked(int floor) {
         if (floor >= currentFloor) {
-            stopsUp.add(floor);
+            if (stopsUp.add(floor)) routeRefIncUnlocked(floor);
         } else {
-            stopsDown.add(floor);
+            if (stopsDown.add(floor)) routeRefIncUnlocked(floor);
         }
     }
 
+    private void removeStopUnlocked(FloorSet set, int floor) {
+        if (set.remove(floor)) routeRefDecUnlocked(floor);
+    }
+
+    private void routeRefIncUnlocked(int floor) {
+        if (floor < 1 || floor >= routeRefs.length) return;
+        routeRefs[floor]++;
+        if (routeMax == 0 || floor > routeMax) routeMax = floor;
+        if (routeMin == 0 || floor < routeMin) routeMin = floor;
+    }
+
+    private void routeRefDecUnlocked(int floor) {
+        if (floor < 1 || floor >= routeRefs.length) return;
+        if (routeRefs[floor] == 0 || --routeRefs[floor] > 0) return;
+
+        // этаж ушёл из маршрута: сдвигаем границу до следующего занятого этажа
+        if (floor == routeMax) {
+            int f = floor - 1;
+            while (f >= 1 && routeRefs[f] == 0) f--;
+            routeMax = Math.max(f, 0);
+        }
+        if (floor == routeMin) {
+            int f = floor + 1;
+            while (f < routeRefs.length && routeRefs[f] == 0) f++;
+            routeMin = (f < routeRefs.length) ? f : 0;
+        }
+        if (routeMax == 0) routeMin = 0;
+    }
+
+    /** Самая дальняя точка маршрута выше текущего этажа (0 — нет). */
+    private int furthestUpUnlocked() {
+        return (routeMax > currentFloor) ? routeMax : 0;
+    }
+
+    /** Самая дальняя точка маршрута ниже текущего этажа (0 — нет). */
+    private int furthestDownUnlocked() {
+        return (routeMin > 0 && routeMin < currentFloor) ? routeMin : 0;
+    }
+
     private void updateDirectionUnlocked() {
         if (currentDirection == Direction.IDLE) {
-            Integer up = stopsUp.ceiling(currentFloor);
-            if (up == null && !stopsUp.isEmpty()) up = stopsUp.first();
+            int up = ceilingOrFirst(stopsUp, currentFloor);
+            int down = floorOrLast(stopsDown, currentFloor);
 
-            Integer down = stopsDown.floor(currentFloor);
-            if (down == null && !stopsDown.isEmpty()) down = stopsDown.last();
-
-            if (up == null && down == null) {
+            if (up == FloorSet.NONE && down == FloorSet.NONE) {
                 currentDirection = Direction.IDLE;
                 return;
             }
-            if (up == null) {
+            if (up == FloorSet.NONE) {
                 currentDirection = Direction.DOWN;
                 return;
             }
-            if (down == null) {
+            if (down == FloorSet.NONE) {
                 currentDirection = Direction.UP;
                 return;
             }
@@ -507,66 +709,62 @@ public class Elevator implements Runnable {
         }
     }
 
-    private Integer chooseNextTargetUnlocked() {
+    /** Следующая цель по ходу движения или {@link FloorSet#NONE}. */
+    private int chooseNextTargetUnlocked() {
         if (currentDirection == Direction.UP) {
-            Integer t = internalStopsUp.ceiling(currentFloor);
-            if (t == null && !internalStopsUp.isEmpty()) t = internalStopsUp.first();
-            if (t != null) return t;
-
-            Integer h = stopsUp.ceiling(currentFloor);
-            if (h == null && !stopsUp.isEmpty()) h = stopsUp.first();
-            return h;
+            int t = ceilingOrFirst(internalStopsUp, currentFloor);
+            if (t != FloorSet.NONE) return t;
+            return ceilingOrFirst(stopsUp, currentFloor);
         }
 
         if (currentDirection == Direction.DOWN) {
-            Integer t = internalStopsDown.floor(currentFloor);
-            if (t == null && !internalStopsDown.isEmpty()) t = internalStopsDown.last();
-            if (t != null) return t;
-
-            Integer h = stopsDown.floor(currentFloor);
-            if (h == null && !stopsDown.isEmpty()) h = stopsDown.last();
-            return h;
+            int t = floorOrLast(internalStopsDown, currentFloor);
+            if (t != FloorSet.NONE) return t;
+            return floorOrLast(stopsDown, currentFloor);
         }
 
         // IDLE: попробуем выбрать ближайшую внутреннюю цель, иначе ближайший стоп
-        Integer iu = internalStopsUp.ceiling(currentFloor);
-        if (iu == null && !internalStopsUp.isEmpty()) iu = internalStopsUp.first();
-
-        Integer id = internalStopsDown.floor(currentFloor);
-        if (id == null && !internalStopsDown.isEmpty()) id = internalStopsDown.last();
+        int iu = ceilingOrFirst(internalStopsUp, currentFloor);
+        int id = floorOrLast(internalStopsDown, currentFloor);
 
-        if (iu != null || id != null) {
-            if (iu == null) return id;
-            if (id == null) return iu;
+        if (iu != FloorSet.NONE || id != FloorSet.NONE) {
+            if (iu == FloorSet.NONE) return id;
+            if (id == FloorSet.NONE) return iu;
             int du = Math.abs(iu - currentFloor);
             int dd = Math.abs(currentFloor - id);
             return (du <= dd) ? iu : id;
         }
 
         // Нет внутренних целей: берём общий стоп
-        Integer up = stopsUp.ceiling(currentFloor);
-        if (up == null && !stopsUp.isEmpty()) up = stopsUp.first();
+        int up = ceilingOrFirst(stopsUp, currentFloor);
+        int down = floorOrLast(stopsDown, currentFloor);
 
-        Integer down = stopsDown.floor(currentFloor);
-        if (down == null && !stopsDown.isEmpty()) down = stopsDown.last();
-
-        if (up == null) return down;
-        if (down == null) return up;
+        if (up == FloorSet.NONE) return down;
+        if (down == FloorSet.NONE) return up;
 
         int distUp = Math.abs(up - currentFloor);
         int distDown = Math.abs(currentFloor - down);
         return (distUp <= distDown) ? up : down;
     }
 
+    /** Как TreeSet.ceiling(floor), а если выше ничего нет — first(). */
+    private static int ceilingOrFirst(FloorSet set, int floor) {
+        int f = set.ceiling(floor);
+        return (f != FloorSet.NONE) ? f : set.first();
+    }
+
+    /** Как TreeSet.floor(floor), а если ниже ничего нет — last(). */
+    private static int floorOrLast(FloorSet set, int floor) {
+        int f = set.floor(floor);
+        return (f != FloorSet.NONE) ? f : set.last();
+    }
+
     private int moveTo(int target) {
         if (target == currentFloor) return currentFloor;
 
-        status = ElevatorStatus.MOVING;
-
         try {
             int step = (target > currentFloor) ? 1 : -1;
-            // направление движения к цели
-            currentDirection = (step > 0) ? Direction.UP : Direction.DOWN;
+            startMoving(step);
 
             int floorsToTravel = Math.abs(target - currentFloor);
             int tickMs = 40;
@@ -579,23 +777,8 @@ public class Elevator implements Runnable {
                     visualFloorPos += step * (1.0 / substeps);
                 }
 
-                // логический переход на следующий этаж
-                int reached;
-                lock.lock();
-                try {
-                    currentFloor += step;
-                    reached = currentFloor;
-                } finally {
-                    lock.unlock();
-                }
-                visualFloorPos = reached;
-
-                if (shouldStopAtFloor(reached)) {
-                    return reached;
-                }
-
-                if (shouldStopForWaitingAtFloor(reached, currentDirection)) {
-                    dispatcher.claimHallCallAtFloor(reached, currentDirection, this);
+                int reached = advanceOneFloor(step);
+                if (stopRequestedAt(reached)) {
                     return reached;
                 }
             }
@@ -606,6 +789,45 @@ public class Elevator implements Runnable {
         return currentFloor;
     }
 
+    private void startMoving(int step) {
+        lock.lock();
+        try {
+            status = ElevatorStatus.MOVING;
+            // направление движения к цели
+            currentDirection = (step > 0) ? Direction.UP : Direction.DOWN;
+            publishUnlocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // логический переход на следующий этаж
+    private int advanceOneFloor(int step) {
+        int reached;
+        lock.lock();
+        try {
+            currentFloor += step;
+            reached = currentFloor;
+            publishUnlocked();
+        } finally {
+            lock.unlock();
+        }
+        visualFloorPos = reached;
+        journal(JournalEventType.FLOOR, reached, (step > 0) ? Direction.UP : Direction.DOWN);
+        return reached;
+    }
+
+    private boolean stopRequestedAt(int floor) {
+        if (shouldStopAtFloor(floor)) {
+            return true;
+        }
+        if (shouldStopForWaitingAtFloor(floor, currentDirection)) {
+            dispatcher.claimHallCallAtFloor(floor, currentDirection, this);
+            return true;
+        }
+        return false;
+    }
+
     private boolean shouldStopAtFloor(int floor) {
         lock.lock();
         try {
@@ -621,7 +843,7 @@ public class Elevator implements Runnable {
     private boolean shouldStopForWaitingAtFloor(int floor, Direction dir) {
         if (!Config.ENROUTE_PICKUP_ENABLED) return false;
         if (dir != Direction.UP && dir != Direction.DOWN) return false;
-        if (!dispatcher.hasWaiting(floor, dir)) return false;
+        if (!dispatcher.hasWaitingFor(this, floor, dir)) return false;
 
         // Не делаем лишних остановок, если лифт полон.
         if (getLoadSafe() >= maxCapacity) return false;
@@ -654,106 +876,145 @@ public class Elevator implements Runnable {
     }
 
     private void operateDoorsAndExchangePassengers(int floor) {
-        // Защита от «двоения» прибытия: если уже на этаже и двери открыты — не логируем повторно.
-        if (floor == currentFloor && status == ElevatorStatus.DOORS_OPEN) {
+        if (!openDoors(floor)) {
             return;
         }
 
-        log("ARRIVED", "Floor " + floor);
-
         try {
-            status = ElevatorStatus.DOORS_OPEN;
-            log("DOOR", "OPEN");
             SimulationClock.sleep(Config.TIME_DOORS);
 
-            int disembarked;
-            lock.lock();
-            try {
-                disembarked = unloadPassengersUnlocked(floor);
-            } finally {
-                lock.unlock();
-            }
-            if (disembarked > 0) {
-                log("DISEMBARK", disembarked + " passengers");
+            int boarded = exchangePassengers(floor);
+            if (boarded > 0) {
+                // время посадки
+                SimulationClock.sleep((long) Config.TIME_BOARDING * boarded);
             }
 
-            final EnumSet<Direction> allowed;
-            lock.lock();
-            try {
-                EnumSet<Direction> set = hallCallsByFloor.get(floor);
-                allowed = (set == null) ? EnumSet.noneOf(Direction.class) : EnumSet.copyOf(set);
-            } finally {
-                lock.unlock();
-            }
+            releaseServedHallCalls(floor);
 
-            EnumSet<Direction> allowedForBoarding = allowed;
-            if (allowedForBoarding.isEmpty()) {
-                allowedForBoarding = EnumSet.of(Direction.UP, Direction.DOWN);
-            }
+            SimulationClock.sleep(Config.TIME_DOORS);
+            closeDoors();
 
-            Direction boardingDir = chooseBoardingDirection(floor, allowedForBoarding);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            int freeSpace;
-            lock.lock();
-            try {
-                freeSpace = maxCapacity - passengersInside.size();
+    private boolean openDoors(int floor) {
+        // Защита от «двоения» прибытия: если уже на этаже и двери открыты — не логируем повторно.
+        if (floor == currentFloor && status == ElevatorStatus.DOORS_OPEN) {
+            return false;
+        }
 
-                // обновляем статус FULL, если нужно
-                if (freeSpace <= 0) status = ElevatorStatus.LOAD_FULL;
-            } finally {
-                lock.unlock();
-            }
+        log(LogLevel.DEBUG, "ARRIVED", "Floor " + floor);
+
+        lock.lock();
+        try {
+            doorExchangeDone = false;
+        } finally {
+            lock.unlock();
+        }
+        setStatus(ElevatorStatus.DOORS_OPEN);
+        journal(JournalEventType.DOOR_OPEN, floor, currentDirection);
+        log(LogLevel.DEBUG, "DOOR", "OPEN");
+        return true;
+    }
 
-            List<Passenger> boarding = List.of();
-            if (boardingDir != null && freeSpace > 0) {
-                boarding = dispatcher.boardPassengers(floor, boardingDir, freeSpace);
+    /** Высадка и посадка при открытых дверях. Возвращает число вошедших. */
+    private int exchangePassengers(int floor) {
+        int disembarked;
+        lock.lock();
+        try {
+            disembarked = unloadPassengersUnlocked(floor);
+            publishUnlocked();
+        } finally {
+            lock.unlock();
+        }
+        if (disembarked > 0) {
+            log("DISEMBARK", disembarked + " passengers");
+        }
 
-                if (!boarding.isEmpty()) {
-                    // добавляем внутрь и ставим внутренние цели
-                    lock.lock();
-                    try {
-                        for (Passenger p : boarding) {
-                            passengersInside.add(p);
-                        }
-                    } finally {
-                        lock.unlock();
-                    }
+        final EnumSet<Direction> allowed = EnumSet.noneOf(Direction.class);
+        lock.lock();
+        try {
+            if (hallCallsUp.contains(floor)) allowed.add(Direction.UP);
+            if (hallCallsDown.contains(floor)) allowed.add(Direction.DOWN);
+            doorExchangeDone = true;
+        } finally {
+            lock.unlock();
+        }
+        doorAllowed = allowed;
 
-                    for (Passenger p : boarding) {
-                        addInternalStop(p.getTargetFloor());
-                    }
+        EnumSet<Direction> allowedForBoarding = allowed;
+        if (allowedForBoarding.isEmpty()) {
+            allowedForBoarding = EnumSet.of(Direction.UP, Direction.DOWN);
+        }
 
-                    log("BOARD", "Boarded: " + boarding.size() + ", dir=" + boardingDir + ", load=" + getLoadSafe() + "/" + maxCapacity);
+        Direction boardingDir = chooseBoardingDirection(floor, allowedForBoarding);
 
-                    // время посадки
-                    SimulationClock.sleep((long) Config.TIME_BOARDING * boarding.size());
-                }
+        int freeSpace;
+        lock.lock();
+        try {
+            freeSpace = maxCapacity - passengersInside.size();
 
+            // обновляем статус FULL, если нужно
+            if (freeSpace <= 0) {
+                status = ElevatorStatus.LOAD_FULL;
+                publishUnlocked();
             }
+        } finally {
+            lock.unlock();
+        }
 
-            lock.lock();
-            try {
-                EnumSet<Direction> set = hallCallsByFloor.get(floor);
-                if (set != null) {
-                    set.removeAll(allowed);
-                    if (set.isEmpty()) hallCallsByFloor.remove(floor);
+        List<Passenger> boarding = List.of();
+        if (boardingDir != null && freeSpace > 0) {
+            boarding = dispatcher.boardPassengers(this, floor, boardingDir, freeSpace);
+
+            if (!boarding.isEmpty()) {
+                // добавляем внутрь и ставим внутренние цели
+                lock.lock();
+                try {
+                    for (Passenger p : boarding) {
+                        passengersInside.add(p);
+                        onboardTargets[p.getTargetFloor()]++;
+                        routeRefIncUnlocked(p.getTargetFloor());
+                    }
+                    publishUnlocked();
+                } finally {
+                    lock.unlock();
                 }
-            } finally {
-                lock.unlock();
+
+                EventJournal journal = dispatcher.journal();
+                for (Passenger p : boarding) {
+                    addInternalStop(p.getTargetFloor());
+                    journal.append(JournalEventType.BOARD, p.getBoardedAtMs(), id, p.getId(), floor, boardingDir,
+                            (int) p.getWaitTimeMs(), (int) p.getAssignLatencyMs(), 0);
+                }
+
+                log("BOARD", "Boarded: " + boarding.size() + ", dir=" + boardingDir + ", load=" + getLoadSafe() + "/" + maxCapacity);
             }
+        }
+        return boarding.size();
+    }
 
-            SimulationClock.sleep(Config.TIME_DOORS);
-            log("DOOR", "CLOSE");
+    private void releaseServedHallCalls(int floor) {
+        lock.lock();
+        try {
+            if (doorAllowed.contains(Direction.UP)) hallCallsUp.remove(floor);
+            if (doorAllowed.contains(Direction.DOWN)) hallCallsDown.remove(floor);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            status = (getLoadSafe() >= maxCapacity) ? ElevatorStatus.LOAD_FULL : ElevatorStatus.MOVING;
+    private void closeDoors() {
+        journal(JournalEventType.DOOR_CLOSE, currentFloor, currentDirection);
+        log(LogLevel.DEBUG, "DOOR", "CLOSE");
 
-            tryProcessPendingCalls();
+        setStatus((getLoadSafe() >= maxCapacity) ? ElevatorStatus.LOAD_FULL : ElevatorStatus.MOVING);
 
-            dispatcher.notifyElevatorUpdate(this);
+        tryProcessPendingCalls();
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        dispatcher.notifyElevatorUpdate(this);
     }
 
     private void tryProcessPendingCalls() {
@@ -762,7 +1023,7 @@ public class Elevator implements Runnable {
             if (call == null) return;
 
             // Если вызов уже не актуален — просто выбрасываем.
-            if (!dispatcher.hasWaiting(call.floor(), call.direction())) {
+            if (!dispatcher.hasWaitingFor(this, call.floor(), call.direction())) {
                 continue;
             }
 
@@ -778,22 +1039,34 @@ public class Elevator implements Runnable {
 
     private int unloadPassengersUnlocked(int floor) {
         int before = passengersInside.size();
-        passengersInside.removeIf(p -> p.getTargetFloor() == floor);
+        passengersInside.removeIf(p -> {
+            if (p.getTargetFloor() != floor) return false;
+            onboardTargets[floor]--;
+            routeRefDecUnlocked(floor);
+            dispatcher.onPassengerDelivered(p, this);
+            return true;
+        });
         return before - passengersInside.size();
     }
 
+    private FloorSet hallCallsFor(Direction dir) {
+        return (dir == Direction.DOWN) ? hallCallsDown : hallCallsUp;
+    }
+
+    private boolean hasHallCallUnlocked(int floor) {
+        return hallCallsUp.contains(floor) || hallCallsDown.contains(floor);
+    }
+
     private boolean hasInternalNeedForFloorUnlocked(int floor) {
-        for (Passenger p : passengersInside) {
-            if (p.getTargetFloor() == floor) return true;
-        }
-        return false;
+        if (floor < 1 || floor >= onboardTargets.length) return false;
+        return onboardTargets[floor] > 0;
     }
 
     private Direction chooseBoardingDirection(int floor, EnumSet<Direction> allowed) {
         if (allowed == null || allowed.isEmpty()) return null;
 
-        boolean upWaiting = dispatcher.hasWaiting(floor, Direction.UP);
-        boolean downWaiting = dispatcher.hasWaiting(floor, Direction.DOWN);
+        boolean upWaiting = dispatcher.hasWaitingFor(this, floor, Direction.UP);
+        boolean downWaiting = dispatcher.hasWaitingFor(this, floor, Direction.DOWN);
 
         boolean upAllowed = allowed.contains(Direction.UP);
         boolean downAllowed = allowed.contains(Direction.DOWN);
@@ -834,8 +1107,8 @@ public class Elevator implements Runnable {
             return upWaiting ? Direction.UP : null;
         }
 
-        int upCnt = dispatcher.getWaitingCount(floor, Direction.UP);
-        int downCnt = dispatcher.getWaitingCount(floor, Direction.DOWN);
+        int upCnt = dispatcher.getWaitingCountFor(this, floor, Direction.UP);
+        int downCnt = dispatcher.getWaitingCountFor(this, floor, Direction.DOWN);
         if (upWaiting && downWaiting) {
             return (upCnt >= downCnt) ? Direction.UP : Direction.DOWN;
         }
@@ -843,20 +1116,28 @@ public class Elevator implements Runnable {
     }
 
     private int getLoadSafe() {
-        lock.lock();
-        try {
-            return passengersInside.size();
-        } finally {
-            lock.unlock();
-        }
+        return published.load();
     }
 
 
     public int getId() { return id; }
     public int getCapacity() { return maxCapacity; }
 
+    /** Событие лифта на этаже в журнал диспетчера (время — по часам диспетчера). */
+    private void journal(JournalEventType type, int floor, Direction dir) {
+        EventJournal journal = dispatcher.journal();
+        if (!journal.isEnabled()) return;
+        journal.append(type, dispatcher.nowMs(), id, 0, floor, dir, 0, 0, 0);
+    }
+
     private void log(String tag, String msg) {
-        String time = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        System.out.printf("[%s][Elevator-%d][%s] %s%n", time, id, tag, msg);
+        log(LogLevel.INFO, tag, msg);
+    }
+
+    private void log(LogLevel level, String tag, String msg) {
+        if (!dispatcher.getSettings().verbose()) return;
+        EventScheduler s = scheduler;
+        long time = (s != null) ? s.now() : System.currentTimeMillis();
+        AsyncLog.log(level, time, s != null, "Elevator", id, tag, msg);
     }
 }
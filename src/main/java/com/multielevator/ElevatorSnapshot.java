@@ -1,6 +1,10 @@
 package com.multielevator;
 
 public final class ElevatorSnapshot {
+
+    /** Результат {@link #nextStop}/{@link #lastStop}, если остановки нет. */
+    public static final int NO_STOP = FloorSet.NONE;
+
     private final int id;
     private final int currentFloor;
     private final Direction direction;
@@ -10,6 +14,9 @@ public final class ElevatorSnapshot {
     private final int plannedStops;
     private final int furthestUpStop;
     private final int furthestDownStop;
+    // неизменяемые копии (лифт пересоздаёт их при изменении); null — план неизвестен
+    private final FloorSet stops;
+    private final FloorSet hallCalls;
 
     public ElevatorSnapshot(int id,
                            int currentFloor,
@@ -20,6 +27,21 @@ public final class ElevatorSnapshot {
                            int plannedStops,
                            int furthestUpStop,
                            int furthestDownStop) {
+        this(id, currentFloor, direction, status, load, capacity, plannedStops, furthestUpStop, furthestDownStop,
+                null, null);
+    }
+
+    ElevatorSnapshot(int id,
+                     int currentFloor,
+                     Direction direction,
+                     ElevatorStatus status,
+                     int load,
+                     int capacity,
+                     int plannedStops,
+                     int furthestUpStop,
+                     int furthestDownStop,
+                     FloorSet stops,
+                     FloorSet hallCalls) {
         this.id = id;
         this.currentFloor = currentFloor;
         this.direction = direction;
@@ -29,6 +51,8 @@ public final class ElevatorSnapshot {
         this.plannedStops = plannedStops;
         this.furthestUpStop = furthestUpStop;
         this.furthestDownStop = furthestDownStop;
+        this.stops = stops;
+        this.hallCalls = hallCalls;
     }
 
     public int id() { return id; }
@@ -44,4 +68,36 @@ public final class ElevatorSnapshot {
 
     public boolean hasUpWork() { return furthestUpStop > 0; }
     public boolean hasDownWork() { return furthestDownStop > 0; }
+
+    /** Ближайшая запланированная остановка строго выше (UP) или ниже (DOWN) floor, иначе {@link #NO_STOP}. */
+    public int nextStop(int floor, Direction dir) {
+        if (stops == null) return NO_STOP;
+        if (dir == Direction.UP) return stops.ceiling(floor + 1);
+        if (dir == Direction.DOWN) return stops.floor(floor - 1);
+        return NO_STOP;
+    }
+
+    /** Самая дальняя запланированная остановка строго выше (UP) или ниже (DOWN) floor, иначе {@link #NO_STOP}. */
+    public int lastStop(int floor, Direction dir) {
+        if (stops == null) return NO_STOP;
+        if (dir == Direction.UP) {
+            int last = stops.last();
+            return (last > floor) ? last : NO_STOP;
+        }
+        if (dir == Direction.DOWN) {
+            int first = stops.first();
+            return (first != NO_STOP && first < floor) ? first : NO_STOP;
+        }
+        return NO_STOP;
+    }
+
+    /** Есть ли остановка на этом этаже в плане лифта. */
+    public boolean hasStopAt(int floor) {
+        return stops != null && stops.contains(floor);
+    }
+
+    /** Принят ли лифтом hall-call на этом этаже (в любом направлении): там будет посадка. */
+    public boolean hasHallCallAt(int floor) {
+        return hallCalls != null && hallCalls.contains(floor);
+    }
 }
@@ -0,0 +1,118 @@
+package com.multielevator;
+
+/**
+ * Стоимость — оценка времени прибытия лифта к вызову в миллисекундах ({@value #NAME}).
+ * Оценка проходит план остановок лифта так, как он его объезжает: до последней
+ * остановки по ходу, разворот, до последней в обратную сторону. Каждый этаж стоит
+ * {@link Config#TIME_MOVE_ONE_FLOOR}, каждая промежуточная остановка — открытие и закрытие
+ * дверей ({@link Config#TIME_DOORS}) плюс посадка одного человека ({@link Config#TIME_BOARDING}),
+ * если там принят hall-call. Вызов попутного направления берётся на первом проходе,
+ * встречный — на развороте.
+ *
+ * Назначенные лифту вызовы уже стоят в его плане, поэтому отдельного штрафа за них нет:
+ * их число решает только ничьи.
+ */
+public final class EtaStrategy implements DispatchStrategy {
+
+    public static final String NAME = "eta";
+
+    // остановка без посадки: двери открываются и закрываются
+    private static final int STOP_DWELL_MS = 2 * Config.TIME_DOORS;
+
+    private final SimulationSettings settings;
+
+    public EtaStrategy(SimulationSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int cost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        long eta = etaMs(s, call) + (long) settings.zonePenalty(s.id(), call.floor()) * Config.TIME_MOVE_ONE_FLOOR;
+        return (int) Math.min(Integer.MAX_VALUE, eta);
+    }
+
+    /** Через сколько мс лифт откроет двери на этаже вызова, если взять вызов сейчас. */
+    public long etaMs(ElevatorSnapshot s, HallCall call) {
+        int target = call.floor();
+        int at = s.currentFloor();
+        boolean doorsOpen = s.status() == ElevatorStatus.DOORS_OPEN;
+        long t = doorsOpen ? Config.TIME_DOORS : 0;
+        Direction dir = s.direction();
+
+        if (target == at && (dir == Direction.IDLE || (doorsOpen && dir == call.direction()))) return t;
+        if (dir == Direction.IDLE) dir = (target > at) ? Direction.UP : Direction.DOWN;
+
+        // [lo, hi] — этажи, уже пройденные оценкой: их остановки обслужены
+        int lo = at;
+        int hi = at;
+        for (int pass = 0; pass < 3; pass++) {
+            int from = (dir == Direction.UP) ? hi : lo;
+            int last = s.lastStop(from, dir);
+            int end = (last == ElevatorSnapshot.NO_STOP) ? at : last;
+            boolean ahead = (dir == Direction.UP) ? target > at : target < at;
+            boolean atTurn = (dir == Direction.UP) ? target >= end : target <= end;
+            if ((ahead || (pass > 0 && target == at)) && (call.direction() == dir || atTurn)) {
+                return t + travelMs(s, at, from, target, dir);
+            }
+            if (last != ElevatorSnapshot.NO_STOP) {
+                t += travelMs(s, at, from, end, dir) + dwellMs(s, end);
+            }
+            at = end;
+            lo = Math.min(lo, end);
+            hi = Math.max(hi, end);
+            dir = (dir == Direction.UP) ? Direction.DOWN : Direction.UP;
+        }
+        return t + (long) Math.abs(at - target) * Config.TIME_MOVE_ONE_FLOOR;
+    }
+
+    // путь от at до to плюс остановки строго между from и to
+    private static long travelMs(ElevatorSnapshot s, int at, int from, int to, Direction dir) {
+        long t = (long) Math.abs(to - at) * Config.TIME_MOVE_ONE_FLOOR;
+        for (int f = s.nextStop(from, dir);
+             f != ElevatorSnapshot.NO_STOP && ((dir == Direction.UP) ? f < to : f > to);
+             f = s.nextStop(f, dir)) {
+            t += dwellMs(s, f);
+        }
+        return t;
+    }
+
+    private static long dwellMs(ElevatorSnapshot s, int floor) {
+        return s.hasHallCallAt(floor) ? STOP_DWELL_MS + Config.TIME_BOARDING : STOP_DWELL_MS;
+    }
+
+    /** Меньше назначенных вызовов, затем меньше остановок, затем меньше загрузка. */
+    @Override
+    public boolean preferOnTie(ElevatorSnapshot candidate, int candidateAssigned, ElevatorSnapshot best, int bestAssigned) {
+        if (candidateAssigned != bestAssigned) return candidateAssigned < bestAssigned;
+        if (candidate.plannedStops() != best.plannedStops()) return candidate.plannedStops() < best.plannedStops();
+        return candidate.load() < best.load();
+    }
+
+    @Override
+    public int reservedCost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        return cost(s, call, assignedCalls);
+    }
+
+    @Override
+    public int reserveCost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        return Math.abs(s.currentFloor() - call.floor()) * Config.TIME_MOVE_ONE_FLOOR;
+    }
+
+    @Override
+    public boolean keepAssignment(ElevatorSnapshot assigned, HallCall call) {
+        return Math.abs(assigned.currentFloor() - call.floor()) <= 1;
+    }
+
+    /** Если другой лифт приедет раньше хотя бы на {@link Config#CALL_REASSIGN_MIN_GAIN_MS}. */
+    @Override
+    public boolean shouldReassign(ElevatorSnapshot assigned, int assignedCalls,
+                                  ElevatorSnapshot candidate, int candidateCalls, HallCall call) {
+        return (long) cost(assigned, call, assignedCalls) - cost(candidate, call, candidateCalls)
+                >= Config.CALL_REASSIGN_MIN_GAIN_MS;
+    }
+}
@@ -0,0 +1,130 @@
+package com.multielevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Двоичный журнал событий симуляции: только дописывание, записи фиксированной длины
+ * ({@link #RECORD_SIZE} байт), чтобы журнал можно было читать потоком и переходить
+ * к записи по номеру без индекса.
+ *
+ * Записи копятся в direct ByteBuffer и уходят в FileChannel пачкой, когда буфер
+ * заполнен, и при {@link #close()}. Писать можно из любых потоков: запись под
+ * коротким synchronized (одно копирование ~32 байт).
+ *
+ * Формат: заголовок {@link #HEADER_SIZE} байт (magic, версия, размер записи; этажи, лифты,
+ * вместимость и граница зон — для воспроизведения), затем
+ * записи: time(8) type(1) dir(1) extra(2) elevator(4) passenger(4) floor(4) value(4) value2(4),
+ * little-endian. Смысл полей по типам — в {@link JournalEventType}.
+ */
+public final class EventJournal implements Closeable {
+
+    static final int MAGIC = 0x4A564C45; // "ELVJ"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 32;
+
+    /** Журнал-заглушка: ничего не пишет. */
+    public static final EventJournal DISABLED = new EventJournal(null, 0);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long records;
+
+    private EventJournal(FileChannel channel, int bufferBytes) {
+        this.channel = channel;
+        this.buffer = (channel == null) ? null
+                : ByteBuffer.allocateDirect(Math.max(RECORD_SIZE, bufferBytes - bufferBytes % RECORD_SIZE))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Создаёт (перезаписывает) файл журнала прогона с параметрами settings;
+     * path == null — {@link #DISABLED}.
+     */
+    public static EventJournal open(Path path, SimulationSettings settings) throws IOException {
+        if (path == null) return DISABLED;
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE)
+                .putShort((short) settings.floors())
+                .putShort((short) settings.elevatorsCount())
+                .putShort((short) settings.elevatorCapacity())
+                .putShort((short) (settings.zoningEnabled() ? settings.zoneSplitFloor() : 0));
+        header.flip();
+        while (header.hasRemaining()) ch.write(header);
+        return new EventJournal(ch, Config.JOURNAL_BUFFER_BYTES);
+    }
+
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    /** Сколько записей принято (включая ещё не сброшенные в файл). */
+    public synchronized long recordCount() {
+        return records;
+    }
+
+    public void append(JournalEventType type, long timeMs, int elevatorId, int passengerId,
+                       int floor, Direction dir, int value, int value2, int extra) {
+        if (channel == null) return;
+        synchronized (this) {
+            if (!buffer.hasRemaining()) writeBuffer();
+            buffer.putLong(timeMs)
+                    .put((byte) type.ordinal())
+                    .put(directionCode(dir))
+                    .putShort((short) extra)
+                    .putInt(elevatorId)
+                    .putInt(passengerId)
+                    .putInt(floor)
+                    .putInt(value)
+                    .putInt(value2);
+            records++;
+        }
+    }
+
+    /** Сбрасывает накопленные записи в файл. */
+    public synchronized void flush() {
+        if (channel == null) return;
+        writeBuffer();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null || !channel.isOpen()) return;
+        writeBuffer();
+        channel.close();
+    }
+
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal write failed", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    static byte directionCode(Direction dir) {
+        if (dir == Direction.UP) return 1;
+        if (dir == Direction.DOWN) return 2;
+        return 0;
+    }
+
+    static Direction directionOf(byte code) {
+        return switch (code) {
+            case 1 -> Direction.UP;
+            case 2 -> Direction.DOWN;
+            default -> Direction.IDLE;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.multielevator;
+
+/**
+ * Источник времени и планировщик отложенных действий для лифтов и диспетчера.
+ *
+ * Когда планировщик подключён, лифт не держит собственный поток и не спит:
+ * каждый шаг (проезд этажа, двери, посадка) планируется как событие.
+ */
+public interface EventScheduler {
+
+    /** Текущее время симуляции, мс. */
+    long now();
+
+    /** Выполнить задачу через delayMs миллисекунд времени симуляции. */
+    void schedule(long delayMs, Runnable task);
+}
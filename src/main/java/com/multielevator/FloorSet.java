@@ -0,0 +1,132 @@
+package com.multielevator;
+
+import java.util.Arrays;
+
+/**
+ * Множество этажей на битах (long[]), замена TreeSet&lt;Integer&gt; для остановок лифта:
+ * без упаковки в Integer и без узлов дерева. ceiling/floor ищут соседний этаж
+ * по словам, как BitSet.nextSetBit/previousSetBit. Этажи вне [0, maxFloor] не хранятся.
+ *
+ * Диспетчер хранит в нём же множества индексов вызовов (CallTable.index).
+ *
+ * Не потокобезопасно: в Elevator всё под lock, в Dispatcher — только поток разбора событий.
+ */
+final class FloorSet {
+
+    /** Результат поиска, если подходящего этажа нет. */
+    static final int NONE = -1;
+
+    private final long[] words;
+    private final int limit;
+    private int size;
+
+    FloorSet(int maxFloor) {
+        this.limit = maxFloor + 1;
+        this.words = new long[(limit + 63) >>> 6];
+    }
+
+    /** @return true, если этажа ещё не было */
+    boolean add(int floor) {
+        if (floor < 0 || floor >= limit) return false;
+        int w = floor >>> 6;
+        long bit = 1L << floor;
+        if ((words[w] & bit) != 0) return false;
+        words[w] |= bit;
+        size++;
+        return true;
+    }
+
+    /** @return true, если этаж был в множестве */
+    boolean remove(int floor) {
+        if (floor < 0 || floor >= limit) return false;
+        int w = floor >>> 6;
+        long bit = 1L << floor;
+        if ((words[w] & bit) == 0) return false;
+        words[w] &= ~bit;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        if (size == 0) return;
+        Arrays.fill(words, 0L);
+        size = 0;
+    }
+
+    boolean contains(int floor) {
+        if (floor < 0 || floor >= limit) return false;
+        return (words[floor >>> 6] & (1L << floor)) != 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Наименьший этаж &gt;= floor или {@link #NONE}. */
+    int ceiling(int floor) {
+        if (size == 0) return NONE;
+        if (floor < 0) floor = 0;
+        if (floor >= limit) return NONE;
+        int w = floor >>> 6;
+        long word = words[w] & (-1L << floor);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == words.length) return NONE;
+            word = words[w];
+        }
+    }
+
+    /** Наибольший этаж &lt;= floor или {@link #NONE}. */
+    int floor(int floor) {
+        if (size == 0 || floor < 0) return NONE;
+        if (floor >= limit) floor = limit - 1;
+        int w = floor >>> 6;
+        long word = words[w] & (-1L >>> (63 - (floor & 63)));
+        while (true) {
+            if (word != 0) return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            if (w-- == 0) return NONE;
+            word = words[w];
+        }
+    }
+
+    int first() {
+        return ceiling(0);
+    }
+
+    /** Новое множество a ∪ b (одного размера). */
+    static FloorSet union(FloorSet a, FloorSet b) {
+        FloorSet u = new FloorSet(a.limit - 1);
+        for (int w = 0; w < u.words.length; w++) {
+            u.words[w] = a.words[w] | b.words[w];
+            u.size += Long.bitCount(u.words[w]);
+        }
+        return u;
+    }
+
+    /** true, если множество совпадает с a ∪ b (одного размера). */
+    boolean isUnionOf(FloorSet a, FloorSet b) {
+        for (int w = 0; w < words.length; w++) {
+            if (words[w] != (a.words[w] | b.words[w])) return false;
+        }
+        return true;
+    }
+
+    int last() {
+        return floor(limit - 1);
+    }
+
+    /** Строка вида [2, 5, 9] — для логов. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int f = first(); f != NONE; f = ceiling(f + 1)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(f);
+        }
+        return sb.append(']').toString();
+    }
+}
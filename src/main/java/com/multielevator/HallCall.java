@@ -37,7 +37,7 @@ public final class HallCall implements Comparable<HallCall> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(floor, direction);
+        return 31 * floor + direction.ordinal();
     }
 
     @Override
@@ -0,0 +1,33 @@
+package com.multielevator;
+
+/**
+ * Что пассажир вводит на этаже и кого диспетчер назначает лифту.
+ */
+public enum HallControl {
+    /**
+     * Кнопки «вверх» / «вниз»: лифту назначается вызов (этаж + направление),
+     * садятся все, кто ждёт в этом направлении; этаж назначения известен только в кабине.
+     */
+    UP_DOWN,
+    /**
+     * Панель назначения (destination control): пассажир сразу вводит этаж назначения,
+     * и диспетчер закрепляет за ним конкретный лифт. Садятся только закреплённые за лифтом;
+     * пассажиров с одинаковым этажом назначения выгодно собирать в один лифт,
+     * чтобы у него было меньше остановок.
+     */
+    DESTINATION;
+
+    /** Разбор значения из командной строки: up-down / destination. */
+    public static HallControl parse(String v) {
+        return switch (v.trim().toLowerCase()) {
+            case "up-down", "updown", "up_down" -> UP_DOWN;
+            case "destination", "dd" -> DESTINATION;
+            default -> throw new IllegalArgumentException("Unknown hall control: " + v);
+        };
+    }
+
+    /** Имя для командной строки и CSV. */
+    public String label() {
+        return (this == UP_DOWN) ? "up-down" : "destination";
+    }
+}
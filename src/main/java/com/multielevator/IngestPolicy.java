@@ -0,0 +1,30 @@
+package com.multielevator;
+
+/**
+ * Что делать с новым запросом пассажира, когда очередь ожидающих
+ * (принятые, но ещё не севшие в лифт) достигла ёмкости
+ * {@link SimulationSettings#ingestCapacity()}.
+ */
+public enum IngestPolicy {
+    /**
+     * Придержать производителя, пока не освободится место. В потоковом режиме
+     * поток генератора ждёт; в режиме событий генератор получает
+     * {@link RequestRejectReason#DEFERRED} и повторяет запрос через
+     * {@link Config#INGEST_RETRY_MS} виртуального времени.
+     */
+    BLOCK,
+    /** Отклонить запрос ({@link RequestRejectReason#QUEUE_FULL}). */
+    REJECT,
+    /** Принять запрос, выбросив самого давно ожидающего пассажира. */
+    SHED_OLDEST;
+
+    /** Разбор значения из командной строки: block / reject / shed. */
+    public static IngestPolicy parse(String v) {
+        return switch (v.trim().toLowerCase()) {
+            case "block" -> BLOCK;
+            case "reject" -> REJECT;
+            case "shed", "shed-oldest", "shed_oldest" -> SHED_OLDEST;
+            default -> throw new IllegalArgumentException("Unknown ingest policy: " + v);
+        };
+    }
+}
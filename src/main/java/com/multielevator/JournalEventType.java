@@ -0,0 +1,43 @@
+package com.multielevator;
+
+/**
+ * Тип записи {@link EventJournal}. В файле хранится ordinal, поэтому новые
+ * типы добавляются только в конец.
+ *
+ * Поля записи по типам (elevator / passenger / floor / value / value2 / extra):
+ * <ul>
+ *   <li>REQUEST — пассажир, этаж вызова, value = этаж назначения;</li>
+ *   <li>REJECT — пассажир, этаж, value = этаж назначения, extra = {@link RequestRejectReason};</li>
+ *   <li>SHED — пассажир, этаж, value = сколько ждал, мс;</li>
+ *   <li>ASSIGN — лифт, этаж вызова, value = стоимость, extra = {@code Dispatcher.PickMode};
+ *       при {@link HallControl#DESTINATION} — и пассажир, закреплённый за лифтом;</li>
+ *   <li>REASSIGN — лифт, с которого снят вызов (или пассажир), этаж, extra = 0 (есть лучше) / 1 (не может обслужить);</li>
+ *   <li>CLAIM — лифт, забравший вызов на этаже, value = прежний лифт (0 — не было);</li>
+ *   <li>DOOR_OPEN / DOOR_CLOSE — лифт, этаж;</li>
+ *   <li>BOARD — лифт, пассажир, этаж, value = ожидание, value2 = до назначения, мс;</li>
+ *   <li>ALIGHT — лифт, пассажир, этаж, value = весь путь, value2 = в кабине, мс;</li>
+ *   <li>FLOOR — лифт проехал/достиг этажа.</li>
+ * </ul>
+ */
+public enum JournalEventType {
+    REQUEST,
+    REJECT,
+    SHED,
+    ASSIGN,
+    REASSIGN,
+    CLAIM,
+    DOOR_OPEN,
+    DOOR_CLOSE,
+    BOARD,
+    ALIGHT,
+    FLOOR;
+
+    private static final JournalEventType[] VALUES = values();
+
+    static JournalEventType of(int code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown journal event code: " + code);
+        }
+        return VALUES[code];
+    }
+}
@@ -0,0 +1,102 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разреженный индекс времени по журналу: опорная точка на каждые
+ * {@link Config#REPLAY_KEYFRAME_RECORDS} записей хранит номер записи, время и копию
+ * {@link ReplayState} перед ней. Перемотка к моменту T — двоичный поиск точки,
+ * копия её состояния и дочитывание не больше одного интервала записей, а не
+ * повтор всего журнала с начала.
+ *
+ * Строится одним проходом по журналу; заодно считает KPI всего прогона.
+ */
+final class JournalIndex {
+
+    private final long[] times;
+    private final long[] records;
+    private final ReplayState[] states;
+    private final long startMs;
+    private final long endMs;
+    private final JournalStats totals;
+
+    private JournalIndex(List<Keyframe> keyframes, long startMs, long endMs, JournalStats totals) {
+        int n = keyframes.size();
+        this.times = new long[n];
+        this.records = new long[n];
+        this.states = new ReplayState[n];
+        for (int i = 0; i < n; i++) {
+            Keyframe k = keyframes.get(i);
+            times[i] = k.timeMs;
+            records[i] = k.record;
+            states[i] = k.state;
+        }
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.totals = totals;
+    }
+
+    /** Читает журнал от начала до конца; читатель остаётся в конце. */
+    static JournalIndex build(JournalReader reader, int recordsPerKeyframe) throws IOException {
+        reader.seek(0);
+        ReplayState state = new ReplayState(reader.settings());
+        List<Keyframe> keyframes = new ArrayList<>();
+        keyframes.add(new Keyframe(Long.MIN_VALUE, 0, state.copy()));
+
+        long start = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long record = 0;
+        while (reader.next()) {
+            if (record > 0 && record % recordsPerKeyframe == 0) {
+                keyframes.add(new Keyframe(maxTime, record, state.copy()));
+            }
+            state.apply(reader);
+            start = Math.min(start, reader.timeMs());
+            // время в потоковом режиме может чуть скакать между потоками; точки держим монотонными
+            maxTime = Math.max(maxTime, reader.timeMs());
+            record++;
+        }
+        if (record == 0) {
+            start = 0;
+            maxTime = 0;
+        }
+        return new JournalIndex(keyframes, start, maxTime, state.stats());
+    }
+
+    long startMs() { return startMs; }
+    long endMs() { return endMs; }
+    int size() { return times.length; }
+
+    /** KPI всего журнала. */
+    JournalStats totals() { return totals; }
+
+    /** Последняя опорная точка не позже timeMs (первая есть всегда). */
+    int floorIndex(long timeMs) {
+        int lo = 0;
+        int hi = times.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (times[mid] <= timeMs) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    long record(int keyframe) { return records[keyframe]; }
+    long time(int keyframe) { return times[keyframe]; }
+    ReplayState state(int keyframe) { return states[keyframe]; }
+
+    private static final class Keyframe {
+        final long timeMs;
+        final long record;
+        final ReplayState state;
+
+        Keyframe(long timeMs, long record, ReplayState state) {
+            this.timeMs = timeMs;
+            this.record = record;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.multielevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Потоковое чтение {@link EventJournal}: файл читается окнами фиксированного размера
+ * в один direct-буфер, а текущая запись доступна через геттеры самого читателя
+ * (без объекта на запись). Память не зависит от размера журнала. Записи одной длины,
+ * поэтому {@link #seek} переходит к записи по номеру без чтения предыдущих.
+ *
+ * <pre>
+ * try (JournalReader r = JournalReader.open(path)) {
+ *     while (r.next()) { ... r.type() ... r.timeMs() ... }
+ * }
+ * </pre>
+ *
+ * Запуск как программы печатает KPI, восстановленные по журналу:
+ * {@code java com.multielevator.JournalReader run.elj}
+ */
+public final class JournalReader implements Closeable {
+
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long recordCount;
+    private final SimulationSettings settings;
+    private long position;
+
+    private JournalEventType type;
+    private long timeMs;
+    private Direction direction;
+    private int extra;
+    private int elevatorId;
+    private int passengerId;
+    private int floor;
+    private int value;
+    private int value2;
+
+    private JournalReader(FileChannel channel, SimulationSettings settings) throws IOException {
+        this.channel = channel;
+        this.settings = settings;
+        this.buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES - READ_BUFFER_BYTES % EventJournal.RECORD_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.recordCount = (channel.size() - EventJournal.HEADER_SIZE) / EventJournal.RECORD_SIZE;
+    }
+
+    public static JournalReader open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(EventJournal.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // дочитываем заголовок
+            }
+            header.flip();
+            if (header.remaining() < EventJournal.HEADER_SIZE || header.getInt() != EventJournal.MAGIC) {
+                throw new IOException("Not an event journal: " + path);
+            }
+            short version = header.getShort();
+            short recordSize = header.getShort();
+            if (version != EventJournal.VERSION || recordSize != EventJournal.RECORD_SIZE) {
+                throw new IOException("Unsupported journal version " + version + "/" + recordSize + ": " + path);
+            }
+            SimulationSettings.Builder building = SimulationSettings.builder()
+                    .floors(Math.max(2, header.getShort()))
+                    .elevatorsCount(Math.max(1, header.getShort()))
+                    .elevatorCapacity(Math.max(1, header.getShort()))
+                    .verbose(false);
+            short zoneSplit = header.getShort();
+            building.zoningEnabled(zoneSplit > 0).zoneSplitFloor(zoneSplit);
+            JournalReader r = new JournalReader(ch, building.build());
+            r.buffer.limit(0);
+            return r;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Число полных записей в файле. */
+    public long recordCount() {
+        return recordCount;
+    }
+
+    /** Здание записанного прогона: этажи, лифты, вместимость, зоны. */
+    public SimulationSettings settings() {
+        return settings;
+    }
+
+    /** Номер записи, которую вернёт следующий {@link #next()}. */
+    public long position() {
+        return position;
+    }
+
+    /** Следующим {@link #next()} читать запись с номером recordIndex. */
+    public void seek(long recordIndex) throws IOException {
+        long idx = Math.max(0, Math.min(recordIndex, recordCount));
+        channel.position(EventJournal.HEADER_SIZE + idx * EventJournal.RECORD_SIZE);
+        buffer.clear().limit(0);
+        position = idx;
+    }
+
+    /** Переходит к следующей записи. @return false, если записей больше нет */
+    public boolean next() throws IOException {
+        if (buffer.remaining() < EventJournal.RECORD_SIZE) {
+            buffer.compact();
+            while (buffer.position() < EventJournal.RECORD_SIZE) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+            if (buffer.remaining() < EventJournal.RECORD_SIZE) return false; // конец или обрезанная запись
+        }
+        timeMs = buffer.getLong();
+        type = JournalEventType.of(buffer.get());
+        direction = EventJournal.directionOf(buffer.get());
+        extra = buffer.getShort();
+        elevatorId = buffer.getInt();
+        passengerId = buffer.getInt();
+        floor = buffer.getInt();
+        value = buffer.getInt();
+        value2 = buffer.getInt();
+        position++;
+        return true;
+    }
+
+    public JournalEventType type() { return type; }
+    public long timeMs() { return timeMs; }
+    public Direction direction() { return direction; }
+    public int extra() { return extra; }
+    public int elevatorId() { return elevatorId; }
+    public int passengerId() { return passengerId; }
+    public int floor() { return floor; }
+    public int value() { return value; }
+    public int value2() { return value2; }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.multielevator.JournalReader <journal>");
+            System.exit(2);
+        }
+        long wallStart = System.nanoTime();
+        JournalStats stats = new JournalStats();
+        try (JournalReader r = open(Path.of(args[0]))) {
+            while (r.next()) {
+                stats.accept(r);
+            }
+        }
+        long wallMs = (System.nanoTime() - wallStart) / 1_000_000L;
+        System.out.println(stats.summary());
+        System.out.println("read " + stats.records() + " records in " + wallMs + " ms");
+    }
+}
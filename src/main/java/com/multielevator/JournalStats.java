@@ -0,0 +1,63 @@
+package com.multielevator;
+
+import java.util.Locale;
+
+/**
+ * KPI, восстановленные по журналу событий. Записи BOARD и ALIGHT сами несут длительности
+ * этапов, поэтому состояние по пассажирам не нужно и память постоянна.
+ */
+public final class JournalStats {
+
+    private final long[] counts = new long[JournalEventType.values().length];
+    private final LatencyHistogram assign = new LatencyHistogram();
+    private final LatencyHistogram wait = new LatencyHistogram();
+    private final LatencyHistogram ride = new LatencyHistogram();
+    private final LatencyHistogram journey = new LatencyHistogram();
+    private long records;
+    private long firstTimeMs = Long.MAX_VALUE;
+    private long lastTimeMs = Long.MIN_VALUE;
+
+    public void accept(JournalReader r) {
+        records++;
+        counts[r.type().ordinal()]++;
+        firstTimeMs = Math.min(firstTimeMs, r.timeMs());
+        lastTimeMs = Math.max(lastTimeMs, r.timeMs());
+        switch (r.type()) {
+            case BOARD -> {
+                wait.record(r.value());
+                assign.record(r.value2());
+            }
+            case ALIGHT -> {
+                journey.record(r.value());
+                ride.record(r.value2());
+            }
+            default -> { }
+        }
+    }
+
+    public long records() { return records; }
+    public long count(JournalEventType type) { return counts[type.ordinal()]; }
+    public LatencyHistogram waitTime() { return wait; }
+    public LatencyHistogram journeyTime() { return journey; }
+
+    /** Длительность записанного отрезка, мс. */
+    public long spanMs() {
+        return (records == 0) ? 0 : lastTimeMs - firstTimeMs;
+    }
+
+    public String summary() {
+        long span = spanMs();
+        long delivered = count(JournalEventType.ALIGHT);
+        double throughput = (span <= 0) ? 0.0 : delivered * 300_000.0 / span;
+        return String.format(Locale.US,
+                "requested=%d, rejected=%d, shed=%d, boarded=%d, delivered=%d, span=%s, throughput=%.2f/5min%n"
+                        + "assign  %s%nwait    %s (avg %.1f)%nride    %s%njourney %s (avg %.1f)%n"
+                        + "assignments=%d, reassigns=%d, claims=%d, door cycles=%d, floors passed=%d",
+                count(JournalEventType.REQUEST), count(JournalEventType.REJECT), count(JournalEventType.SHED),
+                count(JournalEventType.BOARD), delivered, VirtualTimeEngine.formatTime(span), throughput,
+                assign.summary(), wait.summary(), wait.mean(), ride.summary(),
+                journey.summary(), journey.mean(),
+                count(JournalEventType.ASSIGN), count(JournalEventType.REASSIGN), count(JournalEventType.CLAIM),
+                count(JournalEventType.DOOR_OPEN), count(JournalEventType.FLOOR));
+    }
+}
@@ -0,0 +1,85 @@
+package com.multielevator;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек (мс) без блокировок: лог-линейные корзины в духе HdrHistogram.
+ * Значения до 64 хранятся точно, дальше каждая степень двойки делится на 32 корзины,
+ * то есть относительная погрешность перцентиля не больше ~3%. Запись — один
+ * инкремент в AtomicLongArray, без выделения памяти; читать можно в любой момент.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Записывает значение; отрицательные (этап не наступил) пропускаются. */
+    public void record(long valueMs) {
+        if (valueMs < 0) return;
+        counts.incrementAndGet(bucketOf(valueMs));
+        total.increment();
+        sum.add(valueMs);
+        max.accumulateAndGet(valueMs, Math::max);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = total.sum();
+        return (n == 0) ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Значение, не меньше которого q-я доля записей (q от 0 до 1): верхняя граница
+     * корзины, но не больше максимума. 0, если записей нет.
+     */
+    public long percentile(double q) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        if (n == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBoundOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Строка вида «p50=1200 p95=5400 p99=8100 max=9000 ms». */
+    public String summary() {
+        return String.format(Locale.US, "p50=%d p95=%d p99=%d max=%d ms",
+                percentile(0.50), percentile(0.95), percentile(0.99), max());
+    }
+
+    static int bucketOf(long v) {
+        if (v < 2 * SUB_COUNT) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exp - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((v >>> shift) - SUB_COUNT);
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_COUNT) return bucket;
+        int shift = bucket / SUB_COUNT - 1;
+        long sub = bucket % SUB_COUNT + SUB_COUNT;
+        long upper = ((sub + 1) << shift) - 1;
+        return (upper < 0) ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,66 @@
+package com.multielevator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** {@link BuildingModel} над работающими диспетчером и лифтами. */
+final class LiveBuildingModel implements BuildingModel {
+
+    private final Dispatcher dispatcher;
+    private final List<Elevator> elevators;
+
+    LiveBuildingModel(Dispatcher dispatcher, List<Elevator> elevators) {
+        this.dispatcher = dispatcher;
+        this.elevators = new ArrayList<>(elevators);
+    }
+
+    @Override
+    public int floors() {
+        return dispatcher.getTotalFloors();
+    }
+
+    @Override
+    public int elevatorCount() {
+        return elevators.size();
+    }
+
+    @Override
+    public ElevatorSnapshot elevatorSnapshot(int index) {
+        return elevators.get(index).snapshot();
+    }
+
+    @Override
+    public double elevatorPosition(int index) {
+        return elevators.get(index).getVisualFloorPos();
+    }
+
+    @Override
+    public List<Passenger> passengersInside(int index) {
+        return elevators.get(index).passengersInsideSnapshot(0);
+    }
+
+    @Override
+    public int waitingCount(int floor, Direction dir) {
+        return dispatcher.getWaitingCount(floor, dir);
+    }
+
+    @Override
+    public List<Passenger> peekWaiting(int floor, Direction dir, int limit) {
+        return dispatcher.peekWaitingPassengers(floor, dir, limit);
+    }
+
+    @Override
+    public int totalWaiting() {
+        return dispatcher.getTotalWaiting();
+    }
+
+    @Override
+    public LatencyHistogram waitTime() {
+        return dispatcher.getStats().waitTime();
+    }
+
+    @Override
+    public SimulationSettings settings() {
+        return dispatcher.getSettings();
+    }
+}
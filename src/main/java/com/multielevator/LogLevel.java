@@ -0,0 +1,27 @@
+package com.multielevator;
+
+/**
+ * Уровень записи {@link AsyncLog}. Записи ниже порога отбрасываются
+ * ещё в потоке-производителе, до постановки в буфер.
+ */
+public enum LogLevel {
+    /** Шаги лифта: прибытие, двери. */
+    DEBUG,
+    /** Запросы, посадки, назначения, старт/стоп. */
+    INFO,
+    /** Нет подходящего лифта, отклонённые и выброшенные запросы. */
+    WARN,
+    /** Порог, при котором не пишется ничего. */
+    OFF;
+
+    /** Разбор значения из командной строки: debug / info / warn / off. */
+    public static LogLevel parse(String v) {
+        return switch (v.trim().toLowerCase()) {
+            case "debug" -> DEBUG;
+            case "info" -> INFO;
+            case "warn" -> WARN;
+            case "off" -> OFF;
+            default -> throw new IllegalArgumentException("Unknown log level: " + v);
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package com.multielevator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -15,44 +18,173 @@ public class Main {
         System.out.println("--- SIMULATION STARTED ---\n");
 
         boolean noGui = false;
-        for (String a : args) {
-            if (a != null && (a.equalsIgnoreCase("--nogui") || a.equalsIgnoreCase("-nogui"))) {
+        boolean realtime = false;
+        boolean tick = false;
+        boolean deterministic = false;
+        Long seed = null;
+        boolean passengersSet = false;
+        long trafficFrom = Long.MIN_VALUE;
+        long trafficTo = Long.MAX_VALUE;
+        ThreadMode threadMode = ThreadMode.PLATFORM;
+        int shards = 1;
+        SimulationSettings.Builder sb = SimulationSettings.builder();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (a == null) continue;
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            if (a.equalsIgnoreCase("--nogui") || a.equalsIgnoreCase("-nogui")) {
                 noGui = true;
+            } else if (a.equalsIgnoreCase("--realtime")) {
+                realtime = true;
+            } else if (a.equalsIgnoreCase("--tick")) {
+                tick = true;
+            } else if (a.equalsIgnoreCase("--deterministic")) {
+                deterministic = true;
+            } else if (a.equalsIgnoreCase("--seed") && v != null) {
+                seed = Long.parseLong(v);
+                i++;
+            } else if (a.equalsIgnoreCase("--vthreads")) {
+                threadMode = ThreadMode.VIRTUAL.requireAvailable();
+            } else if (a.equalsIgnoreCase("--shards") && v != null) {
+                shards = Integer.parseInt(v);
+                i++;
+            } else if (a.equalsIgnoreCase("--floors") && v != null) {
+                sb.floors(Integer.parseInt(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--elevators") && v != null) {
+                sb.elevatorsCount(Integer.parseInt(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--passengers") && v != null) {
+                sb.passengerLimit(Integer.parseInt(v));
+                passengersSet = true;
+                i++;
+            } else if (a.equalsIgnoreCase("--trace") && v != null) {
+                sb.trace(Path.of(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--profile") && v != null) {
+                sb.profile(v);
+                i++;
+            } else if (a.equalsIgnoreCase("--rate-scale") && v != null) {
+                sb.rateScale(Double.parseDouble(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--from") && v != null) {
+                trafficFrom = VirtualTimeEngine.parseTime(v);
+                i++;
+            } else if (a.equalsIgnoreCase("--to") && v != null) {
+                trafficTo = VirtualTimeEngine.parseTime(v);
+                i++;
+            } else if (a.equalsIgnoreCase("--ingest-capacity") && v != null) {
+                sb.ingestCapacity(Integer.parseInt(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--ingest-policy") && v != null) {
+                sb.ingestPolicy(IngestPolicy.parse(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--strategy") && v != null) {
+                // неизвестное имя — ошибка сразу, а не при создании диспетчера
+                DispatchStrategy.create(v, SimulationSettings.defaults());
+                sb.dispatchStrategy(v);
+                i++;
+            } else if (a.equalsIgnoreCase("--assign") && v != null) {
+                sb.assignmentMode(AssignmentMode.parse(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--hall") && v != null) {
+                sb.hallControl(HallControl.parse(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--journal") && v != null) {
+                sb.journal(Path.of(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--log-level") && v != null) {
+                AsyncLog.setLevel(LogLevel.parse(v));
+                i++;
+            } else if (a.equalsIgnoreCase("--log-sample") && v != null) {
+                AsyncLog.parseSampling(v);
+                i++;
             }
         }
+        sb.trafficWindow(trafficFrom, trafficTo);
+        SimulationSettings settings = sb.seed((seed != null) ? seed : ThreadLocalRandom.current().nextLong()).build();
+        if (settings.recordedOrProfiledTraffic() && !passengersSet) {
+            // сколько пассажиров — решает трасса или профиль; --passengers только ограничивает
+            settings = settings.toBuilder().passengerLimit(Integer.MAX_VALUE).build();
+        }
+        log("SYSTEM", "SEED", settings.seed() + " (repeat with --seed " + settings.seed() + ")");
+
+        // Без GUI по умолчанию считаем в виртуальном времени; --realtime/--tick оставляют реальное время.
+        // --deterministic — виртуальное время и с GUI (в реальном темпе): прогон повторяется по seed.
+        if (deterministic || (noGui && !realtime && !tick)) {
+            if (deterministic && (realtime || tick || threadMode != ThreadMode.PLATFORM)) {
+                log("SYSTEM", "MODE", "--deterministic runs in virtual time; --realtime/--tick/--vthreads ignored");
+            }
+            try {
+                runVirtual(settings, !noGui);
+            } catch (UncheckedIOException e) {
+                log("SYSTEM", "TRACE", e.getMessage() + ": " + e.getCause().getMessage());
+            }
+            System.out.println("\n--- SIMULATION FINISHED ---");
+            return;
+        }
+
+        SimulationControl control = new SimulationControl(
+                settings.passengerLimit(),
+                settings.requestIntervalMin(),
+                settings.requestIntervalMax()
+        );
+        TrafficSource traffic;
+        try {
+            traffic = TrafficSource.open(settings, control);
+        } catch (IOException e) {
+            log("SYSTEM", "TRACE", "Cannot open " + settings.tracePath() + ": " + e.getMessage());
+            return;
+        }
 
         // Dispatcher
-        Dispatcher dispatcher = new Dispatcher(Config.FLOORS);
-        Thread dispatcherThread = new Thread(dispatcher, "Dispatcher");
-        dispatcherThread.start();
+        EventJournal journal = openJournal(settings);
+        Dispatcher dispatcher = new Dispatcher(settings);
+        dispatcher.attachJournal(journal);
+        Thread dispatcherThread = threadMode.start(dispatcher, "Dispatcher");
+
+        // Elevators: поток на лифт (платформенный или --vthreads виртуальный),
+        // либо (--tick) все лифты на N потоках-шардах
+        ShardedScheduler scheduler = tick ? new ShardedScheduler(shards) : null;
+        if (scheduler != null) {
+            dispatcher.attachClock(scheduler::now);
+            scheduler.start();
+        }
 
-        // Elevators
         List<Elevator> elevators = new ArrayList<>();
         List<Thread> elevatorThreads = new ArrayList<>();
-        for (int i = 1; i <= Config.ELEVATORS_COUNT; i++) {
-            Elevator e = new Elevator(i, 1, Config.ELEVATOR_CAPACITY, dispatcher);
+        for (int i = 1; i <= settings.elevatorsCount(); i++) {
+            Elevator e = new Elevator(i, 1, settings.elevatorCapacity(), dispatcher);
             elevators.add(e);
             dispatcher.registerElevator(e);
-            Thread t = new Thread(e, "Elevator-" + i);
-            elevatorThreads.add(t);
-            t.start();
+            if (scheduler != null) {
+                e.attachScheduler(scheduler.shardFor(i));
+            } else {
+                elevatorThreads.add(threadMode.start(e, "Elevator-" + i));
+            }
         }
-        SimulationControl control = new SimulationControl(
-                Config.PASSENGER_LIMIT,
-                Config.REQUEST_INTERVAL_MIN,
-                Config.REQUEST_INTERVAL_MAX
-        );
-
         SimulationVisualizer visualizer = null;
         if (!noGui) {
-            visualizer = new SimulationVisualizer(Config.FLOORS, elevators, dispatcher, control);
+            visualizer = new SimulationVisualizer(settings.floors(), elevators, dispatcher, control);
             visualizer.start();
         }
 
-        Thread generator = startPassengerSimulation(dispatcher, control);
-        generator.join();
+        Thread reporter = threadMode.start(() -> reportStats(dispatcher.getStats()), "Stats-Reporter");
+        Thread generator = startPassengerSimulation(dispatcher, control, threadMode, traffic);
+        while (generator.isAlive()) {
+            generator.join(200);
+            // упавший шаг лифта останавливает прогон: новых пассажиров больше не ждём
+            if (scheduler != null && scheduler.hasFailed()) generator.interrupt();
+        }
 
-        drainAndShutdown(dispatcher, dispatcherThread, elevators, elevatorThreads);
+        try {
+            drainAndShutdown(dispatcher, dispatcherThread, elevators, elevatorThreads, scheduler);
+        } finally {
+            reporter.interrupt();
+            reporter.join();
+            closeJournal(journal, settings);
+        }
+        log("SYSTEM", "KPI", dispatcher.getStats().summary());
 
         if (visualizer != null) {
             visualizer.onSimulationFinished();
@@ -61,42 +193,91 @@ public class Main {
         System.out.println("\n--- SIMULATION FINISHED ---");
     }
 
-    private static Thread startPassengerSimulation(Dispatcher dispatcher, SimulationControl control) {
-        Thread t = new Thread(() -> {
-            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+    private static void runVirtual(SimulationSettings settings, boolean gui) {
+        RunResult result;
+        if (gui) {
+            SimulationVisualizer[] visualizer = new SimulationVisualizer[1];
+            result = new SimulationRun(settings).runPaced((dispatcher, elevators, control) -> {
+                visualizer[0] = new SimulationVisualizer(settings.floors(), elevators, dispatcher, control);
+                visualizer[0].start();
+            });
+            visualizer[0].onSimulationFinished();
+        } else {
+            result = new SimulationRun(settings).run();
+        }
+
+        log("SYSTEM", "ENGINE", "Simulated " + VirtualTimeEngine.formatTime(result.simulatedMs())
+                + " in " + (result.wallNanos() / 1_000_000L) + " ms wall time, events=" + result.events());
+        log("SYSTEM", "KPI", result.toString());
+        if (settings.journalPath() != null) {
+            log("SYSTEM", "JOURNAL", "Events written to " + settings.journalPath());
+        }
+    }
 
-            while (!Thread.currentThread().isInterrupted() && control.shouldGenerateMore()) {
-                int id = control.nextPassengerId();
+    private static EventJournal openJournal(SimulationSettings settings) {
+        try {
+            return EventJournal.open(settings.journalPath(), settings);
+        } catch (IOException e) {
+            log("SYSTEM", "JOURNAL", "Cannot open " + settings.journalPath() + ": " + e.getMessage());
+            return EventJournal.DISABLED;
+        }
+    }
 
-                int from = rnd.nextInt(1, Config.FLOORS + 1);
-                int to;
-                do {
-                    to = rnd.nextInt(1, Config.FLOORS + 1);
-                } while (to == from);
+    private static void closeJournal(EventJournal journal, SimulationSettings settings) {
+        if (!journal.isEnabled()) return;
+        try {
+            journal.close();
+            log("SYSTEM", "JOURNAL", journal.recordCount() + " events written to " + settings.journalPath());
+        } catch (IOException e) {
+            log("SYSTEM", "JOURNAL", "Write failed: " + e.getMessage());
+        }
+    }
 
-                dispatcher.submitRequest(new Passenger(id, from, to));
+    /** Периодически печатает перцентили задержек, пока поток не прервут. */
+    private static void reportStats(PassengerStats stats) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(Config.STATS_REPORT_INTERVAL_MS);
+                if (stats.getBoarded() > 0) log("SYSTEM", "STATS", stats.summary());
+            }
+        } catch (InterruptedException ignored) {
+            // конец прогона
+        }
+    }
 
-                try {
-                    int sleep = rnd.nextInt(control.getIntervalMinMs(), control.getIntervalMaxMs() + 1);
-                    SimulationClock.sleep(sleep);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+    /**
+     * Поток пассажиров тот же, что у прогона в виртуальном времени с этим seed (или трассой);
+     * порядок обслуживания всё равно зависит от планировщика потоков (для повтора — --deterministic).
+     */
+    private static Thread startPassengerSimulation(Dispatcher dispatcher, SimulationControl control,
+                                                   ThreadMode threadMode, TrafficSource traffic) {
+        return threadMode.start(() -> {
+            try (traffic) {
+                long previous = 0;
+                while (!Thread.currentThread().isInterrupted() && control.shouldGenerateMore() && traffic.next()) {
+                    SimulationClock.sleep(traffic.arrivalMs() - previous);
+                    previous = traffic.arrivalMs();
+                    dispatcher.submitRequest(new Passenger(control.nextPassengerId(), traffic.fromFloor(), traffic.toFloor()));
+                }
+                if (traffic.skipped() > 0) {
+                    log("SYSTEM", "TRACE", traffic.skipped() + " trace records skipped");
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log("SYSTEM", "TRACE", "Read failed: " + e.getMessage());
             }
 
             log("SYSTEM", "GENERATOR", "Generated " + control.getGeneratedCount() + " passengers. No more new requests.");
         }, "Passenger-Generator");
-
-        t.start();
-        return t;
     }
 
     private static void drainAndShutdown(
             Dispatcher dispatcher,
             Thread dispatcherThread,
             List<Elevator> elevators,
-            List<Thread> elevatorThreads
+            List<Thread> elevatorThreads,
+            ShardedScheduler scheduler
     ) throws InterruptedException {
 
         long start = System.currentTimeMillis();
@@ -116,6 +297,11 @@ public class Main {
                 break;
             }
 
+            if (scheduler != null && scheduler.hasFailed()) {
+                log("SYSTEM", "SHUTDOWN", "Scheduler task failed. Stopping the run.");
+                break;
+            }
+
             if (System.currentTimeMillis() - start > Config.DRAIN_TIMEOUT_MS) {
                 log("SYSTEM", "SHUTDOWN", "Drain timeout reached (" + Config.DRAIN_TIMEOUT_MS + " ms). Forcing shutdown.");
                 break;
@@ -133,14 +319,22 @@ public class Main {
         for (Thread t : elevatorThreads) {
             t.interrupt();
         }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
 
         dispatcherThread.join();
         for (Thread t : elevatorThreads) {
             t.join();
         }
+        if (scheduler != null) {
+            scheduler.join();
+        }
     }
 
+    /** Итоги пишем сразу и мимо фильтров; сначала дописываем то, что лифты уже поставили в лог. */
     private static void log(String actor, String tag, String message) {
+        AsyncLog.flush();
         String time = LocalTime.now().format(TS);
         System.out.println("[" + time + "][" + actor + "][" + tag + "] " + message);
     }
@@ -0,0 +1,97 @@
+package com.multielevator;
+
+import java.util.Arrays;
+
+/**
+ * Задача о назначениях: каждой строке матрицы стоимостей — свой столбец, сумма минимальна.
+ * Венгерский алгоритм с потенциалами, O(rows² · cols); строк не больше, чем столбцов.
+ *
+ * Буферы переиспользуются между вызовами, поэтому экземпляр — на один поток
+ * (диспетчер держит свой).
+ */
+final class MinCostMatching {
+
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private long[] u = new long[0];
+    private long[] v = new long[0];
+    private long[] minv = new long[0];
+    private int[] p = new int[0];
+    private int[] way = new int[0];
+    private boolean[] used = new boolean[0];
+    private int[] rowToCol = new int[0];
+
+    /**
+     * cost — матрица rows × cols построчно (cost[r * cols + c]).
+     * Возвращает для каждой строки номер столбца; массив принадлежит решателю
+     * и действителен до следующего вызова.
+     */
+    int[] solve(long[] cost, int rows, int cols) {
+        if (rows > cols) throw new IllegalArgumentException("rows > cols: " + rows + " > " + cols);
+        ensureCapacity(rows, cols);
+        Arrays.fill(u, 0, rows + 1, 0L);
+        Arrays.fill(v, 0, cols + 1, 0L);
+        Arrays.fill(p, 0, cols + 1, 0);
+
+        // строки и столбцы с 1; p[c] — строка в столбце c, столбец 0 — фиктивный
+        for (int r = 1; r <= rows; r++) {
+            p[0] = r;
+            int c0 = 0;
+            Arrays.fill(minv, 0, cols + 1, INF);
+            Arrays.fill(used, 0, cols + 1, false);
+            do {
+                used[c0] = true;
+                int r0 = p[c0];
+                int rowBase = (r0 - 1) * cols - 1;
+                long delta = INF;
+                int c1 = 0;
+                for (int c = 1; c <= cols; c++) {
+                    if (used[c]) continue;
+                    long cur = cost[rowBase + c] - u[r0] - v[c];
+                    if (cur < minv[c]) {
+                        minv[c] = cur;
+                        way[c] = c0;
+                    }
+                    if (minv[c] < delta) {
+                        delta = minv[c];
+                        c1 = c;
+                    }
+                }
+                for (int c = 0; c <= cols; c++) {
+                    if (used[c]) {
+                        u[p[c]] += delta;
+                        v[c] -= delta;
+                    } else {
+                        minv[c] -= delta;
+                    }
+                }
+                c0 = c1;
+            } while (p[c0] != 0);
+            // разворачиваем чередующуюся цепочку до фиктивного столбца
+            do {
+                int c1 = way[c0];
+                p[c0] = p[c1];
+                c0 = c1;
+            } while (c0 != 0);
+        }
+
+        for (int c = 1; c <= cols; c++) {
+            if (p[c] != 0) rowToCol[p[c] - 1] = c - 1;
+        }
+        return rowToCol;
+    }
+
+    private void ensureCapacity(int rows, int cols) {
+        if (u.length < rows + 1) {
+            u = new long[rows + 1];
+            rowToCol = new int[rows];
+        }
+        if (v.length < cols + 1) {
+            v = new long[cols + 1];
+            minv = new long[cols + 1];
+            p = new int[cols + 1];
+            way = new int[cols + 1];
+            used = new boolean[cols + 1];
+        }
+    }
+}
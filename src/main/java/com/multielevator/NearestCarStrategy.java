@@ -0,0 +1,75 @@
+package com.multielevator;
+
+/**
+ * «Ближайший лифт» (nearest car, {@value #NAME}): стоимость — расстояние до вызова в этажах
+ * с поправкой на направление, как figure of suitability у Barney. Загрузку и длину маршрута
+ * не учитывает и назначенные вызовы не переназначает. Нужна как базовая линия для сравнения
+ * стратегий в {@link BatchRunner}.
+ */
+public final class NearestCarStrategy implements DispatchStrategy {
+
+    public static final String NAME = "nearest";
+
+    private final SimulationSettings settings;
+
+    public NearestCarStrategy(SimulationSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * d — попутный лифт, едущий в ту же сторону; d + 1 — свободный или едущий к вызову,
+     * но в другую сторону; floors — удаляющийся. Плюс штраф зоны здания.
+     */
+    @Override
+    public int cost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        int d = Math.abs(s.currentFloor() - call.floor());
+        int cost;
+        if (s.direction() == Direction.IDLE) {
+            cost = d + 1;
+        } else if (!movingToward(s, call.floor())) {
+            cost = settings.floors();
+        } else {
+            cost = (s.direction() == call.direction()) ? d : d + 1;
+        }
+        return cost + settings.zonePenalty(s.id(), call.floor());
+    }
+
+    private static boolean movingToward(ElevatorSnapshot s, int floor) {
+        return (s.direction() == Direction.UP) ? floor >= s.currentFloor() : floor <= s.currentFloor();
+    }
+
+    @Override
+    public boolean preferOnTie(ElevatorSnapshot candidate, int candidateAssigned, ElevatorSnapshot best, int bestAssigned) {
+        if (candidateAssigned != bestAssigned) return candidateAssigned < bestAssigned;
+        return candidate.load() < best.load();
+    }
+
+    @Override
+    public int reservedCost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        int end = (s.direction() == Direction.UP)
+                ? Math.max(s.currentFloor(), s.furthestUpStop())
+                : (s.furthestDownStop() > 0 ? Math.min(s.currentFloor(), s.furthestDownStop()) : s.currentFloor());
+        return Math.abs(s.currentFloor() - end) + Math.abs(end - call.floor());
+    }
+
+    @Override
+    public int reserveCost(ElevatorSnapshot s, HallCall call, int assignedCalls) {
+        return Math.abs(s.currentFloor() - call.floor());
+    }
+
+    @Override
+    public boolean keepAssignment(ElevatorSnapshot assigned, HallCall call) {
+        return true;
+    }
+
+    @Override
+    public boolean shouldReassign(ElevatorSnapshot assigned, int assignedCalls,
+                                  ElevatorSnapshot candidate, int candidateCalls, HallCall call) {
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.multielevator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Матрица «откуда → куда» одного периода трафика: веса пар этажей и выборка пары
+ * за O(1) методом псевдонимов (Vose). Веса нормировать не нужно; пары с нулевым
+ * весом и поездки на свой этаж не выпадают никогда.
+ *
+ * После построения не меняется, поэтому одну матрицу могут читать любые прогоны.
+ */
+final class OdMatrix {
+
+    private final int floors;
+    private final double[] prob;
+    private final int[] alias;
+
+    /** @param weights вес пары (from, to) в ячейке (from - 1) * floors + (to - 1) */
+    OdMatrix(int floors, double[] weights) {
+        if (weights.length != floors * floors) {
+            throw new IllegalArgumentException("OD weights must be floors x floors: " + weights.length);
+        }
+        this.floors = floors;
+        int n = weights.length;
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            int from = i / floors;
+            int to = i % floors;
+            if (weights[i] < 0 || Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("OD weight must be >= 0: " + (from + 1) + "->" + (to + 1));
+            }
+            if (from != to) total += weights[i];
+        }
+        if (total <= 0) throw new IllegalArgumentException("OD matrix has no trips");
+
+        this.prob = new double[n];
+        this.alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int ns = 0;
+        int nl = 0;
+        for (int i = 0; i < n; i++) {
+            boolean self = i / floors == i % floors;
+            scaled[i] = self ? 0 : weights[i] * n / total;
+            if (scaled[i] < 1.0) small[ns++] = i;
+            else large[nl++] = i;
+        }
+        while (ns > 0 && nl > 0) {
+            int s = small[--ns];
+            int l = large[--nl];
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) small[ns++] = l;
+            else large[nl++] = l;
+        }
+        // остатки — 1.0 с точностью до округления, кроме пустых ячеек: их уводим в любую поездку
+        while (nl > 0) small[ns++] = large[--nl];
+        int trip = -1;
+        for (int k = 0; k < ns; k++) {
+            int i = small[k];
+            if (scaled[i] > 0) {
+                prob[i] = 1.0;
+                alias[i] = i;
+                trip = i;
+            }
+        }
+        for (int i = 0; trip < 0 && i < n; i++) {
+            if (prob[i] > 0) trip = i;
+        }
+        for (int k = 0; k < ns; k++) {
+            int i = small[k];
+            if (scaled[i] <= 0) {
+                prob[i] = 0.0;
+                alias[i] = trip;
+            }
+        }
+    }
+
+    /** Доля поездок с этажа вызова lobby, на него и остальных: встречный, исходящий и межэтажный трафик. */
+    static OdMatrix fromSplit(int floors, int lobby, double[] population,
+                              double incoming, double outgoing, double interfloor) {
+        double pop = 0;
+        double pairs = 0;
+        for (int f = 1; f <= floors; f++) {
+            if (f == lobby) continue;
+            pop += population[f];
+            pairs += population[f] * (pop - population[f]) * 2;
+        }
+        if (pop <= 0) throw new IllegalArgumentException("no population outside the lobby");
+        double[] w = new double[floors * floors];
+        for (int f = 1; f <= floors; f++) {
+            if (f == lobby) continue;
+            double share = population[f] / pop;
+            w[(lobby - 1) * floors + (f - 1)] += incoming * share;
+            w[(f - 1) * floors + (lobby - 1)] += outgoing * share;
+            if (pairs <= 0) continue;
+            for (int g = 1; g <= floors; g++) {
+                if (g == lobby || g == f) continue;
+                w[(f - 1) * floors + (g - 1)] += interfloor * population[f] * population[g] / pairs;
+            }
+        }
+        return new OdMatrix(floors, w);
+    }
+
+    /** Случайная пара этажей; результат — (from << 16) | to. */
+    int sample(SplittableRandom rnd) {
+        int i = rnd.nextInt(prob.length);
+        if (rnd.nextDouble() >= prob[i]) i = alias[i];
+        return ((i / floors + 1) << 16) | (i % floors + 1);
+    }
+}
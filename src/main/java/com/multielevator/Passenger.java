@@ -6,6 +6,14 @@ public class Passenger {
     private final int targetFloor;
     private final Direction direction;
 
+    // Время симуляции (мс) по этапам пути; -1, пока этап не наступил.
+    private volatile long requestedAtMs = -1;
+    private volatile long assignedAtMs = -1;
+    private volatile long boardedAtMs = -1;
+    private volatile long alightedAtMs = -1;
+    // HallControl.DESTINATION: за каким лифтом закреплён (см. DestinationTable), меняется под её монитором
+    private volatile int allocatedCar = DestinationTable.UNALLOCATED;
+
     public Passenger(int id, int startFloor, int targetFloor) {
         this.id = id;
         this.startFloor = startFloor;
@@ -18,6 +26,39 @@ public class Passenger {
     public Direction getDirection() { return direction; }
     public int getId() { return id; }
 
+    public long getRequestedAtMs() { return requestedAtMs; }
+    public long getAssignedAtMs() { return assignedAtMs; }
+    public long getBoardedAtMs() { return boardedAtMs; }
+    public long getAlightedAtMs() { return alightedAtMs; }
+
+    void markRequested(long nowMs) { requestedAtMs = nowMs; }
+    void markAssigned(long nowMs) { assignedAtMs = nowMs; }
+    void markBoarded(long nowMs) { boardedAtMs = nowMs; }
+    void markAlighted(long nowMs) { alightedAtMs = nowMs; }
+
+    int allocatedCar() { return allocatedCar; }
+    void setAllocatedCar(int car) { allocatedCar = car; }
+
+    /** Реакция диспетчера: от вызова до назначения лифта на этот вызов. */
+    public long getAssignLatencyMs() {
+        return (requestedAtMs < 0 || assignedAtMs < 0) ? -1 : assignedAtMs - requestedAtMs;
+    }
+
+    /** Ожидание на этаже: от вызова до посадки. */
+    public long getWaitTimeMs() {
+        return (requestedAtMs < 0 || boardedAtMs < 0) ? -1 : boardedAtMs - requestedAtMs;
+    }
+
+    /** Время в кабине: от посадки до выхода. */
+    public long getRideTimeMs() {
+        return (boardedAtMs < 0 || alightedAtMs < 0) ? -1 : alightedAtMs - boardedAtMs;
+    }
+
+    /** Полное время поездки: от вызова до выхода из кабины. */
+    public long getJourneyTimeMs() {
+        return (requestedAtMs < 0 || alightedAtMs < 0) ? -1 : alightedAtMs - requestedAtMs;
+    }
+
     @Override
     public String toString() {
         return String.format("Passenger-%d [%d -> %d]", id, startFloor, targetFloor);
@@ -0,0 +1,93 @@
+package com.multielevator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики по пассажирам одного прогона: сколько запросов принято, отклонено и сброшено
+ * при переполнении, сколько посадок и доставок, суммарное ожидание и время поездки.
+ * По каждому этапу пути (назначение, ожидание, поездка в кабине, весь путь) ведётся
+ * гистограмма для перцентилей. Обновляются без блокировок из любых потоков.
+ */
+public final class PassengerStats {
+
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder boarded = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder totalWaitMs = new LongAdder();
+    private final LongAdder totalJourneyMs = new LongAdder();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+
+    private final LatencyHistogram assignHistogram = new LatencyHistogram();
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LatencyHistogram rideHistogram = new LatencyHistogram();
+    private final LatencyHistogram journeyHistogram = new LatencyHistogram();
+
+    void onRequested(Passenger p) {
+        requested.increment();
+    }
+
+    void onRejected(Passenger p) {
+        rejected.increment();
+    }
+
+    void onShed(Passenger p) {
+        shed.increment();
+    }
+
+    void onBoarded(Passenger p) {
+        boarded.increment();
+        long wait = p.getWaitTimeMs();
+        if (wait >= 0) {
+            totalWaitMs.add(wait);
+            maxWaitMs.accumulateAndGet(wait, Math::max);
+        }
+        waitHistogram.record(wait);
+        assignHistogram.record(p.getAssignLatencyMs());
+    }
+
+    void onDelivered(Passenger p) {
+        delivered.increment();
+        long journey = p.getJourneyTimeMs();
+        if (journey >= 0) totalJourneyMs.add(journey);
+        journeyHistogram.record(journey);
+        rideHistogram.record(p.getRideTimeMs());
+    }
+
+    public long getRequested() { return requested.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getShed() { return shed.sum(); }
+    public long getBoarded() { return boarded.sum(); }
+    public long getDelivered() { return delivered.sum(); }
+    public long getMaxWaitMs() { return maxWaitMs.get(); }
+
+    /** От вызова до назначения лифта. */
+    public LatencyHistogram assignLatency() { return assignHistogram; }
+    /** От вызова до посадки. */
+    public LatencyHistogram waitTime() { return waitHistogram; }
+    /** От посадки до выхода. */
+    public LatencyHistogram rideTime() { return rideHistogram; }
+    /** От вызова до выхода. */
+    public LatencyHistogram journeyTime() { return journeyHistogram; }
+
+    public double getAverageWaitMs() {
+        long n = boarded.sum();
+        return (n == 0) ? 0.0 : (double) totalWaitMs.sum() / n;
+    }
+
+    public double getAverageJourneyMs() {
+        long n = delivered.sum();
+        return (n == 0) ? 0.0 : (double) totalJourneyMs.sum() / n;
+    }
+
+    /** Перцентили по этапам — для периодического и итогового отчёта. */
+    public String summary() {
+        return "delivered=" + getDelivered() + "/" + getRequested()
+                + " | assign " + assignHistogram.summary()
+                + " | wait " + waitHistogram.summary()
+                + " | ride " + rideHistogram.summary()
+                + " | journey " + journeyHistogram.summary();
+    }
+}
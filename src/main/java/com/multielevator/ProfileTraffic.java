@@ -0,0 +1,80 @@
+package com.multielevator;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Неоднородный пуассоновский поток по {@link TrafficProfile}: внутри периода интервалы
+ * экспоненциальные с его интенсивностью, на границе периода отсчёт начинается заново
+ * с новой интенсивностью (для кусочно-постоянной интенсивности это точно благодаря
+ * отсутствию памяти у экспоненты). Пара этажей — из матрицы периода.
+ *
+ * Поток кончается в конце профиля или окна [fromMs, toMs); прибытия отсчитываются
+ * от начала окна (без окна — от начала профиля). Случайность — только из seed.
+ */
+final class ProfileTraffic implements TrafficSource {
+
+    private final List<TrafficProfile.Period> periods;
+    private final SplittableRandom rnd;
+    private final double rateScale;
+    private final long baseMs;
+    private final long endMs;
+    private int period;
+    private double timeMs;
+
+    private long arrivalMs;
+    private int from;
+    private int to;
+
+    /** @param rateScale множитель интенсивности всех периодов */
+    ProfileTraffic(TrafficProfile profile, long seed, double rateScale, long fromMs, long toMs) {
+        this.periods = profile.periods();
+        this.rnd = new SplittableRandom(seed);
+        this.rateScale = rateScale;
+        this.baseMs = Math.max(fromMs, profile.startMs());
+        this.endMs = Math.min(toMs, profile.endMs());
+        this.timeMs = baseMs;
+        while (period < periods.size() && periods.get(period).endMs <= timeMs) period++;
+    }
+
+    @Override
+    public boolean next() {
+        while (period < periods.size()) {
+            TrafficProfile.Period p = periods.get(period);
+            if (timeMs < p.startMs) timeMs = p.startMs;
+            long periodEnd = Math.min(p.endMs, endMs);
+            double perMs = p.ratePerHour * rateScale / 3_600_000.0;
+            if (perMs > 0) {
+                double t = timeMs - Math.log(1.0 - rnd.nextDouble()) / perMs;
+                if (t < periodEnd) {
+                    timeMs = t;
+                    arrivalMs = Math.max(arrivalMs, (long) (t - baseMs));
+                    int pair = p.od.sample(rnd);
+                    from = pair >>> 16;
+                    to = pair & 0xFFFF;
+                    return true;
+                }
+            }
+            if (periodEnd >= endMs) break;
+            timeMs = p.endMs;
+            period++;
+        }
+        period = periods.size();
+        return false;
+    }
+
+    @Override
+    public long arrivalMs() {
+        return arrivalMs;
+    }
+
+    @Override
+    public int fromFloor() {
+        return from;
+    }
+
+    @Override
+    public int toFloor() {
+        return to;
+    }
+}
@@ -0,0 +1,135 @@
+package com.multielevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Воспроизведение записанного прогона по {@link EventJournal}: записи журнала
+ * применяются к {@link ReplayState} до нужного момента времени, без диспетчера,
+ * лифтов и их потоков. Перемотка в любую точку — через {@link JournalIndex}.
+ *
+ * Время воспроизведения — время записей журнала (в мс от его начала считать
+ * {@code nowMs() - startMs()}).
+ */
+public final class ReplayEngine implements Closeable {
+
+    private final JournalReader reader;
+    private final JournalIndex index;
+    private final ReplayState state;
+
+    // читатель уже прочитал запись, время которой ещё не наступило
+    private boolean hasPending;
+    private volatile long nowMs;
+
+    private ReplayEngine(JournalReader reader, JournalIndex index) {
+        this.reader = reader;
+        this.index = index;
+        this.state = new ReplayState(reader.settings());
+    }
+
+    /** Открывает журнал и строит индекс (один проход по файлу). Позиция — начало журнала. */
+    public static ReplayEngine open(Path journal) throws IOException {
+        JournalReader reader = JournalReader.open(journal);
+        try {
+            JournalIndex index = JournalIndex.build(reader, Config.REPLAY_KEYFRAME_RECORDS);
+            ReplayEngine engine = new ReplayEngine(reader, index);
+            engine.seek(index.startMs());
+            return engine;
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    public ReplayState state() { return state; }
+    public long startMs() { return index.startMs(); }
+    public long endMs() { return index.endMs(); }
+    public long nowMs() { return nowMs; }
+    public long recordCount() { return reader.recordCount(); }
+    public int keyframeCount() { return index.size(); }
+
+    /** KPI всего журнала (посчитаны при построении индекса). */
+    public JournalStats totals() { return index.totals(); }
+
+    /**
+     * Перематывает к моменту timeMs (вперёд или назад): состояние — перед записями
+     * этого момента, KPI начинаются заново.
+     */
+    public synchronized void seek(long timeMs) {
+        timeMs = Math.max(index.startMs(), Math.min(timeMs, index.endMs()));
+        int k = index.floorIndex(timeMs);
+        state.restore(index.state(k));
+        try {
+            reader.seek(index.record(k));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal seek failed", e);
+        }
+        hasPending = false;
+        applyUntil(timeMs - 1);
+        state.resetStats();
+        nowMs = timeMs;
+        state.setNow(timeMs);
+    }
+
+    /** Применяет записи до момента timeMs включительно; назад — через {@link #seek}. */
+    public synchronized void advanceTo(long timeMs) {
+        if (timeMs < nowMs) {
+            seek(timeMs);
+            return;
+        }
+        applyUntil(timeMs);
+        nowMs = timeMs;
+        state.setNow(timeMs);
+    }
+
+    private void applyUntil(long timeMs) {
+        try {
+            while (true) {
+                if (!hasPending) {
+                    if (!reader.next()) break;
+                    hasPending = true;
+                }
+                if (reader.timeMs() > timeMs) break;
+                state.apply(reader);
+                hasPending = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal read failed", e);
+        }
+    }
+
+    /**
+     * Проигрывает журнал в реальном времени, умноженном на speed и на скорость
+     * {@link SimulationClock} (пауза GUI тоже действует), пока keepRunning истинно.
+     * В конце журнала не выходит: можно перемотать назад.
+     */
+    public void play(double speed, BooleanSupplier keepRunning) {
+        long frameNanos = Config.REPLAY_FRAME_MS * 1_000_000L;
+        long last = System.nanoTime();
+        double carryMs = 0;
+        while (keepRunning.getAsBoolean()) {
+            LockSupport.parkNanos(frameNanos);
+            long now = System.nanoTime();
+            double dtMs = (now - last) / 1_000_000.0;
+            last = now;
+            if (SimulationClock.isPaused()) continue;
+
+            synchronized (this) {
+                if (nowMs >= endMs()) continue;
+                carryMs += dtMs * speed * SimulationClock.getSpeed();
+                long step = (long) carryMs;
+                carryMs -= step;
+                advanceTo(Math.min(endMs(), nowMs + step));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Воспроизведение журнала событий ({@link EventJournal}) без симуляции.
+ *
+ * <pre>
+ * java com.multielevator.ReplayRunner run.elj [--from 01:20:00] [--to 01:30:00] [--speed 60] [--nogui]
+ * </pre>
+ *
+ * С GUI журнал проигрывается в визуализаторе со скоростью --speed (ползунок скорости
+ * и пауза тоже действуют), шкала времени справа перематывает. С --nogui печатает KPI
+ * всего журнала и KPI окна [--from, --to]. Время — от начала журнала:
+ * чч:мм:сс, мм:сс или секунды.
+ */
+public final class ReplayRunner {
+
+    private ReplayRunner() {}
+
+    public static void main(String[] args) throws IOException {
+        Path journal = null;
+        long from = 0;
+        long to = Long.MAX_VALUE;
+        double speed = 1.0;
+        boolean noGui = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (a) {
+                case "--from" -> { from = VirtualTimeEngine.parseTime(v); i++; }
+                case "--to" -> { to = VirtualTimeEngine.parseTime(v); i++; }
+                case "--speed" -> { speed = Double.parseDouble(v); i++; }
+                case "--nogui" -> noGui = true;
+                default -> {
+                    if (a.startsWith("--") || journal != null) throw new IllegalArgumentException("Unknown option: " + a);
+                    journal = Path.of(a);
+                }
+            }
+        }
+        if (journal == null) {
+            System.err.println("Usage: java com.multielevator.ReplayRunner <journal> [--from t] [--to t] [--speed x] [--nogui]");
+            System.exit(2);
+        }
+
+        long openStart = System.nanoTime();
+        ReplayEngine engine = ReplayEngine.open(journal);
+        long openMs = (System.nanoTime() - openStart) / 1_000_000L;
+        System.out.printf(Locale.US, "Journal: %d events, %s, %d keyframes, indexed in %d ms%n",
+                engine.recordCount(), VirtualTimeEngine.formatTime(engine.endMs() - engine.startMs()),
+                engine.keyframeCount(), openMs);
+
+        long start = engine.startMs();
+        if (noGui) {
+            try (engine) {
+                System.out.println("--- whole journal ---");
+                System.out.println(engine.totals().summary());
+
+                long seekStart = System.nanoTime();
+                engine.seek(start + from);
+                long seekMicros = (System.nanoTime() - seekStart) / 1000L;
+                engine.advanceTo((to == Long.MAX_VALUE) ? engine.endMs() : start + to);
+                System.out.printf("--- window %s .. %s (seek %d us) ---%n",
+                        VirtualTimeEngine.formatTime(from),
+                        VirtualTimeEngine.formatTime(engine.nowMs() - start), seekMicros);
+                System.out.println(engine.state().stats().summary());
+            }
+            return;
+        }
+
+        engine.seek(start + from);
+        SimulationVisualizer visualizer = new SimulationVisualizer(engine);
+        visualizer.start();
+        engine.play(speed, visualizer::isOpen);
+        engine.close();
+    }
+}
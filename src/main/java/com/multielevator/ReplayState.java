@@ -0,0 +1,228 @@
+package com.multielevator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Состояние здания, восстановленное из журнала событий: где кабины, открыты ли двери,
+ * кто ждёт на этажах и кто едет. Меняется только записями журнала ({@link #apply}),
+ * без диспетчера и лифтов, и служит {@link BuildingModel} для визуализатора.
+ *
+ * Вместе с состоянием копятся KPI ({@link JournalStats}) с начала воспроизведения
+ * или с последней перемотки.
+ *
+ * Пишет поток воспроизведения, читает поток GUI: все методы под this.
+ */
+public final class ReplayState implements BuildingModel {
+
+    private final SimulationSettings settings;
+    private final Car[] cars;
+    // ожидающие по индексу вызова (CallTable.index), в порядке прихода
+    private final List<Map<Integer, Passenger>> waiting;
+    private int totalWaiting;
+    private JournalStats stats = new JournalStats();
+    private long nowMs;
+
+    ReplayState(SimulationSettings settings) {
+        this.settings = settings;
+        this.cars = new Car[settings.elevatorsCount()];
+        for (int i = 0; i < cars.length; i++) cars[i] = new Car();
+        int calls = (settings.floors() + 1) * 2;
+        this.waiting = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) waiting.add(new LinkedHashMap<>());
+    }
+
+    /** Применяет текущую запись читателя. */
+    synchronized void apply(JournalReader r) {
+        stats.accept(r);
+        nowMs = Math.max(nowMs, r.timeMs());
+        Car car = carFor(r.elevatorId());
+        switch (r.type()) {
+            case REQUEST -> {
+                Map<Integer, Passenger> q = waitingFor(r.floor(), r.direction());
+                if (q == null) return;
+                Passenger p = new Passenger(r.passengerId(), r.floor(), r.value());
+                p.markRequested(r.timeMs());
+                if (q.put(p.getId(), p) == null) totalWaiting++;
+            }
+            case SHED -> {
+                Map<Integer, Passenger> q = waitingFor(r.floor(), r.direction());
+                if (q != null && q.remove(r.passengerId()) != null) totalWaiting--;
+            }
+            case BOARD -> {
+                Map<Integer, Passenger> q = waitingFor(r.floor(), r.direction());
+                Passenger p = (q != null) ? q.remove(r.passengerId()) : null;
+                if (p == null) return;
+                totalWaiting--;
+                if (car != null) car.inside.add(p);
+            }
+            case ALIGHT -> {
+                if (car != null) car.inside.removeIf(p -> p.getId() == r.passengerId());
+            }
+            case FLOOR -> {
+                if (car == null) return;
+                car.floor = r.floor();
+                car.direction = r.direction();
+                car.floorAtMs = r.timeMs();
+                car.moving = true;
+            }
+            case DOOR_OPEN -> {
+                if (car == null) return;
+                car.floor = r.floor();
+                car.doorsOpen = true;
+                car.moving = false;
+            }
+            case DOOR_CLOSE -> {
+                if (car == null) return;
+                car.doorsOpen = false;
+                if (car.inside.isEmpty()) car.direction = Direction.IDLE;
+            }
+            default -> { }
+        }
+    }
+
+    /** Текущий момент воспроизведения (для плавного движения кабин между записями). */
+    synchronized void setNow(long timeMs) {
+        nowMs = timeMs;
+    }
+
+    /** Копия для опорной точки индекса; KPI не копируются. */
+    synchronized ReplayState copy() {
+        ReplayState c = new ReplayState(settings);
+        c.copyFrom(this);
+        return c;
+    }
+
+    /** Становится копией keyframe (KPI не трогает). */
+    synchronized void restore(ReplayState keyframe) {
+        synchronized (keyframe) {
+            copyFrom(keyframe);
+        }
+    }
+
+    /** KPI начинаются заново с текущего момента. */
+    synchronized void resetStats() {
+        stats = new JournalStats();
+    }
+
+    private void copyFrom(ReplayState src) {
+        for (int i = 0; i < cars.length; i++) cars[i].copyFrom(src.cars[i]);
+        for (int i = 0; i < waiting.size(); i++) {
+            Map<Integer, Passenger> q = waiting.get(i);
+            q.clear();
+            q.putAll(src.waiting.get(i));
+        }
+        totalWaiting = src.totalWaiting;
+        nowMs = src.nowMs;
+    }
+
+    /** KPI с начала воспроизведения или с последней перемотки. */
+    public synchronized JournalStats stats() {
+        return stats;
+    }
+
+    @Override
+    public int floors() {
+        return settings.floors();
+    }
+
+    @Override
+    public int elevatorCount() {
+        return cars.length;
+    }
+
+    @Override
+    public synchronized ElevatorSnapshot elevatorSnapshot(int index) {
+        Car c = cars[index];
+        int load = c.inside.size();
+        ElevatorStatus status;
+        if (c.doorsOpen) status = ElevatorStatus.DOORS_OPEN;
+        else if (load >= settings.elevatorCapacity()) status = ElevatorStatus.LOAD_FULL;
+        else if (isMoving(c)) status = ElevatorStatus.MOVING;
+        else status = ElevatorStatus.IDLE;
+        return new ElevatorSnapshot(index + 1, c.floor, c.direction, status, load,
+                settings.elevatorCapacity(), 0, 0, 0);
+    }
+
+    @Override
+    public synchronized double elevatorPosition(int index) {
+        Car c = cars[index];
+        if (!isMoving(c)) return c.floor;
+        double frac = (nowMs - c.floorAtMs) / (double) Config.TIME_MOVE_ONE_FLOOR;
+        int step = (c.direction == Direction.DOWN) ? -1 : 1;
+        return c.floor + step * frac;
+    }
+
+    @Override
+    public synchronized List<Passenger> passengersInside(int index) {
+        return new ArrayList<>(cars[index].inside);
+    }
+
+    @Override
+    public synchronized int waitingCount(int floor, Direction dir) {
+        Map<Integer, Passenger> q = waitingFor(floor, dir);
+        return (q == null) ? 0 : q.size();
+    }
+
+    @Override
+    public synchronized List<Passenger> peekWaiting(int floor, Direction dir, int limit) {
+        Map<Integer, Passenger> q = waitingFor(floor, dir);
+        if (q == null || limit <= 0) return List.of();
+        List<Passenger> out = new ArrayList<>(Math.min(limit, q.size()));
+        for (Passenger p : q.values()) {
+            if (out.size() >= limit) break;
+            out.add(p);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized int totalWaiting() {
+        return totalWaiting;
+    }
+
+    @Override
+    public synchronized LatencyHistogram waitTime() {
+        return stats.waitTime();
+    }
+
+    @Override
+    public SimulationSettings settings() {
+        return settings;
+    }
+
+    // кабина едет, если после проезда этажа не открыла двери и прошло меньше времени проезда этажа
+    private boolean isMoving(Car c) {
+        return c.moving && !c.doorsOpen && nowMs - c.floorAtMs < Config.TIME_MOVE_ONE_FLOOR;
+    }
+
+    private Car carFor(int elevatorId) {
+        return (elevatorId >= 1 && elevatorId <= cars.length) ? cars[elevatorId - 1] : null;
+    }
+
+    private Map<Integer, Passenger> waitingFor(int floor, Direction dir) {
+        if (floor < 1 || floor > settings.floors() || dir == Direction.IDLE) return null;
+        return waiting.get(CallTable.index(floor, dir));
+    }
+
+    private static final class Car {
+        int floor = 1;
+        Direction direction = Direction.IDLE;
+        long floorAtMs;
+        boolean moving;
+        boolean doorsOpen;
+        final List<Passenger> inside = new ArrayList<>();
+
+        void copyFrom(Car src) {
+            floor = src.floor;
+            direction = src.direction;
+            floorAtMs = src.floorAtMs;
+            moving = src.moving;
+            doorsOpen = src.doorsOpen;
+            inside.clear();
+            inside.addAll(src.inside);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.multielevator;
+
+/** Результат {@link Dispatcher#submitRequest(Passenger)}. */
+public enum RequestRejectReason {
+    ACCEPTED,
+    /** Режим событий, политика BLOCK: запрос не принят, повторить его через Config.INGEST_RETRY_MS. */
+    DEFERRED,
+    QUEUE_FULL,
+    SHUT_DOWN
+}
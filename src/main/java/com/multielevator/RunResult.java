@@ -0,0 +1,125 @@
+package com.multielevator;
+
+import java.util.Locale;
+
+/**
+ * Итоговые показатели одного прогона (KPI): ожидание, время поездки, пропускная способность.
+ */
+public final class RunResult {
+
+    private final SimulationSettings settings;
+    private final long generated;
+    private final long delivered;
+    private final long rejected;
+    private final long shed;
+    private final double averageWaitMs;
+    private final long maxWaitMs;
+    private final double averageJourneyMs;
+    private final long waitP50Ms;
+    private final long waitP95Ms;
+    private final long waitP99Ms;
+    private final long journeyP50Ms;
+    private final long journeyP95Ms;
+    private final long journeyP99Ms;
+    private final long simulatedMs;
+    private final long events;
+    private final long wallNanos;
+    private final boolean timedOut;
+    private final long arrivalsEndMs;
+    private final int backlogAtArrivalsEnd;
+
+    RunResult(SimulationSettings settings,
+              PassengerStats stats,
+              long generated,
+              long arrivalsEndMs,
+              int backlogAtArrivalsEnd,
+              long simulatedMs,
+              long events,
+              long wallNanos,
+              boolean timedOut) {
+        this.settings = settings;
+        this.generated = generated;
+        this.delivered = stats.getDelivered();
+        this.rejected = stats.getRejected();
+        this.shed = stats.getShed();
+        this.averageWaitMs = stats.getAverageWaitMs();
+        this.maxWaitMs = stats.getMaxWaitMs();
+        this.averageJourneyMs = stats.getAverageJourneyMs();
+        this.waitP50Ms = stats.waitTime().percentile(0.50);
+        this.waitP95Ms = stats.waitTime().percentile(0.95);
+        this.waitP99Ms = stats.waitTime().percentile(0.99);
+        this.journeyP50Ms = stats.journeyTime().percentile(0.50);
+        this.journeyP95Ms = stats.journeyTime().percentile(0.95);
+        this.journeyP99Ms = stats.journeyTime().percentile(0.99);
+        this.simulatedMs = simulatedMs;
+        this.events = events;
+        this.wallNanos = wallNanos;
+        this.timedOut = timedOut;
+        this.arrivalsEndMs = arrivalsEndMs;
+        this.backlogAtArrivalsEnd = backlogAtArrivalsEnd;
+    }
+
+    public SimulationSettings settings() { return settings; }
+    public long generated() { return generated; }
+    public long delivered() { return delivered; }
+    public long rejected() { return rejected; }
+    public long shed() { return shed; }
+    public double averageWaitMs() { return averageWaitMs; }
+    public long maxWaitMs() { return maxWaitMs; }
+    public double averageJourneyMs() { return averageJourneyMs; }
+    public long waitP50Ms() { return waitP50Ms; }
+    public long waitP95Ms() { return waitP95Ms; }
+    public long waitP99Ms() { return waitP99Ms; }
+    public long journeyP50Ms() { return journeyP50Ms; }
+    public long journeyP95Ms() { return journeyP95Ms; }
+    public long journeyP99Ms() { return journeyP99Ms; }
+    public long simulatedMs() { return simulatedMs; }
+    public long events() { return events; }
+    public long wallNanos() { return wallNanos; }
+    public boolean timedOut() { return timedOut; }
+    /** Когда перестали приходить новые пассажиры (дальше — только развоз). */
+    public long arrivalsEndMs() { return arrivalsEndMs; }
+    /** Сколько пассажиров ещё ждало посадки в этот момент. */
+    public int backlogAtArrivalsEnd() { return backlogAtArrivalsEnd; }
+
+    /** Пришло пассажиров за 5 минут, пока шли прибытия. */
+    public double arrivalsPer5Min() {
+        return (arrivalsEndMs <= 0) ? 0.0 : generated * 300_000.0 / arrivalsEndMs;
+    }
+
+    /** Доставлено пассажиров за 5 минут времени симуляции. */
+    public double throughputPer5Min() {
+        return (simulatedMs <= 0) ? 0.0 : delivered * 300_000.0 / simulatedMs;
+    }
+
+    public static String csvHeader() {
+        return "seed,floors,elevators,capacity,zoning,zone_split,zone_penalty,passengers,"
+                + "generated,delivered,avg_wait_ms,max_wait_ms,avg_journey_ms,throughput_per_5min,"
+                + "simulated_ms,events,wall_ms,timed_out,rejected,shed,"
+                + "wait_p50_ms,wait_p95_ms,wait_p99_ms,journey_p50_ms,journey_p95_ms,journey_p99_ms,"
+                + "arrivals_end_ms,backlog_at_arrivals_end,strategy,assign,hall";
+    }
+
+    public String toCsvRow() {
+        SimulationSettings s = settings;
+        return String.format(Locale.US, "%d,%d,%d,%d,%b,%d,%d,%d,%d,%d,%.1f,%d,%.1f,%.2f,%d,%d,%.2f,%b,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%s,%s,%s",
+                s.seed(), s.floors(), s.elevatorsCount(), s.elevatorCapacity(), s.zoningEnabled(),
+                s.zoneSplitFloor(), s.zoneSoftPenalty(), s.passengerLimit(),
+                generated, delivered, averageWaitMs, maxWaitMs, averageJourneyMs, throughputPer5Min(),
+                simulatedMs, events, wallNanos / 1_000_000.0, timedOut, rejected, shed,
+                waitP50Ms, waitP95Ms, waitP99Ms, journeyP50Ms, journeyP95Ms, journeyP99Ms,
+                arrivalsEndMs, backlogAtArrivalsEnd, s.dispatchStrategy(),
+                s.assignmentMode().name().toLowerCase(), s.hallControl().label());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "delivered=%d/%d, avgWait=%.1f ms (p95 %d, p99 %d), maxWait=%d ms, avgJourney=%.1f ms (p95 %d), throughput=%.2f/5min, simulated=%s%s%s",
+                delivered, generated, averageWaitMs, waitP95Ms, waitP99Ms, maxWaitMs, averageJourneyMs, journeyP95Ms,
+                throughputPer5Min(),
+                VirtualTimeEngine.formatTime(simulatedMs),
+                (rejected > 0 || shed > 0) ? ", rejected=" + rejected + ", shed=" + shed : "",
+                timedOut ? " (TIMED OUT)" : "");
+    }
+}
@@ -0,0 +1,190 @@
+package com.multielevator;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Планировщик реального времени для больших парков лифтов: вместо потока на каждый
+ * лифт все лифты шагают как конечные автоматы на N потоках-шардах.
+ *
+ * Время симуляции — {@link SimulationClock#now()}: идёт с текущей скоростью и стоит на паузе,
+ * так что ползунок скорости и пауза в GUI работают так же, как в потоковом режиме.
+ * Поток шарда спит до ближайшего события, поэтому нагрузка на CPU зависит
+ * от числа событий, а не от числа лифтов.
+ *
+ * Упавшая задача останавливает весь планировщик: шаг лифта сам себя перепланирует,
+ * и без этого лифт молча встал бы до конца прогона. Исключение пробрасывается из {@link #join()}.
+ */
+public final class ShardedScheduler {
+
+    /** Максимальный сон шарда: чтобы заметить смену скорости/паузу. */
+    private static final long MAX_PARK_MS = 50;
+
+    private final Shard[] shards;
+
+    // первая упавшая задача; после неё шарды останавливаются
+    private volatile Throwable failure;
+
+    public ShardedScheduler(int shardCount) {
+        int n = Math.max(1, shardCount);
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) {
+            shards[i] = new Shard("Scheduler-" + (i + 1));
+        }
+    }
+
+    public void start() {
+        for (Shard s : shards) {
+            s.thread.start();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /** Шард для объекта с данным ключом (например, id лифта). */
+    public EventScheduler shardFor(int key) {
+        return shards[Math.floorMod(key, shards.length)];
+    }
+
+    /** Текущее время симуляции, мс (с учётом скорости и паузы). */
+    public long now() {
+        return SimulationClock.now();
+    }
+
+    public void shutdown() {
+        for (Shard s : shards) {
+            s.shutdown();
+        }
+    }
+
+    /** Ждёт остановки шардов; если задача упала — бросает IllegalStateException с её исключением. */
+    public void join() throws InterruptedException {
+        for (Shard s : shards) {
+            s.thread.join();
+        }
+        Throwable f = failure;
+        if (f != null) throw new IllegalStateException("Scheduler task failed", f);
+    }
+
+    /** Упала ли какая-нибудь задача (планировщик тогда уже останавливается). */
+    public boolean hasFailed() {
+        return failure != null;
+    }
+
+    private void fail(String shardName, Throwable e) {
+        synchronized (this) {
+            if (failure != null) return;
+            failure = e;
+        }
+        System.err.println("[" + shardName + "] task failed, stopping scheduler:");
+        e.printStackTrace();
+        shutdown();
+    }
+
+    private static final class Task implements Comparable<Task> {
+        final long due;
+        final long seq;
+        final Runnable action;
+
+        Task(long due, long seq, Runnable action) {
+            this.due = due;
+            this.seq = seq;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = Long.compare(due, o.due);
+            if (c != 0) return c;
+            return Long.compare(seq, o.seq);
+        }
+    }
+
+    private final class Shard implements EventScheduler, Runnable {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        // защищено lock
+        private final PriorityQueue<Task> queue = new PriorityQueue<>();
+        private long seq;
+        private boolean running = true;
+
+        final Thread thread;
+
+        Shard(String name) {
+            this.thread = new Thread(this, name);
+        }
+
+        @Override
+        public long now() {
+            return ShardedScheduler.this.now();
+        }
+
+        @Override
+        public void schedule(long delayMs, Runnable task) {
+            if (task == null) return;
+            long due = now() + Math.max(0, delayMs);
+            lock.lock();
+            try {
+                Task t = new Task(due, seq++, task);
+                queue.add(t);
+                if (queue.peek() == t) changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void shutdown() {
+            lock.lock();
+            try {
+                running = false;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task next;
+                lock.lock();
+                try {
+                    next = null;
+                    while (running && next == null) {
+                        Task head = queue.peek();
+                        if (head == null) {
+                            changed.await();
+                            continue;
+                        }
+                        long waitSimMs = head.due - now();
+                        if (waitSimMs <= 0) {
+                            next = queue.poll();
+                            continue;
+                        }
+                        long waitWallMs = SimulationClock.isPaused()
+                                ? MAX_PARK_MS
+                                : Math.min(MAX_PARK_MS, Math.max(1L, Math.round(waitSimMs / SimulationClock.getSpeed())));
+                        changed.await(waitWallMs, TimeUnit.MILLISECONDS);
+                    }
+                    if (!running) return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    next.action.run();
+                } catch (Throwable e) {
+                    fail(thread.getName(), e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -5,6 +5,9 @@ package com.multielevator;
  *
  * Allows speeding up / slowing down the whole simulation (movement, doors, boarding, request generation)
  * without changing the core logic.
+ *
+ * {@link #now()} is the simulated time for runs on real threads: it advances with the current
+ * speed and stands still while paused, so timestamps agree with the scaled sleeps.
  */
 public final class SimulationClock {
 
@@ -13,6 +16,11 @@ public final class SimulationClock {
     private static volatile double speed = 1.0;
     private static volatile boolean paused = false;
 
+    // guarded by TIME_LOCK: simulated time integrated from wall time
+    private static final Object TIME_LOCK = new Object();
+    private static long lastWallNanos = System.nanoTime();
+    private static double simNowMs;
+
     private SimulationClock() {}
 
     public static double getSpeed() {
@@ -22,7 +30,10 @@ public final class SimulationClock {
     public static void setSpeed(double newSpeed) {
         if (Double.isNaN(newSpeed) || Double.isInfinite(newSpeed)) return;
         double clamped = Math.max(0.1, Math.min(30.0, newSpeed));
-        speed = clamped;
+        synchronized (TIME_LOCK) {
+            advanceUnlocked(); // time elapsed so far counts at the old speed
+            speed = clamped;
+        }
     }
 
     public static boolean isPaused() {
@@ -30,7 +41,10 @@ public final class SimulationClock {
     }
 
     public static void setPaused(boolean p) {
-        paused = p;
+        synchronized (TIME_LOCK) {
+            advanceUnlocked();
+            paused = p;
+        }
         if (!p) {
             synchronized (PAUSE_LOCK) {
                 PAUSE_LOCK.notifyAll();
@@ -42,6 +56,23 @@ public final class SimulationClock {
         setPaused(!paused);
     }
 
+    /** Simulated milliseconds since the clock was loaded (speed-scaled, paused time excluded). */
+    public static long now() {
+        synchronized (TIME_LOCK) {
+            advanceUnlocked();
+            return (long) simNowMs;
+        }
+    }
+
+    private static void advanceUnlocked() {
+        long wall = System.nanoTime();
+        double elapsedMs = (wall - lastWallNanos) / 1_000_000.0;
+        lastWallNanos = wall;
+        if (!paused) {
+            simNowMs += elapsedMs * speed;
+        }
+    }
+
     public static void sleep(long baseMillis) throws InterruptedException {
         if (baseMillis <= 0) return;
 
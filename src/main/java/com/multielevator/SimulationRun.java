@@ -0,0 +1,250 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Один изолированный прогон симуляции в виртуальном времени.
+ *
+ * Каждый прогон создаёт свой движок, диспетчер, лифты и генератор пассажиров,
+ * не трогая глобальное состояние, поэтому прогоны можно запускать параллельно.
+ * Все события выполняются в одном потоке, а случайность берётся только из seed
+ * настроек, поэтому прогон с тем же seed повторяется до события.
+ */
+public final class SimulationRun {
+
+    private static final long DRAIN_CHECK_MS = 200;
+
+    private final SimulationSettings settings;
+
+    public SimulationRun(SimulationSettings settings) {
+        this.settings = settings;
+    }
+
+    /** Наблюдатель прогона в реальном темпе: получает здание до первого события. */
+    public interface Observer {
+        void started(Dispatcher dispatcher, List<Elevator> elevators, SimulationControl control);
+    }
+
+    /** Считает прогон так быстро, как получится. */
+    public RunResult run() {
+        return run(null);
+    }
+
+    /**
+     * Тот же прогон, но виртуальное время идёт вровень с реальным (с учётом скорости
+     * и паузы {@link SimulationClock}), чтобы его можно было смотреть в GUI. Темп
+     * не влияет на результат: события те же, что у {@link #run()}.
+     */
+    public RunResult runPaced(Observer observer) {
+        return run(observer);
+    }
+
+    private RunResult run(Observer observer) {
+        VirtualTimeEngine engine = new VirtualTimeEngine();
+
+        EventJournal journal = openJournal();
+        Dispatcher dispatcher = new Dispatcher(settings);
+        dispatcher.attachJournal(journal);
+        dispatcher.attachScheduler(engine);
+
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 1; i <= settings.elevatorsCount(); i++) {
+            Elevator e = new Elevator(i, 1, settings.elevatorCapacity(), dispatcher);
+            elevators.add(e);
+            dispatcher.registerElevator(e);
+            e.attachScheduler(engine);
+        }
+        SimulationControl control = new SimulationControl(
+                settings.passengerLimit(),
+                settings.requestIntervalMin(),
+                settings.requestIntervalMax()
+        );
+
+        TrafficSource traffic = openTraffic(control);
+        Generator generator = new Generator(engine, dispatcher, control, traffic);
+        generator.start();
+        DrainWatch drain = new DrainWatch(engine, dispatcher, elevators, generator);
+        engine.schedule(DRAIN_CHECK_MS, drain);
+
+        long wallStart = System.nanoTime();
+        if (observer == null) {
+            engine.run();
+        } else {
+            observer.started(dispatcher, elevators, control);
+            runPaced(engine);
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+
+        dispatcher.shutdown();
+        for (Elevator e : elevators) {
+            e.shutdown();
+        }
+        if (traffic.skipped() > 0 && settings.verbose()) {
+            AsyncLog.system("TRACE", traffic.skipped() + " trace records skipped (floor outside 1.." + settings.floors()
+                    + ", same floor or unreadable)");
+        }
+        try {
+            traffic.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Trace close failed: " + settings.tracePath(), e);
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal close failed: " + settings.journalPath(), e);
+        }
+
+        return new RunResult(settings, dispatcher.getStats(), control.getGeneratedCount(),
+                drain.drainStart, drain.backlogAtStart,
+                engine.now(), engine.getProcessedEvents(), wallNanos, drain.timedOut);
+    }
+
+    /** Продвигает часы движка по кадрам на прошедшее реальное время × скорость. */
+    private static void runPaced(VirtualTimeEngine engine) {
+        long frameNanos = Config.PACED_FRAME_MS * 1_000_000L;
+        long last = System.nanoTime();
+        double target = 0;
+        while (!engine.isStopped() && engine.getQueuedEvents() > 0) {
+            LockSupport.parkNanos(frameNanos);
+            long now = System.nanoTime();
+            double dtMs = (now - last) / 1_000_000.0;
+            last = now;
+            if (SimulationClock.isPaused()) continue;
+            target += dtMs * SimulationClock.getSpeed();
+            engine.runUntil((long) target);
+        }
+    }
+
+    private TrafficSource openTraffic(SimulationControl control) {
+        try {
+            return TrafficSource.open(settings, control);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trace: " + settings.tracePath(), e);
+        }
+    }
+
+    private EventJournal openJournal() {
+        try {
+            return EventJournal.open(settings.journalPath(), settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal: " + settings.journalPath(), e);
+        }
+    }
+
+    /**
+     * Генератор пассажиров: подаёт прибытия из {@link TrafficSource} в их моменты.
+     * Если диспетчер придержал запрос (BLOCK при полной очереди), генератор «ждёт»:
+     * повторяет тот же запрос и до его приёма новых не создаёт, а следующие прибытия
+     * сдвигаются на время ожидания.
+     */
+    private static final class Generator implements Runnable {
+        private final VirtualTimeEngine engine;
+        private final Dispatcher dispatcher;
+        private final SimulationControl control;
+        private final TrafficSource traffic;
+        private Passenger blocked;
+        private boolean finished;
+
+        Generator(VirtualTimeEngine engine, Dispatcher dispatcher, SimulationControl control, TrafficSource traffic) {
+            this.engine = engine;
+            this.dispatcher = dispatcher;
+            this.control = control;
+            this.traffic = traffic;
+        }
+
+        void start() {
+            if (control.shouldGenerateMore() && advance()) {
+                engine.schedule(traffic.arrivalMs(), this);
+            } else {
+                finished = true;
+            }
+        }
+
+        /** Новых запросов не будет (лимит или конец трассы), придержанных нет. */
+        boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public void run() {
+            Passenger p = blocked;
+            if (p == null) {
+                p = new Passenger(control.nextPassengerId(), traffic.fromFloor(), traffic.toFloor());
+            }
+
+            if (dispatcher.submitRequest(p) == RequestRejectReason.DEFERRED) {
+                blocked = p;
+                engine.schedule(Config.INGEST_RETRY_MS, this);
+                return;
+            }
+            blocked = null;
+
+            long previous = traffic.arrivalMs();
+            if (!control.shouldGenerateMore() || !advance()) {
+                finished = true;
+                return;
+            }
+            engine.schedule(traffic.arrivalMs() - previous, this);
+        }
+
+        private boolean advance() {
+            try {
+                return traffic.next();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Trace read failed", e);
+            }
+        }
+    }
+
+    /** Останавливает движок, когда генерация закончилась и все пассажиры развезены. */
+    private static final class DrainWatch implements Runnable {
+        private final VirtualTimeEngine engine;
+        private final Dispatcher dispatcher;
+        private final List<Elevator> elevators;
+        private final Generator generator;
+        private long drainStart = -1;
+        private int backlogAtStart;
+        private boolean timedOut;
+
+        DrainWatch(VirtualTimeEngine engine, Dispatcher dispatcher, List<Elevator> elevators, Generator generator) {
+            this.engine = engine;
+            this.dispatcher = dispatcher;
+            this.elevators = elevators;
+            this.generator = generator;
+        }
+
+        @Override
+        public void run() {
+            if (!generator.isFinished()) {
+                engine.schedule(DRAIN_CHECK_MS, this);
+                return;
+            }
+            if (drainStart < 0) {
+                drainStart = engine.now();
+                backlogAtStart = dispatcher.getTotalWaiting();
+            }
+
+            boolean allElevatorsIdle = true;
+            for (Elevator e : elevators) {
+                if (!e.isTrulyIdle()) {
+                    allElevatorsIdle = false;
+                    break;
+                }
+            }
+            if (allElevatorsIdle && dispatcher.isIdle() && dispatcher.getTotalWaiting() == 0) {
+                engine.stop();
+                return;
+            }
+            if (engine.now() - drainStart > Config.DRAIN_TIMEOUT_MS) {
+                timedOut = true;
+                engine.stop();
+                return;
+            }
+            engine.schedule(DRAIN_CHECK_MS, this);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.multielevator;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Параметры одного прогона симуляции (здание, зонирование, трафик).
+ *
+ * В отличие от {@link Config} это обычный объект, поэтому в одной JVM можно
+ * держать сколько угодно независимых прогонов с разными параметрами.
+ * Значения по умолчанию берутся из {@link Config}.
+ */
+public final class SimulationSettings {
+
+    private final int floors;
+    private final int elevatorsCount;
+    private final int elevatorCapacity;
+    private final boolean zoningEnabled;
+    private final int zoneSplitFloor;
+    private final int zoneSoftPenalty;
+    private final int swingElevatorId;
+    private final int passengerLimit;
+    private final int requestIntervalMin;
+    private final int requestIntervalMax;
+    private final int ingestCapacity;
+    private final IngestPolicy ingestPolicy;
+    private final String dispatchStrategy;
+    private final AssignmentMode assignmentMode;
+    private final HallControl hallControl;
+    private final long seed;
+    private final boolean verbose;
+    private final Path journalPath;
+    private final Path tracePath;
+    private final String trafficProfile;
+    private final double trafficRateScale;
+    private final long trafficFromMs;
+    private final long trafficToMs;
+
+    private SimulationSettings(Builder b) {
+        this.floors = b.floors;
+        this.elevatorsCount = b.elevatorsCount;
+        this.elevatorCapacity = b.elevatorCapacity;
+        this.zoningEnabled = b.zoningEnabled;
+        this.zoneSplitFloor = (b.zoneSplitFloor > 0) ? b.zoneSplitFloor : (b.floors + 1) / 2;
+        this.zoneSoftPenalty = b.zoneSoftPenalty;
+        this.swingElevatorId = (b.elevatorsCount >= 3) ? b.elevatorsCount : -1;
+        this.passengerLimit = b.passengerLimit;
+        this.requestIntervalMin = b.requestIntervalMin;
+        this.requestIntervalMax = Math.max(b.requestIntervalMin, b.requestIntervalMax);
+        this.ingestCapacity = b.ingestCapacity;
+        this.ingestPolicy = b.ingestPolicy;
+        // панели назначения раздают по оценке прибытия — в настройках и CSV видно, что реально работает
+        this.dispatchStrategy = (b.hallControl == HallControl.DESTINATION) ? EtaStrategy.NAME : b.dispatchStrategy;
+        this.assignmentMode = b.assignmentMode;
+        this.hallControl = b.hallControl;
+        this.seed = b.seed;
+        this.verbose = b.verbose;
+        this.journalPath = b.journalPath;
+        this.tracePath = b.tracePath;
+        this.trafficProfile = b.trafficProfile;
+        this.trafficRateScale = b.trafficRateScale;
+        this.trafficFromMs = b.trafficFromMs;
+        this.trafficToMs = b.trafficToMs;
+    }
+
+    public static SimulationSettings defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.floors = floors;
+        b.elevatorsCount = elevatorsCount;
+        b.elevatorCapacity = elevatorCapacity;
+        b.zoningEnabled = zoningEnabled;
+        b.zoneSplitFloor = zoneSplitFloor;
+        b.zoneSoftPenalty = zoneSoftPenalty;
+        b.passengerLimit = passengerLimit;
+        b.requestIntervalMin = requestIntervalMin;
+        b.requestIntervalMax = requestIntervalMax;
+        b.ingestCapacity = ingestCapacity;
+        b.ingestPolicy = ingestPolicy;
+        b.dispatchStrategy = dispatchStrategy;
+        b.assignmentMode = assignmentMode;
+        b.hallControl = hallControl;
+        b.seed = seed;
+        b.verbose = verbose;
+        b.journalPath = journalPath;
+        b.tracePath = tracePath;
+        b.trafficProfile = trafficProfile;
+        b.trafficRateScale = trafficRateScale;
+        b.trafficFromMs = trafficFromMs;
+        b.trafficToMs = trafficToMs;
+        return b;
+    }
+
+    public int floors() { return floors; }
+    public int elevatorsCount() { return elevatorsCount; }
+    public int elevatorCapacity() { return elevatorCapacity; }
+    public boolean zoningEnabled() { return zoningEnabled; }
+    public int zoneSplitFloor() { return zoneSplitFloor; }
+    public int zoneSoftPenalty() { return zoneSoftPenalty; }
+    public int swingElevatorId() { return swingElevatorId; }
+    public int passengerLimit() { return passengerLimit; }
+    public int requestIntervalMin() { return requestIntervalMin; }
+    public int requestIntervalMax() { return requestIntervalMax; }
+    public int ingestCapacity() { return ingestCapacity; }
+    public IngestPolicy ingestPolicy() { return ingestPolicy; }
+    /** Имя стратегии диспетчера ({@link DispatchStrategy#create}); при панелях назначения всегда eta. */
+    public String dispatchStrategy() { return dispatchStrategy; }
+    /** Раздача вызовов по одному или всем проходом сразу. */
+    public AssignmentMode assignmentMode() { return assignmentMode; }
+    /** Кнопки направления или панели назначения на этажах. */
+    public HallControl hallControl() { return hallControl; }
+    public long seed() { return seed; }
+    public boolean verbose() { return verbose; }
+    /** Файл журнала событий ({@link EventJournal}) или null, если журнал не пишется. */
+    public Path journalPath() { return journalPath; }
+    /** Трасса прибытий ({@link TrafficSource#openTrace}) или null. */
+    public Path tracePath() { return tracePath; }
+    /** Профиль трафика ({@link TrafficProfile#load}: имя встроенного или файл) или null. */
+    public String trafficProfile() { return trafficProfile; }
+    /** Множитель интенсивности профиля трафика. */
+    public double trafficRateScale() { return trafficRateScale; }
+    /** Окно [from, to) времени трассы или профиля; Long.MIN_VALUE / MAX_VALUE — без границы. */
+    public long trafficFromMs() { return trafficFromMs; }
+    public long trafficToMs() { return trafficToMs; }
+    /** Пассажиров задаёт трасса или профиль, а не генератор с интервалами. */
+    public boolean recordedOrProfiledTraffic() { return tracePath != null || trafficProfile != null; }
+
+    /** Нижняя граница предпочтительной зоны лифта (см. {@link Config#zoneMinFloor(int)}). */
+    public int zoneMinFloor(int elevatorId) {
+        if (!zoningEnabled) return 1;
+        if (elevatorId == swingElevatorId) return 1;
+        if (elevatorsCount >= 2) {
+            if (elevatorId == 1) return 1;
+            if (elevatorId == 2) return zoneSplitFloor;
+        }
+        return 1;
+    }
+
+    /** Верхняя граница предпочтительной зоны лифта. */
+    public int zoneMaxFloor(int elevatorId) {
+        if (!zoningEnabled) return floors;
+        if (elevatorId == swingElevatorId) return floors;
+        if (elevatorsCount >= 2) {
+            if (elevatorId == 1) return zoneSplitFloor;
+            if (elevatorId == 2) return floors;
+        }
+        return floors;
+    }
+
+    /** Штраф, если этаж вызова вне зоны лифта. */
+    public int zonePenalty(int elevatorId, int callFloor) {
+        if (!zoningEnabled) return 0;
+        int min = zoneMinFloor(elevatorId);
+        int max = zoneMaxFloor(elevatorId);
+        return (callFloor < min || callFloor > max) ? zoneSoftPenalty : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "floors=" + floors
+                + ", elevators=" + elevatorsCount
+                + ", capacity=" + elevatorCapacity
+                + ", zoning=" + (zoningEnabled ? "split " + zoneSplitFloor + "/penalty " + zoneSoftPenalty : "off")
+                + trafficText()
+                + (dispatchStrategy.equals(Config.DISPATCH_STRATEGY) ? "" : ", strategy=" + dispatchStrategy)
+                + (assignmentMode == Config.ASSIGNMENT_MODE ? "" : ", assign=" + assignmentMode.name().toLowerCase())
+                + (hallControl == Config.HALL_CONTROL ? "" : ", hall=" + hallControl.label())
+                + ((ingestCapacity != Config.INGEST_CAPACITY || ingestPolicy != Config.INGEST_POLICY)
+                    ? ", ingest=" + ingestPolicy + "/" + ingestCapacity : "");
+    }
+
+    private String trafficText() {
+        if (tracePath != null) return ", trace=" + tracePath.getFileName();
+        if (trafficProfile != null) {
+            return ", profile=" + Path.of(trafficProfile).getFileName()
+                    + ((trafficRateScale != 1.0) ? " x" + trafficRateScale : "");
+        }
+        return ", passengers=" + passengerLimit + ", interval=" + requestIntervalMin + ".." + requestIntervalMax;
+    }
+
+    public static final class Builder {
+        private int floors = Config.FLOORS;
+        private int elevatorsCount = Config.ELEVATORS_COUNT;
+        private int elevatorCapacity = Config.ELEVATOR_CAPACITY;
+        private boolean zoningEnabled = Config.ZONING_ENABLED;
+        private int zoneSplitFloor = -1;
+        private int zoneSoftPenalty = Config.ZONE_SOFT_PENALTY;
+        private int passengerLimit = Config.PASSENGER_LIMIT;
+        private int requestIntervalMin = Config.REQUEST_INTERVAL_MIN;
+        private int requestIntervalMax = Config.REQUEST_INTERVAL_MAX;
+        private int ingestCapacity = Config.INGEST_CAPACITY;
+        private IngestPolicy ingestPolicy = Config.INGEST_POLICY;
+        private String dispatchStrategy = Config.DISPATCH_STRATEGY;
+        private AssignmentMode assignmentMode = Config.ASSIGNMENT_MODE;
+        private HallControl hallControl = Config.HALL_CONTROL;
+        private long seed = 0L;
+        private boolean verbose = true;
+        private Path journalPath;
+        private Path tracePath;
+        private String trafficProfile;
+        private double trafficRateScale = 1.0;
+        private long trafficFromMs = Long.MIN_VALUE;
+        private long trafficToMs = Long.MAX_VALUE;
+
+        private Builder() {}
+
+        public Builder floors(int floors) {
+            if (floors < 2) throw new IllegalArgumentException("floors must be >= 2: " + floors);
+            this.floors = floors;
+            return this;
+        }
+
+        public Builder elevatorsCount(int count) {
+            if (count < 1) throw new IllegalArgumentException("elevatorsCount must be >= 1: " + count);
+            this.elevatorsCount = count;
+            return this;
+        }
+
+        public Builder elevatorCapacity(int capacity) {
+            if (capacity < 1) throw new IllegalArgumentException("elevatorCapacity must be >= 1: " + capacity);
+            this.elevatorCapacity = capacity;
+            return this;
+        }
+
+        public Builder zoningEnabled(boolean enabled) {
+            this.zoningEnabled = enabled;
+            return this;
+        }
+
+        /** Верхняя граница нижней зоны; значение <= 0 означает «середина здания». */
+        public Builder zoneSplitFloor(int floor) {
+            this.zoneSplitFloor = floor;
+            return this;
+        }
+
+        public Builder zoneSoftPenalty(int penalty) {
+            this.zoneSoftPenalty = Math.max(0, penalty);
+            return this;
+        }
+
+        public Builder passengerLimit(int limit) {
+            this.passengerLimit = Math.max(0, limit);
+            return this;
+        }
+
+        public Builder requestInterval(int minMs, int maxMs) {
+            this.requestIntervalMin = Math.max(0, minMs);
+            this.requestIntervalMax = Math.max(this.requestIntervalMin, maxMs);
+            return this;
+        }
+
+        /** Сколько пассажиров может ждать посадки одновременно (включая ещё не разобранные запросы). */
+        public Builder ingestCapacity(int capacity) {
+            if (capacity < 1) throw new IllegalArgumentException("ingestCapacity must be >= 1: " + capacity);
+            this.ingestCapacity = capacity;
+            return this;
+        }
+
+        public Builder ingestPolicy(IngestPolicy policy) {
+            this.ingestPolicy = Objects.requireNonNull(policy);
+            return this;
+        }
+
+        /** Стратегия выбора лифта: встроенное имя или класс ({@link DispatchStrategy#create}). */
+        public Builder dispatchStrategy(String name) {
+            if (name == null || name.isBlank()) throw new IllegalArgumentException("dispatch strategy is empty");
+            this.dispatchStrategy = name.trim();
+            return this;
+        }
+
+        public Builder assignmentMode(AssignmentMode mode) {
+            this.assignmentMode = Objects.requireNonNull(mode);
+            return this;
+        }
+
+        public Builder hallControl(HallControl control) {
+            this.hallControl = Objects.requireNonNull(control);
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Печатать ли журнал событий в консоль (в пакетных прогонах выключено). */
+        public Builder verbose(boolean verbose) {
+            this.verbose = verbose;
+            return this;
+        }
+
+        /** Писать события прогона в двоичный журнал; null — не писать. */
+        public Builder journal(Path path) {
+            this.journalPath = path;
+            return this;
+        }
+
+        /** Брать прибытия из трассы, а не из генератора; null — генератор. */
+        public Builder trace(Path path) {
+            this.tracePath = path;
+            return this;
+        }
+
+        /** Генерировать прибытия по профилю трафика (имя встроенного или файл); null — генератор. */
+        public Builder profile(String profile) {
+            this.trafficProfile = profile;
+            return this;
+        }
+
+        public Builder rateScale(double scale) {
+            if (!(scale > 0)) throw new IllegalArgumentException("rate scale must be > 0: " + scale);
+            this.trafficRateScale = scale;
+            return this;
+        }
+
+        /** Взять из трассы или профиля только время [fromMs, toMs). */
+        public Builder trafficWindow(long fromMs, long toMs) {
+            if (fromMs >= toMs) throw new IllegalArgumentException("empty traffic window: " + fromMs + ".." + toMs);
+            this.trafficFromMs = fromMs;
+            this.trafficToMs = toMs;
+            return this;
+        }
+
+        public SimulationSettings build() {
+            if (tracePath != null && trafficProfile != null) {
+                throw new IllegalArgumentException("trace and traffic profile are mutually exclusive");
+            }
+            if (hallControl == HallControl.DESTINATION) {
+                // закрепление пассажиров считает стоимость по EtaStrategy и раздаёт их по одному
+                if (assignmentMode != AssignmentMode.GREEDY) {
+                    throw new IllegalArgumentException("assignment mode " + assignmentMode.name().toLowerCase()
+                            + " does not apply to destination hall control");
+                }
+                if (!dispatchStrategy.equals(Config.DISPATCH_STRATEGY) && !dispatchStrategy.equals(EtaStrategy.NAME)) {
+                    throw new IllegalArgumentException("dispatch strategy " + dispatchStrategy
+                            + " does not apply to destination hall control (it always uses " + EtaStrategy.NAME + ")");
+                }
+            }
+            return new SimulationSettings(this);
+        }
+    }
+}
@@ -11,20 +11,31 @@ import java.util.List;
 public final class SimulationVisualizer {
 
     private final int floors;
-    private final List<Elevator> elevators;
-    private final Dispatcher dispatcher;
+    private final BuildingModel model;
     private final SimulationControl control;
+    private final ReplayEngine replay;
+
+    private static final int TIMELINE_STEPS = 10_000;
 
     private JFrame frame;
     private JLabel header;
     private RealisticBuildingPanel panel;
     private javax.swing.Timer timer;
+    private volatile boolean closed;
 
     public SimulationVisualizer(int floors, List<Elevator> elevators, Dispatcher dispatcher, SimulationControl control) {
         this.floors = floors;
-        this.elevators = new ArrayList<>(elevators);
-        this.dispatcher = dispatcher;
+        this.model = new LiveBuildingModel(dispatcher, elevators);
         this.control = control;
+        this.replay = null;
+    }
+
+    /** Воспроизведение журнала: вместо блока пассажиров — шкала времени для перемотки. */
+    public SimulationVisualizer(ReplayEngine replay) {
+        this.floors = replay.state().floors();
+        this.model = replay.state();
+        this.control = null;
+        this.replay = replay;
     }
 
     public void start() {
@@ -41,7 +52,7 @@ public final class SimulationVisualizer {
             header.setBorder(BorderFactory.createEmptyBorder(8, 12, 8, 12));
             header.setFont(header.getFont().deriveFont(Font.BOLD));
 
-            panel = new RealisticBuildingPanel(floors, elevators, dispatcher);
+            panel = new RealisticBuildingPanel(floors, model);
             JScrollPane scroll = new JScrollPane(panel);
             scroll.getVerticalScrollBar().setUnitIncrement(24);
             scroll.getHorizontalScrollBar().setUnitIncrement(24);
@@ -66,6 +77,7 @@ public final class SimulationVisualizer {
                 @Override
                 public void windowClosed(WindowEvent e) {
                     if (timer != null) timer.stop();
+                    closed = true;
                 }
             });
 
@@ -73,6 +85,11 @@ public final class SimulationVisualizer {
         });
     }
 
+    /** Окно ещё не закрыто пользователем. */
+    public boolean isOpen() {
+        return !closed;
+    }
+
     public void onSimulationFinished() {
         SwingUtilities.invokeLater(() -> {
             if (header != null) header.setText(buildHeaderText() + "  |  FINISHED");
@@ -82,15 +99,25 @@ public final class SimulationVisualizer {
     }
 
     private String buildHeaderText() {
-        int waiting = dispatcher.getTotalWaiting();
+        int waiting = model.totalWaiting();
         StringBuilder sb = new StringBuilder();
         sb.append("waiting: ").append(waiting);
-        sb.append("  |  generated: ").append(control.getGeneratedCount()).append("/").append(control.getPassengerLimit());
+        if (replay != null) {
+            sb.append("  |  replay: ").append(VirtualTimeEngine.formatTime(replay.nowMs() - replay.startMs()))
+                    .append(" / ").append(VirtualTimeEngine.formatTime(replay.endMs() - replay.startMs()));
+        } else {
+            sb.append("  |  generated: ").append(control.getGeneratedCount()).append("/").append(control.getPassengerLimit());
+        }
+        LatencyHistogram wait = model.waitTime();
+        if (wait.count() > 0) {
+            sb.append("  |  wait p95: ").append(String.format(Locale.US, "%.1fs", wait.percentile(0.95) / 1000.0));
+        }
         sb.append("  |  speed: ").append(String.format(Locale.US, "%.2fx", SimulationClock.getSpeed()));
         if (SimulationClock.isPaused()) sb.append("  (PAUSED)");
-        sb.append("  |  elevators: ").append(elevators.size());
-        if (Config.ZONING_ENABLED) {
-            sb.append("  |  zoning: ON (split=").append(Config.ZONE_SPLIT_FLOOR).append(")");
+        sb.append("  |  elevators: ").append(model.elevatorCount());
+        SimulationSettings settings = model.settings();
+        if (settings.zoningEnabled()) {
+            sb.append("  |  zoning: ON (split=").append(settings.zoneSplitFloor()).append(")");
         } else {
             sb.append("  |  zoning: OFF");
         }
@@ -190,6 +217,11 @@ public final class SimulationVisualizer {
     root.add(pause);
     root.add(Box.createVerticalStrut(18));
 
+    if (replay != null) {
+        addTimeline(root);
+        return root;
+    }
+
     root.add(sectionTitle("PASSENGERS"));
 
     JLabel genTitle = new JLabel("Total to generate:");
@@ -239,6 +271,50 @@ public final class SimulationVisualizer {
     return root;
 }
 
+/** Шкала времени воспроизведения: показывает текущий момент, перетаскивание — перемотка. */
+private void addTimeline(JPanel root) {
+    root.add(sectionTitle("TIMELINE"));
+
+    long span = Math.max(1, replay.endMs() - replay.startMs());
+    JSlider timeline = new JSlider(0, TIMELINE_STEPS, 0);
+    timeline.setAlignmentX(Component.LEFT_ALIGNMENT);
+    timeline.setOpaque(false);
+
+    JLabel at = new JLabel();
+    at.setForeground(new Color(200, 200, 215));
+    at.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+    boolean[] updating = {false};
+    timeline.addChangeListener(e -> {
+        long t = replay.startMs() + span * timeline.getValue() / TIMELINE_STEPS;
+        at.setText("At " + VirtualTimeEngine.formatTime(t - replay.startMs()));
+        if (!updating[0]) replay.seek(t);
+    });
+    new javax.swing.Timer(200, e -> {
+        if (timeline.getValueIsAdjusting()) return;
+        updating[0] = true;
+        timeline.setValue((int) ((replay.nowMs() - replay.startMs()) * TIMELINE_STEPS / span));
+        updating[0] = false;
+    }).start();
+
+    root.add(at);
+    root.add(Box.createVerticalStrut(6));
+    root.add(timeline);
+    root.add(Box.createVerticalStrut(18));
+
+    JTextArea help = new JTextArea(
+            "Replay of an event journal.\n" +
+            "Drag the timeline to jump;\n" +
+            "space / + / - control playback."
+    );
+    help.setEditable(false);
+    help.setOpaque(false);
+    help.setFont(new Font("SansSerif", Font.PLAIN, 12));
+    help.setForeground(new Color(160, 160, 175));
+    help.setAlignmentX(Component.LEFT_ALIGNMENT);
+    root.add(help);
+}
+
 private static JLabel sectionTitle(String text) {
     JLabel l = new JLabel(text);
     l.setFont(new Font("SansSerif", Font.BOLD, 12));
@@ -318,6 +394,8 @@ private static void styleSpinner(JSpinner sp) {
             }
         });
 
+        if (control == null) return;
+
         im.put(KeyStroke.getKeyStroke('g'), "setPassengers");
         im.put(KeyStroke.getKeyStroke('G'), "setPassengers");
         am.put("setPassengers", new AbstractAction() {
@@ -361,8 +439,7 @@ private static void styleSpinner(JSpinner sp) {
         private static final long EXIT_MS = 650;
 
         private final int floors;
-        private final List<Elevator> elevators;
-        private final Dispatcher dispatcher;
+        private final BuildingModel model;
 
         private final Map<Integer, PassengerKindPos> lastPos = new HashMap<>();
         private final Map<Integer, Point> lastWaitingCenter = new HashMap<>();
@@ -390,17 +467,16 @@ private final List<Star> stars = new ArrayList<>();
 private int starsW = -1, starsH = -1;
 private final Random fxRand = new Random(42);
 
-        RealisticBuildingPanel(int floors, List<Elevator> elevators, Dispatcher dispatcher) {
+        RealisticBuildingPanel(int floors, BuildingModel model) {
             this.floors = floors;
-            this.elevators = elevators;
-            this.dispatcher = dispatcher;
+            this.model = model;
             setBackground(new Color(8, 8, 14));
             setOpaque(true);
             updatePreferredSize();
         }
 
         private void updatePreferredSize() {
-    int shaftsW = elevators.size() * SHAFT_W + Math.max(0, elevators.size() - 1) * SHAFT_GAP;
+    int shaftsW = model.elevatorCount() * SHAFT_W + Math.max(0, model.elevatorCount() - 1) * SHAFT_GAP;
     int w = LEFT_INFO_W + LOBBY_W + 30 + shaftsW + 40;
     int h = TOP + BOTTOM + floors * FLOOR_H;
     setPreferredSize(new Dimension(w, h));
@@ -416,7 +492,7 @@ private void ensureStars(int w, int h) {
     starsH = h;
     stars.clear();
 
-    fxRand.setSeed(42L + (long) floors * 1000L + (long) elevators.size() * 17L);
+    fxRand.setSeed(42L + (long) floors * 1000L + (long) model.elevatorCount() * 17L);
     int count = Math.max(120, (w * h) / 9000);
     for (int i = 0; i < count; i++) {
         float x = fxRand.nextFloat() * w;
@@ -435,8 +511,8 @@ private void ensureStars(int w, int h) {
             long dt = Math.max(1, nowMs - lastTickMs);
             lastTickMs = nowMs;
 
-            for (Elevator e : elevators) {
-                ElevatorSnapshot snap = e.snapshot();
+            for (int i = 0; i < model.elevatorCount(); i++) {
+                ElevatorSnapshot snap = model.elevatorSnapshot(i);
                 float cur = doorOpenByElevatorId.getOrDefault(snap.id(), 0f);
                 float target = (snap.status() == ElevatorStatus.DOORS_OPEN) ? 1f : 0f;
                 float step = (float) dt / 250f;
@@ -453,13 +529,13 @@ private void ensureStars(int w, int h) {
             Map<Integer, Point> curWaitingCenter = new HashMap<>();
             Map<Integer, Point> curInsideCenter = new HashMap<>();
 
-            int totalFloors = dispatcher.getTotalFloors();
+            int totalFloors = model.floors();
             for (int f = 1; f <= totalFloors; f++) {
-                int upCount = dispatcher.getWaitingCount(f, Direction.UP);
-                int downCount = dispatcher.getWaitingCount(f, Direction.DOWN);
+                int upCount = model.waitingCount(f, Direction.UP);
+                int downCount = model.waitingCount(f, Direction.DOWN);
 
-                List<Passenger> up = dispatcher.peekWaitingPassengers(f, Direction.UP, Math.min(MAX_WAITING_SAMPLE, upCount));
-                List<Passenger> down = dispatcher.peekWaitingPassengers(f, Direction.DOWN, Math.min(MAX_WAITING_SAMPLE, downCount));
+                List<Passenger> up = model.peekWaiting(f, Direction.UP, Math.min(MAX_WAITING_SAMPLE, upCount));
+                List<Passenger> down = model.peekWaiting(f, Direction.DOWN, Math.min(MAX_WAITING_SAMPLE, downCount));
                 waitingUpByFloor.put(f, up);
                 waitingDownByFloor.put(f, down);
 
@@ -474,13 +550,12 @@ private void ensureStars(int w, int h) {
                 }
             }
 
-            for (int i = 0; i < elevators.size(); i++) {
-                Elevator e = elevators.get(i);
-                List<Passenger> inside = new ArrayList<>(e.passengersInsideSnapshot(0));
+            for (int i = 0; i < model.elevatorCount(); i++) {
+                List<Passenger> inside = new ArrayList<>(model.passengersInside(i));
                 inside.sort(Comparator.comparingInt(Passenger::getId));
                 insideByElevator.add(inside);
 
-                double pos = e.getVisualFloorPos();
+                double pos = model.elevatorPosition(i);
                 layoutInsideGroup(curInsideCenter, i, pos, inside);
 
                 for (Passenger p : inside) {
@@ -816,8 +891,8 @@ private void drawHoloColumn(Graphics2D g2, int x, int y) {
         String fl = String.format(Locale.US, "F%02d", f);
         g2.drawString(fl, px + 10, y + 4);
 
-        int up = dispatcher.getWaitingCount(f, Direction.UP);
-        int down = dispatcher.getWaitingCount(f, Direction.DOWN);
+        int up = model.waitingCount(f, Direction.UP);
+        int down = model.waitingCount(f, Direction.DOWN);
 
         drawCounterPill(g2, 86, y - 16, "↑", up, new Color(255, 170, 80));
         drawCounterPill(g2, 86, y + 2, "↓", down, new Color(110, 170, 255));
@@ -846,7 +921,7 @@ private void drawCounterPill(Graphics2D g2, int x, int y, String icon, int count
     int topY = TOP;
     int bottomY = TOP + floors * FLOOR_H;
 
-    for (int i = 0; i < elevators.size(); i++) {
+    for (int i = 0; i < model.elevatorCount(); i++) {
         int sx = shaftX(i);
 
         Color accent = elevatorAccent(i);
@@ -882,8 +957,8 @@ private void drawCounterPill(Graphics2D g2, int x, int y, String icon, int count
             g2.fillRoundRect(doorX, dy, doorW, DOOR_H, 10, 10);
             g2.setColor(new Color(accent.getRed(), accent.getGreen(), accent.getBlue(), 90));
             g2.drawRoundRect(doorX, dy, doorW, DOOR_H, 10, 10);
-            int up = dispatcher.getWaitingCount(f, Direction.UP);
-            int down = dispatcher.getWaitingCount(f, Direction.DOWN);
+            int up = model.waitingCount(f, Direction.UP);
+            int down = model.waitingCount(f, Direction.DOWN);
             int ledX = doorX + doorW - 22;
             int ledY = dy + 8;
 
@@ -915,17 +990,16 @@ private Color elevatorAccent(int idx) {
 }
 
         private void drawCarsAndInside(Graphics2D g2) {
-            for (int i = 0; i < elevators.size(); i++) {
-                Elevator e = elevators.get(i);
-                ElevatorSnapshot s = e.snapshot();
+            for (int i = 0; i < model.elevatorCount(); i++) {
+                ElevatorSnapshot s = model.elevatorSnapshot(i);
 
-                double pos = e.getVisualFloorPos();
+                double pos = model.elevatorPosition(i);
                 Rectangle car = carRectAt(i, pos);
                 drawCar(g2, i, s, car);
 
                 List<Passenger> insideSrc = (insideByElevator.size() > i)
                         ? insideByElevator.get(i)
-                        : e.passengersInsideSnapshot(0);
+                        : model.passengersInside(i);
                 List<Passenger> inside = new ArrayList<>(insideSrc);
                 inside.sort(Comparator.comparingInt(Passenger::getId));
 
@@ -1059,8 +1133,8 @@ private Color elevatorAccent(int idx) {
                     drawn++;
                 }
 
-                int totalUp = dispatcher.getWaitingCount(f, Direction.UP);
-                int totalDown = dispatcher.getWaitingCount(f, Direction.DOWN);
+                int totalUp = model.waitingCount(f, Direction.UP);
+                int totalDown = model.waitingCount(f, Direction.DOWN);
                 int y = yForFloorCenter(f);
 
                 if (totalUp > up.size()) {
@@ -0,0 +1,86 @@
+package com.multielevator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * На каких потоках запускать циклы лифтов, диспетчера и генератора.
+ *
+ * VIRTUAL — виртуальные потоки: блокировки на ReentrantLock/Condition и sleep
+ * не занимают поток ОС, поэтому сотни лифтов обходятся несколькими carrier-потоками.
+ * Виртуальные потоки появились в Java 21, а проект собирается и на Java 17, поэтому
+ * их API вызывается через reflection; на старом JDK VIRTUAL сразу падает с понятной ошибкой.
+ */
+public enum ThreadMode {
+    PLATFORM,
+    VIRTUAL;
+
+    private static final int VIRTUAL_MIN_FEATURE = 21;
+
+    /** Есть ли виртуальные потоки в текущем JDK. */
+    public boolean isAvailable() {
+        return this == PLATFORM || Runtime.version().feature() >= VIRTUAL_MIN_FEATURE;
+    }
+
+    /** Проверка при разборе аргументов: --vthreads на старом JDK — ошибка до запуска. */
+    public ThreadMode requireAvailable() {
+        if (!isAvailable()) {
+            throw new IllegalStateException("--vthreads needs Java " + VIRTUAL_MIN_FEATURE
+                    + "+, running on Java " + Runtime.version());
+        }
+        return this;
+    }
+
+    public Thread newThread(Runnable task, String name) {
+        if (this == VIRTUAL) {
+            requireAvailable();
+            try {
+                Object builder = VirtualApi.OF_VIRTUAL.invoke(null);
+                builder = VirtualApi.BUILDER_NAME.invoke(builder, name);
+                return (Thread) VirtualApi.BUILDER_UNSTARTED.invoke(builder, task);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot create virtual thread " + name, e);
+            }
+        }
+        return new Thread(task, name);
+    }
+
+    public Thread start(Runnable task, String name) {
+        Thread t = newThread(task, name);
+        t.start();
+        return t;
+    }
+
+    /** Executor «виртуальный поток на задачу»; только для VIRTUAL. */
+    public ExecutorService newPerTaskExecutor() {
+        if (this != VIRTUAL) throw new IllegalStateException("Per-task executor is only for VIRTUAL");
+        requireAvailable();
+        try {
+            return (ExecutorService) VirtualApi.PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create virtual-thread executor", e);
+        }
+    }
+
+    // методы Java 21; класс загружается только при первом обращении к VIRTUAL
+    private static final class VirtualApi {
+        static final Method OF_VIRTUAL;
+        static final Method BUILDER_NAME;
+        static final Method BUILDER_UNSTARTED;
+        static final Method PER_TASK_EXECUTOR;
+
+        static {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                OF_VIRTUAL = Thread.class.getMethod("ofVirtual");
+                BUILDER_NAME = builder.getMethod("name", String.class);
+                BUILDER_UNSTARTED = builder.getMethod("unstarted", Runnable.class);
+                PER_TASK_EXECUTOR = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.multielevator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Профиль трафика здания по времени суток: периоды с интенсивностью прибытий и своей
+ * матрицей «откуда → куда» ({@link OdMatrix}). По профилю {@link ProfileTraffic}
+ * генерирует неоднородный пуассоновский поток.
+ *
+ * Текстовый формат (строка — директива, {@code #} — комментарий):
+ * <pre>
+ * lobby 1                                    # основной вход, по умолчанию 1
+ * weight 2-10 1.5                            # «населённость» этажей, по умолчанию 1
+ * period up-peak 07:30:00 09:00:00 100/floor 85 10 5
+ * period meeting 14:00:00 15:00:00 400
+ * od 12 20 3                                 # поездки 12 -> 20, вес 3
+ * </pre>
+ * Интенсивность — пассажиров в час на всё здание или {@code N/floor} — на каждый этаж,
+ * кроме вестибюля. Три числа после неё — доли встречного (из вестибюля), исходящего
+ * (в вестибюль) и межэтажного трафика, распределённые по весам этажей; без них матрицу
+ * периода задают строки {@code od} после него. Периоды не пересекаются, время — чч:мм:сс.
+ *
+ * Встроенные профили: {@code up-peak}, {@code pure-up-peak} (только из вестибюля — по нему
+ * считают handling capacity), {@code lunch}, {@code down-peak}, {@code interfloor} (по часу)
+ * и {@code day} (07:00–19:00).
+ */
+public final class TrafficProfile {
+
+    private static final Map<String, String> BUILT_IN = Map.of(
+            "up-peak", "period up-peak 00:00:00 01:00:00 100/floor 85 10 5",
+            "pure-up-peak", "period pure-up-peak 00:00:00 01:00:00 100/floor 1 0 0",
+            "lunch", "period lunch 00:00:00 01:00:00 60/floor 45 45 10",
+            "down-peak", "period down-peak 00:00:00 01:00:00 80/floor 10 85 5",
+            "interfloor", "period interfloor 00:00:00 01:00:00 30/floor 10 10 80",
+            "day", String.join("\n",
+                    "period early      07:00:00 07:30:00 50/floor  80 10 10",
+                    "period up-peak    07:30:00 09:00:00 100/floor 85 10 5",
+                    "period morning    09:00:00 11:45:00 30/floor  20 20 60",
+                    "period lunch-out  11:45:00 12:15:00 60/floor  10 70 20",
+                    "period lunch      12:15:00 12:45:00 60/floor  45 45 10",
+                    "period lunch-in   12:45:00 13:15:00 60/floor  70 10 20",
+                    "period afternoon  13:15:00 16:45:00 30/floor  20 20 60",
+                    "period down-peak  16:45:00 18:00:00 80/floor  10 85 5",
+                    "period evening    18:00:00 19:00:00 20/floor  10 70 20"));
+
+    private final String name;
+    private final int floors;
+    private final int lobby;
+    private final List<Period> periods;
+
+    private TrafficProfile(String name, int floors, int lobby, List<Period> periods) {
+        this.name = name;
+        this.floors = floors;
+        this.lobby = lobby;
+        this.periods = Collections.unmodifiableList(periods);
+    }
+
+    /** Встроенный профиль по имени или файл профиля, для здания из floors этажей. */
+    public static TrafficProfile load(String spec, int floors) throws IOException {
+        String builtIn = BUILT_IN.get(spec.toLowerCase(Locale.ROOT));
+        if (builtIn != null) {
+            return parse(spec, Arrays.asList(builtIn.split("\n")), floors);
+        }
+        Path path = Path.of(spec);
+        if (!Files.exists(path)) {
+            throw new IOException("No such traffic profile: " + spec + " (built-in: " + String.join(", ", BUILT_IN.keySet()) + ")");
+        }
+        return parse(path.getFileName().toString(), Files.readAllLines(path, StandardCharsets.UTF_8), floors);
+    }
+
+    static TrafficProfile parse(String name, List<String> lines, int floors) {
+        int lobby = 1;
+        double[] population = new double[floors + 1];
+        Arrays.fill(population, 1.0);
+        List<String[]> periodLines = new ArrayList<>();
+        List<List<String[]>> odLines = new ArrayList<>();
+
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            String[] t = line.trim().split("\\s+");
+            if (t[0].isEmpty()) continue;
+            String where = name + ":" + (n + 1);
+            try {
+                switch (t[0]) {
+                    case "lobby" -> lobby = Integer.parseInt(t[1]);
+                    case "weight" -> {
+                        String[] range = t[1].split("-");
+                        int lo = Integer.parseInt(range[0]);
+                        int hi = (range.length > 1) ? Integer.parseInt(range[1]) : lo;
+                        double w = Double.parseDouble(t[2]);
+                        for (int f = Math.max(1, lo); f <= Math.min(floors, hi); f++) population[f] = w;
+                    }
+                    case "period" -> {
+                        if (t.length != 5 && t.length != 8) throw new IllegalArgumentException("expected: period name start end rate [in out inter]");
+                        periodLines.add(t);
+                        odLines.add(new ArrayList<>());
+                    }
+                    case "od" -> {
+                        if (periodLines.isEmpty()) throw new IllegalArgumentException("od before any period");
+                        odLines.get(odLines.size() - 1).add(t);
+                    }
+                    default -> throw new IllegalArgumentException("unknown directive " + t[0]);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(where + ": " + e.getMessage(), e);
+            }
+        }
+        if (lobby < 1 || lobby > floors) throw new IllegalArgumentException(name + ": lobby outside 1.." + floors);
+        if (periodLines.isEmpty()) throw new IllegalArgumentException(name + ": no periods");
+
+        List<Period> periods = new ArrayList<>();
+        for (int i = 0; i < periodLines.size(); i++) {
+            String[] t = periodLines.get(i);
+            String where = name + ", period " + t[1];
+            long start = VirtualTimeEngine.parseTime(t[2]);
+            long end = VirtualTimeEngine.parseTime(t[3]);
+            if (end <= start) throw new IllegalArgumentException(where + ": end must be after start");
+            if (!periods.isEmpty() && start < periods.get(periods.size() - 1).endMs) {
+                throw new IllegalArgumentException(where + ": overlaps the previous period");
+            }
+            double rate = parseRate(t[4], floors);
+            OdMatrix od;
+            if (t.length == 8) {
+                if (!odLines.get(i).isEmpty()) throw new IllegalArgumentException(where + ": both a split and od lines");
+                od = OdMatrix.fromSplit(floors, lobby, population,
+                        Double.parseDouble(t[5]), Double.parseDouble(t[6]), Double.parseDouble(t[7]));
+            } else {
+                double[] w = new double[floors * floors];
+                for (String[] o : odLines.get(i)) {
+                    int from = Integer.parseInt(o[1]);
+                    int to = Integer.parseInt(o[2]);
+                    if (from < 1 || from > floors || to < 1 || to > floors) continue; // этажей нет в этом здании
+                    w[(from - 1) * floors + (to - 1)] += Double.parseDouble(o[3]);
+                }
+                od = new OdMatrix(floors, w);
+            }
+            periods.add(new Period(t[1], start, end, rate, od));
+        }
+        return new TrafficProfile(name, floors, lobby, periods);
+    }
+
+    // «N» — пассажиров в час на здание, «N/floor» — на этаж кроме вестибюля
+    private static double parseRate(String text, int floors) {
+        double rate = text.endsWith("/floor")
+                ? Double.parseDouble(text.substring(0, text.length() - "/floor".length())) * (floors - 1)
+                : Double.parseDouble(text);
+        if (rate < 0) throw new IllegalArgumentException("rate must be >= 0: " + text);
+        return rate;
+    }
+
+    public String name() { return name; }
+    public int floors() { return floors; }
+    public int lobby() { return lobby; }
+    List<Period> periods() { return periods; }
+    public long startMs() { return periods.get(0).startMs; }
+    public long endMs() { return periods.get(periods.size() - 1).endMs; }
+
+    /** Ожидаемое число пассажиров за весь профиль. */
+    public double expectedPassengers() {
+        double n = 0;
+        for (Period p : periods) n += p.ratePerHour * (p.endMs - p.startMs) / 3_600_000.0;
+        return n;
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%s: %d floors, lobby %d, ~%.0f passengers%n",
+                name, floors, lobby, expectedPassengers()));
+        for (Period p : periods) {
+            sb.append(String.format(Locale.US, "  %-12s %s - %s  %8.1f /h%n", p.name,
+                    VirtualTimeEngine.formatTime(p.startMs), VirtualTimeEngine.formatTime(p.endMs), p.ratePerHour));
+        }
+        return sb.toString();
+    }
+
+    static final class Period {
+        final String name;
+        final long startMs;
+        final long endMs;
+        final double ratePerHour;
+        final OdMatrix od;
+
+        Period(String name, long startMs, long endMs, double ratePerHour, OdMatrix od) {
+            this.name = name;
+            this.startMs = startMs;
+            this.endMs = endMs;
+            this.ratePerHour = ratePerHour;
+            this.od = od;
+        }
+    }
+
+    /** Печатает периоды профиля: {@code java com.multielevator.TrafficProfile day 30}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.multielevator.TrafficProfile <name|file> [floors]");
+            System.exit(2);
+        }
+        int floors = (args.length > 1) ? Integer.parseInt(args[1]) : Config.FLOORS;
+        System.out.print(load(args[0], floors).describe());
+    }
+}
@@ -0,0 +1,59 @@
+package com.multielevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Поток прибытий пассажиров для генератора: случайный ({@link UniformTraffic}), по профилю
+ * трафика ({@link ProfileTraffic}) или записанный ({@link CsvTrafficTrace}, {@link BinaryTrafficTrace}).
+ *
+ * Текущее прибытие доступно через геттеры после {@link #next()} (без объекта на запись).
+ * Время прибытия — мс от начала прогона, не убывает.
+ */
+public interface TrafficSource extends Closeable {
+
+    /** Переходит к следующему прибытию. @return false, если поток кончился */
+    boolean next() throws IOException;
+
+    long arrivalMs();
+
+    int fromFloor();
+
+    int toFloor();
+
+    /** Сколько записей пропущено (этаж вне здания, вызов на свой этаж, нечитаемая строка). */
+    default long skipped() {
+        return 0;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Источник для прогона: трасса из {@link SimulationSettings#tracePath()} (.csv — текст,
+     * иначе двоичный формат), профиль {@link SimulationSettings#trafficProfile()} или, если
+     * нет ни того ни другого, равномерный поток; случайность — от seed настроек.
+     */
+    static TrafficSource open(SimulationSettings settings, SimulationControl control) throws IOException {
+        if (settings.tracePath() != null) {
+            return openTrace(settings.tracePath(), settings.floors(), settings.trafficFromMs(), settings.trafficToMs());
+        }
+        if (settings.trafficProfile() != null) {
+            TrafficProfile profile = TrafficProfile.load(settings.trafficProfile(), settings.floors());
+            return new ProfileTraffic(profile, settings.seed(), settings.trafficRateScale(),
+                    settings.trafficFromMs(), settings.trafficToMs());
+        }
+        return new UniformTraffic(settings.seed(), control, settings.floors());
+    }
+
+    /** Трасса с записями из окна [fromMs, toMs) её времени; прибытия отсчитываются от начала окна. */
+    static TrafficSource openTrace(Path trace, int floors, long fromMs, long toMs) throws IOException {
+        String name = trace.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return new CsvTrafficTrace(trace, floors, fromMs, toMs);
+        }
+        return BinaryTrafficTrace.open(trace, floors, fromMs, toMs);
+    }
+}
@@ -0,0 +1,59 @@
+package com.multielevator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Равномерный поток пассажиров: этажи вызова и назначения равновероятны, интервал
+ * между запросами — равномерно в [min, max] из {@link SimulationControl}.
+ * Первый пассажир приходит в момент 0, поток бесконечен (сколько генерировать,
+ * решает {@link SimulationControl}).
+ *
+ * Все случайные числа берутся из одного {@link SplittableRandom}, заведённого от
+ * seed прогона, поэтому одинаковый seed даёт одинаковую последовательность
+ * пассажиров в любом режиме. Не потокобезопасен: один генератор — один поток.
+ */
+final class UniformTraffic implements TrafficSource {
+
+    private final SplittableRandom rnd;
+    private final SimulationControl control;
+    private final int floors;
+
+    private boolean started;
+    private long arrivalMs;
+    private int from;
+    private int to;
+
+    UniformTraffic(long seed, SimulationControl control, int floors) {
+        this.rnd = new SplittableRandom(seed);
+        this.control = control;
+        this.floors = floors;
+    }
+
+    @Override
+    public boolean next() {
+        if (started) {
+            arrivalMs += rnd.nextInt(control.getIntervalMinMs(), control.getIntervalMaxMs() + 1);
+        }
+        started = true;
+        from = rnd.nextInt(1, floors + 1);
+        do {
+            to = rnd.nextInt(1, floors + 1);
+        } while (to == from);
+        return true;
+    }
+
+    @Override
+    public long arrivalMs() {
+        return arrivalMs;
+    }
+
+    @Override
+    public int fromFloor() {
+        return from;
+    }
+
+    @Override
+    public int toFloor() {
+        return to;
+    }
+}
@@ -0,0 +1,120 @@
+package com.multielevator;
+
+import java.util.PriorityQueue;
+
+/**
+ * Дискретно-событийный движок с виртуальным временем.
+ *
+ * События хранятся в очереди с приоритетом по времени; движок сразу
+ * «перепрыгивает» к следующему событию, поэтому час пикового трафика
+ * считается за доли секунды. События с одинаковым временем выполняются
+ * в порядке планирования.
+ *
+ * Не потокобезопасен: все события выполняются в потоке, вызвавшем {@link #run()}.
+ * Читать {@link #now()} можно из любого потока (GUI в прогоне с темпом).
+ */
+public final class VirtualTimeEngine implements EventScheduler {
+
+    private static final class ScheduledEvent implements Comparable<ScheduledEvent> {
+        final long time;
+        final long seq;
+        final Runnable task;
+
+        ScheduledEvent(long time, long seq, Runnable task) {
+            this.time = time;
+            this.seq = seq;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledEvent o) {
+            int c = Long.compare(time, o.time);
+            if (c != 0) return c;
+            return Long.compare(seq, o.seq);
+        }
+    }
+
+    private final PriorityQueue<ScheduledEvent> queue = new PriorityQueue<>();
+    private volatile long now;
+    private long seq;
+    private long processed;
+    private boolean stopped;
+
+    @Override
+    public long now() {
+        return now;
+    }
+
+    @Override
+    public void schedule(long delayMs, Runnable task) {
+        scheduleAt(now + Math.max(0, delayMs), task);
+    }
+
+    public void scheduleAt(long timeMs, Runnable task) {
+        if (task == null) return;
+        queue.add(new ScheduledEvent(Math.max(now, timeMs), seq++, task));
+    }
+
+    /** Остановить {@link #run()} после текущего события. */
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public long getProcessedEvents() {
+        return processed;
+    }
+
+    public int getQueuedEvents() {
+        return queue.size();
+    }
+
+    /** Время симуляции в формате HH:mm:ss.SSS (от начала прогона). */
+    public static String formatTime(long ms) {
+        long h = ms / 3_600_000L;
+        long m = (ms / 60_000L) % 60;
+        long s = (ms / 1000L) % 60;
+        return String.format("%02d:%02d:%02d.%03d", h, m, s, ms % 1000);
+    }
+
+    /** Обратное к {@link #formatTime}: «чч:мм:сс[.SSS]», «мм:сс» или секунды (можно дробные) — в мс. */
+    public static long parseTime(String text) {
+        double seconds = 0;
+        for (String part : text.trim().split(":")) {
+            seconds = seconds * 60 + Double.parseDouble(part);
+        }
+        return Math.round(seconds * 1000.0);
+    }
+
+    /**
+     * Выполняет события, пока очередь не опустеет или не будет вызван {@link #stop()}.
+     */
+    public void run() {
+        while (!stopped) {
+            ScheduledEvent ev = queue.poll();
+            if (ev == null) break;
+            now = ev.time;
+            processed++;
+            ev.task.run();
+        }
+    }
+
+    /**
+     * Выполняет все события со временем не позже timeMs и сдвигает часы на timeMs.
+     * Оставшиеся события остаются в очереди.
+     */
+    public void runUntil(long timeMs) {
+        while (!stopped) {
+            ScheduledEvent ev = queue.peek();
+            if (ev == null || ev.time > timeMs) break;
+            queue.poll();
+            now = ev.time;
+            processed++;
+            ev.task.run();
+        }
+        if (!stopped) now = Math.max(now, timeMs);
+    }
+}